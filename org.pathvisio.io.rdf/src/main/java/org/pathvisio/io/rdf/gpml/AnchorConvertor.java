@@ -15,11 +15,8 @@
  */
 package org.pathvisio.io.rdf.gpml;
 
-import org.apache.jena.rdf.model.Model;
-import org.apache.jena.rdf.model.Resource;
-import org.apache.jena.vocabulary.DCTerms;
-import org.apache.jena.vocabulary.RDF;
-import org.pathvisio.io.rdf.ontologies.Gpml;
+import org.apache.jena.graph.Node;
+import org.pathvisio.io.rdf.utils.Triples;
 import org.pathvisio.libgpml.model.LineElement.Anchor;
 
 public class AnchorConvertor {
@@ -32,17 +29,9 @@ public class AnchorConvertor {
 		this.convertor = convertor;
 	}
 
-	public void convertAnchor(Anchor anchor, Model model, Resource intRes, String wpId, String revision) {
-		Resource anchorRes = model.createResource(intRes.getURI() + "/Anchor/" + anchor.getElementId());
-		anchorRes.addProperty(RDF.type, Gpml.ANCHOR);
-		anchorRes.addProperty(DCTerms.isPartOf, intRes);
-		anchorRes.addProperty(DCTerms.isPartOf, convertor.pwyRes);
-
-		anchorRes.addLiteral(Gpml.GRAPH_ID, anchor.getElementId());
-		anchorRes.addLiteral(Gpml.POSITION, anchor.getPosition());
-		anchorRes.addLiteral(Gpml.SHAPE, anchor.getShapeType().getName());
-
-		intRes.addProperty(Gpml.HAS_ANCHOR, anchorRes);
+	public void convertAnchor(Anchor anchor, ConversionContext context, Node intNode) {
+		ElementTriples.anchor(context.graph, context.pwyNode, intNode, anchor.getElementId(),
+			Triples.literal(anchor.getPosition()), anchor.getShapeType().getName());
 	}
 
 }
@@ -0,0 +1,45 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.gpml;
+
+import org.apache.jena.graph.Node;
+import org.bridgedb.Xref;
+import org.pathvisio.libgpml.model.Citation;
+import org.pathvisio.libgpml.model.PathwayElement.CitationRef;
+
+/**
+ * Converts the citations of a pathway (the BiopaxRefs in GPML2013a) and the
+ * references to them from the pathway and its elements.
+ */
+public class CitationConvertor {
+
+	Convertor convertor;
+
+	protected CitationConvertor(Convertor convertor) {
+		this.convertor = convertor;
+	}
+
+	public void convertCitation(Citation citation, ConversionContext context) {
+		Xref xref = citation.getXref();
+		boolean valid = xref != null && xref.getId() != null && xref.getDataSource() != null;
+		ElementTriples.citation(context.graph, context.pwyNode, citation.getElementId(),
+			valid ? xref.getId() : null, valid ? xref.getDataSource().getFullName() : null, citation.getUrlLink());
+	}
+
+	public void convertCitationRef(CitationRef ref, ConversionContext context, Node parent) {
+		ElementTriples.citationRef(context.graph, context.pwyNode, parent, ref.getCitation().getElementId());
+	}
+
+}
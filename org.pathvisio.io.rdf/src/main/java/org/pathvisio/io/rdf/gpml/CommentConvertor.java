@@ -15,12 +15,7 @@
 //
 package org.pathvisio.io.rdf.gpml;
 
-import org.apache.jena.rdf.model.Model;
-import org.apache.jena.rdf.model.Resource;
-import org.apache.jena.vocabulary.DCTerms;
-import org.apache.jena.vocabulary.RDF;
-import org.pathvisio.io.rdf.ontologies.Gpml;
-import org.pathvisio.io.rdf.utils.Utils;
+import org.apache.jena.graph.Node;
 import org.pathvisio.libgpml.model.PathwayElement.Comment;
 
 /**
@@ -40,19 +35,9 @@ public class CommentConvertor {
 	/**
 	 * conversion only GPML vocabulary
 	 */
-	public void parseCommentGpml(Comment comment, Model model, Resource parent) {
-		String commentStr = comment.getCommentText();
-		String commentid = (commentStr != null)
-			? Utils.md5sum(commentStr) : Utils.md5sum(""+comment.hashCode());
-		Resource commentRes = model.createResource(convertor.pwyRes.getURI() + "/Comment/" + commentid);
-
-		commentRes.addProperty(RDF.type, Gpml.COMMENT);
-
-		if(comment.getSource() != null) commentRes.addLiteral(Gpml.SOURCE, comment.getSource());
-		if (commentStr != null) commentRes.addLiteral(Gpml.COMMENT_TEXT, commentStr);
-		
-		parent.addProperty(Gpml.HAS_COMMENT, commentRes);
-		commentRes.addProperty(DCTerms.isPartOf, parent);
+	public void parseCommentGpml(Comment comment, ConversionContext context, Node parent) {
+		ElementTriples.comment(context.graph, context.pwyNode, parent, convertor.idMinter,
+			comment.getSource(), comment.getCommentText());
 	}
 	
 }
@@ -0,0 +1,58 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.gpml;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Resource;
+import org.pathvisio.io.rdf.utils.Utils;
+import org.pathvisio.libgpml.model.PathwayModel;
+
+/**
+ * The state of a single conversion: the pathway that is converted, the model
+ * the triples go into and the pathway resource. The {@link Convertor} and the
+ * element convertors keep no per-conversion state themselves, so one
+ * {@link Convertor} can run many conversions at the same time, each with
+ * its own context.
+ */
+public class ConversionContext {
+
+	final PathwayModel pathway;
+	final Model model;
+	final Graph graph;
+	final Resource pwyRes;
+	final Node pwyNode;
+	final String wpId;
+	final String revision;
+
+	ConversionContext(PathwayModel pathway, Model model, Resource pwyRes) {
+		this.pathway = pathway;
+		this.model = model;
+		this.graph = model.getGraph();
+		this.pwyRes = pwyRes.inModel(model);
+		this.pwyNode = pwyRes.asNode();
+		this.wpId = pathway.getPathway().getXref().getId();
+		this.revision = Utils.getRevisionFromVersion(wpId, pathway.getPathway().getVersion());
+	}
+
+	/**
+	 * Returns a context for the same pathway that writes into the given model.
+	 */
+	ConversionContext withModel(Model model) {
+		return new ConversionContext(this.pathway, model, this.pwyRes);
+	}
+
+}
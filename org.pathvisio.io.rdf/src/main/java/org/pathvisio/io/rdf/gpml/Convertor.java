@@ -17,44 +17,81 @@
 //
 package org.pathvisio.io.rdf.gpml;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphUtil;
+import org.apache.jena.graph.Node;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.rdf.model.Resource;
-import org.apache.jena.vocabulary.RDFS;
 import org.bridgedb.IDMapperStack;
-import org.pathvisio.io.rdf.ontologies.Gpml;
+import org.pathvisio.io.rdf.utils.ElementConvertor;
+import org.pathvisio.io.rdf.utils.IdMinter;
+import org.pathvisio.io.rdf.utils.Triples;
 import org.pathvisio.io.rdf.utils.Utils;
+import org.pathvisio.libgpml.model.Citation;
 import org.pathvisio.libgpml.model.DataNode;
+import org.pathvisio.libgpml.model.GraphicalLine;
 import org.pathvisio.libgpml.model.Group;
 import org.pathvisio.libgpml.model.Interaction;
 import org.pathvisio.libgpml.model.Label;
 import org.pathvisio.libgpml.model.LineElement.Anchor;
 import org.pathvisio.libgpml.model.Pathway;
+import org.pathvisio.libgpml.model.PathwayElement.CitationRef;
 import org.pathvisio.libgpml.model.PathwayModel;
+import org.pathvisio.libgpml.model.Shape;
 
 /**
  * Tool to convert a {@link Pathway} model into a Jena RDF model.
+ *
+ * <p>A Convertor holds only its options and the element convertors, and keeps
+ * the state of a conversion in a {@link ConversionContext}. After the options
+ * are set, a single Convertor can be shared between threads with
+ * {@link #asRDF(PathwayModel)}.
  */
-public class Convertor {
+public class Convertor implements ElementConvertor {
 
 	PathwayModel pathway;
 	DataNodeConvertor dataNodeConvertor;
 	LabelConvertor labelConvertor;
 	InteractionConvertor interactionConvertor;
 	GroupConvertor groupConvertor;
+	ShapeConvertor shapeConvertor;
+	GraphicalLineConvertor graphicalLineConvertor;
+	CitationConvertor citationConvertor;
 
-	// cached things
 	String domainName;
-	Resource pwyRes;
-	Map<String, Resource> datanodes;
+
+	// options
+	boolean compactGeometry = false;
+	IdMinter idMinter = IdMinter.MD5;
+	int parallelism = 1;
+	ExecutorService executor;
+	boolean ownsExecutor = false;
 
 	public Convertor(PathwayModel pathway) {
 		this(pathway, Utils.WP_RDF_URL);
 	}
 
+	/**
+	 * Creates a Convertor that is not bound to a pathway, for use with
+	 * {@link #asRDF(PathwayModel)}.
+	 */
+	public Convertor(String domainName) {
+		this(null, domainName);
+	}
+
 	public Convertor(PathwayModel pathway, String domainName) {
 		this.pathway = pathway;
 		this.domainName = domainName;
@@ -62,58 +99,280 @@ public class Convertor {
 		labelConvertor = new LabelConvertor(this);
 		interactionConvertor = new InteractionConvertor(this);
 		groupConvertor = new GroupConvertor(this);
+		shapeConvertor = new ShapeConvertor(this);
+		graphicalLineConvertor = new GraphicalLineConvertor(this);
+		citationConvertor = new CitationConvertor(this);
 	}
 
 	public Convertor(PathwayModel pathway, String domainName, IDMapperStack mapper) {
 		this(pathway, domainName);
 	}
 	
+	/**
+	 * When enabled, the points of each interaction are written as a single
+	 * gpml:lineGeometry literal instead of as separate gpml:Point resources.
+	 * The verbose, per-point output is the default.
+	 */
+	public Convertor setCompactGeometry(boolean compactGeometry) {
+		this.compactGeometry = compactGeometry;
+		return this;
+	}
+
+	/**
+	 * Sets the strategy used to mint IRIs for comments and points. The default,
+	 * {@link IdMinter#MD5}, gives the same IRIs as earlier releases.
+	 */
+	public Convertor setIdMinter(IdMinter idMinter) {
+		this.idMinter = idMinter;
+		return this;
+	}
+
+	/**
+	 * Sets the number of threads used by {@link #asRDF()}. With more than one thread,
+	 * the DataNodes, Labels, Interactions, Groups, Shapes and GraphicalLines are split into chunks that are
+	 * converted into separate graphs on a fork-join pool, and merged in document
+	 * order. The result is isomorphic to the sequential conversion, which is the default.
+	 * The pool is created once per Convertor and shared by concurrent {@link #asRDF(PathwayModel)}
+	 * calls; its idle threads end by themselves.
+	 *
+	 * @throws IllegalArgumentException when the number of threads is below 1
+	 */
+	public Convertor setParallelism(int parallelism) {
+		return setParallelism(parallelism, null);
+	}
+
+	/**
+	 * Like {@link #setParallelism(int)}, but converts the chunks on the given executor, for
+	 * example one shared by several Convertors, instead of on a pool of this Convertor. The
+	 * number of threads then only sets the number of chunks. The executor is not shut down
+	 * by the Convertor.
+	 *
+	 * @param executor the executor to convert the chunks on, or null for a pool of this Convertor
+	 * @throws IllegalArgumentException when the number of threads is below 1
+	 */
+	public Convertor setParallelism(int parallelism, ExecutorService executor) {
+		if (parallelism < 1) throw new IllegalArgumentException("The parallelism must be at least 1, not " + parallelism);
+		if (ownsExecutor) this.executor.shutdown();
+		this.parallelism = parallelism;
+		this.ownsExecutor = executor == null && parallelism > 1;
+		this.executor = ownsExecutor ? new ForkJoinPool(parallelism) : executor;
+		return this;
+	}
+
 	public Model asRDF() {
+		return asRDF(this.pathway);
+	}
+
+	/**
+	 * Converts the given pathway. This method does not change the Convertor, and
+	 * can be called from several threads at the same time.
+	 */
+	public Model asRDF(PathwayModel pathway) {
 		Model model = ModelFactory.createDefaultModel();
+		ConversionContext context = new ConversionContext(pathway, model,
+			generatePathwayResource(pathway.getPathway(), model));
+		if (parallelism > 1) return asRDFInParallel(context);
 
-		// pathway
-		pwyRes = generatePathwayResource(pathway.getPathway(), model);
-		generateDataNodeResources(pathway.getDataNodes(), model);
-		generateLabelResources(pathway.getLabels(), model);
-		generateInteractionResources(pathway.getInteractions(), model);
-		generateGroupResources(pathway.getGroups(), model);
+		generateDataNodeResources(pathway.getDataNodes(), context);
+		generateLabelResources(pathway.getLabels(), context);
+		generateInteractionResources(pathway.getInteractions(), context);
+		generateGroupResources(pathway.getGroups(), context);
+		generateShapeResources(pathway.getShapes(), context);
+		generateGraphicalLineResources(pathway.getGraphicalLines(), context);
+		generateCitationResources(pathway.getCitations(), context);
 		
 		return model;
 	}
 
-	private void generateGroupResources(List<Group> groups, Model model) {
-		String wpId = this.pathway.getPathway().getXref().getId();
-		String revision = Utils.getRevisionFromVersion(wpId, pathway.getPathway().getVersion());
+	private Model asRDFInParallel(ConversionContext context) {
+		PathwayModel pathway = context.pathway;
+		generateCitationResources(pathway.getCitations(), context);
 
-		for (Group group : groups) {
-			groupConvertor.convertGroup(group, model, wpId, revision);
+		int elementCount = pathway.getDataNodes().size() + pathway.getLabels().size()
+			+ pathway.getInteractions().size() + pathway.getGroups().size()
+			+ pathway.getShapes().size() + pathway.getGraphicalLines().size();
+		int chunkSize = Math.max(1, elementCount / (parallelism * 4));
+		List<Callable<Graph>> tasks = new ArrayList<>();
+		for (List<DataNode> chunk : chunks(pathway.getDataNodes(), chunkSize))
+			tasks.add(chunkTask(context, chunkContext -> generateDataNodeResources(chunk, chunkContext)));
+		for (List<Label> chunk : chunks(pathway.getLabels(), chunkSize))
+			tasks.add(chunkTask(context, chunkContext -> generateLabelResources(chunk, chunkContext)));
+		for (List<Interaction> chunk : chunks(pathway.getInteractions(), chunkSize))
+			tasks.add(chunkTask(context, chunkContext -> generateInteractionResources(chunk, chunkContext)));
+		for (List<Group> chunk : chunks(pathway.getGroups(), chunkSize))
+			tasks.add(chunkTask(context, chunkContext -> generateGroupResources(chunk, chunkContext)));
+		for (List<Shape> chunk : chunks(pathway.getShapes(), chunkSize))
+			tasks.add(chunkTask(context, chunkContext -> generateShapeResources(chunk, chunkContext)));
+		for (List<GraphicalLine> chunk : chunks(pathway.getGraphicalLines(), chunkSize))
+			tasks.add(chunkTask(context, chunkContext -> generateGraphicalLineResources(chunk, chunkContext)));
+
+		try {
+			// the futures are in the order of the tasks, so the merge is deterministic
+			for (Future<Graph> chunkGraph : executor.invokeAll(tasks)) {
+				GraphUtil.addInto(context.graph, chunkGraph.get());
+			}
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while converting " + context.pwyRes.getURI(), exception);
+		} catch (ExecutionException exception) {
+			throw new RuntimeException("Error while converting " + context.pwyRes.getURI(), exception.getCause());
 		}
+		return context.model;
 	}
 
-	private void generateInteractionResources(List<Interaction> interactions, Model model) {
-		String wpId = this.pathway.getPathway().getXref().getId();
-		String revision = Utils.getRevisionFromVersion(wpId, pathway.getPathway().getVersion());
+	// every chunk is converted into its own model
+	private Callable<Graph> chunkTask(ConversionContext context, Consumer<ConversionContext> conversion) {
+		return () -> {
+			ConversionContext chunkContext = context.withModel(ModelFactory.createDefaultModel());
+			conversion.accept(chunkContext);
+			return chunkContext.graph;
+		};
+	}
 
-		for (Interaction interaction : interactions) {
-			interactionConvertor.convertInteraction(interaction, model, wpId, revision);
+	private static <T> List<List<T>> chunks(List<T> elements, int chunkSize) {
+		List<List<T>> chunks = new ArrayList<>();
+		for (int i = 0; i < elements.size(); i += chunkSize) {
+			chunks.add(elements.subList(i, Math.min(elements.size(), i + chunkSize)));
 		}
+		return chunks;
 	}
 
-	private void generateLabelResources(List<Label> labels, Model model) {
-		String wpId = this.pathway.getPathway().getXref().getId();
-		String revision = Utils.getRevisionFromVersion(wpId, pathway.getPathway().getVersion());
+	@Override
+	public Map<String, Graph> asElementGraphs() {
+		return asElementGraphs(this.pathway);
+	}
 
-		for (Label label : labels) {
-			labelConvertor.convertLabel(label, model, wpId, revision);
+	@Override
+	public Map<String, Graph> asElementGraphs(Set<String> elementIds) {
+		return asElementGraphs(this.pathway, elementIds);
+	}
+
+	/**
+	 * The graph of a GPMLRDF element refers to other elements by their IDs only.
+	 */
+	@Override
+	public boolean dependsOnLinkedElements() {
+		return false;
+	}
+
+	/**
+	 * Converts the pathway element by element, each into its own graph, keyed by the
+	 * element ID. The pathway resource itself is stored under the empty string. The
+	 * union of all graphs is the same RDF as returned by {@link #asRDF(PathwayModel)}.
+	 *
+	 * @see org.pathvisio.io.rdf.utils.PathwayDelta
+	 */
+	public Map<String, Graph> asElementGraphs(PathwayModel pathway) {
+		return asElementGraphs(pathway, null);
+	}
+
+	/**
+	 * Like {@link #asElementGraphs(PathwayModel)}, but only converts the elements with
+	 * the given IDs, or all elements if the set is null.
+	 */
+	public Map<String, Graph> asElementGraphs(PathwayModel pathway, Set<String> elementIds) {
+		Map<String, Graph> graphs = new LinkedHashMap<>();
+
+		Model model = ModelFactory.createDefaultModel();
+		ConversionContext pathwayContext = new ConversionContext(pathway, model,
+			generatePathwayResource(pathway.getPathway(), model));
+		if (selected(elementIds, "")) {
+			for (CitationRef ref : pathway.getPathway().getCitationRefs()) {
+				citationConvertor.convertCitationRef(ref, pathwayContext, pathwayContext.pwyNode);
+			}
+			graphs.put("", pathwayContext.graph);
+		}
+		for (Citation citation : pathway.getCitations()) {
+			if (!selected(elementIds, citation.getElementId())) continue;
+			ConversionContext context = pathwayContext.withModel(ModelFactory.createDefaultModel());
+			citationConvertor.convertCitation(citation, context);
+			graphs.put(citation.getElementId(), context.graph);
+		}
+		for (DataNode node : pathway.getDataNodes()) {
+			if (!selected(elementIds, node.getElementId())) continue;
+			ConversionContext context = pathwayContext.withModel(ModelFactory.createDefaultModel());
+			dataNodeConvertor.convertDataNode(node, context);
+			graphs.put(node.getElementId(), context.graph);
 		}
+		for (Label label : pathway.getLabels()) {
+			if (!selected(elementIds, label.getElementId())) continue;
+			ConversionContext context = pathwayContext.withModel(ModelFactory.createDefaultModel());
+			labelConvertor.convertLabel(label, context);
+			graphs.put(label.getElementId(), context.graph);
+		}
+		for (Interaction interaction : pathway.getInteractions()) {
+			if (!selected(elementIds, interaction.getElementId())) continue;
+			ConversionContext context = pathwayContext.withModel(ModelFactory.createDefaultModel());
+			interactionConvertor.convertInteraction(interaction, context);
+			graphs.put(interaction.getElementId(), context.graph);
+		}
+		for (Group group : pathway.getGroups()) {
+			if (!selected(elementIds, group.getElementId())) continue;
+			ConversionContext context = pathwayContext.withModel(ModelFactory.createDefaultModel());
+			groupConvertor.convertGroup(group, context);
+			graphs.put(group.getElementId(), context.graph);
+		}
+		for (Shape shape : pathway.getShapes()) {
+			if (!selected(elementIds, shape.getElementId())) continue;
+			ConversionContext context = pathwayContext.withModel(ModelFactory.createDefaultModel());
+			shapeConvertor.convertShape(shape, context);
+			graphs.put(shape.getElementId(), context.graph);
+		}
+		for (GraphicalLine line : pathway.getGraphicalLines()) {
+			if (!selected(elementIds, line.getElementId())) continue;
+			ConversionContext context = pathwayContext.withModel(ModelFactory.createDefaultModel());
+			graphicalLineConvertor.convertGraphicalLine(line, context);
+			graphs.put(line.getElementId(), context.graph);
+		}
+		return graphs;
 	}
 
-	private void generateDataNodeResources(List<DataNode> dataNodes, Model model) {
-		String wpId = this.pathway.getPathway().getXref().getId();
-		String revision = Utils.getRevisionFromVersion(wpId, pathway.getPathway().getVersion());
+	private static boolean selected(Set<String> elementIds, String elementId) {
+		return elementIds == null || elementIds.contains(elementId);
+	}
 
+	private void generateCitationResources(List<Citation> citations, ConversionContext context) {
+		for (Citation citation : citations) {
+			citationConvertor.convertCitation(citation, context);
+		}
+		for (CitationRef ref : context.pathway.getPathway().getCitationRefs()) {
+			citationConvertor.convertCitationRef(ref, context, context.pwyNode);
+		}
+	}
+
+	private void generateGraphicalLineResources(List<GraphicalLine> lines, ConversionContext context) {
+		for (GraphicalLine line : lines) {
+			graphicalLineConvertor.convertGraphicalLine(line, context);
+		}
+	}
+
+	private void generateShapeResources(List<Shape> shapes, ConversionContext context) {
+		for (Shape shape : shapes) {
+			shapeConvertor.convertShape(shape, context);
+		}
+	}
+
+	private void generateGroupResources(List<Group> groups, ConversionContext context) {
+		for (Group group : groups) {
+			groupConvertor.convertGroup(group, context);
+		}
+	}
+
+	private void generateInteractionResources(List<Interaction> interactions, ConversionContext context) {
+		for (Interaction interaction : interactions) {
+			interactionConvertor.convertInteraction(interaction, context);
+		}
+	}
+
+	private void generateLabelResources(List<Label> labels, ConversionContext context) {
+		for (Label label : labels) {
+			labelConvertor.convertLabel(label, context);
+		}
+	}
+
+	private void generateDataNodeResources(List<DataNode> dataNodes, ConversionContext context) {
 		for (DataNode node : dataNodes) {
-			dataNodeConvertor.convertDataNode(node, model, wpId, revision);
+			dataNodeConvertor.convertDataNode(node, context);
 		}
 	}
 
@@ -121,22 +380,16 @@ public class Convertor {
 		String wpId = pathway.getXref().getId();
 		String revision = Utils.getRevisionFromVersion(wpId, pathway.getVersion());
 
-		Resource pwyRes = model.createResource(this.domainName + "/Pathway/" + wpId + "_r" + revision);
-		pwyRes.addProperty(RDFS.seeAlso, model.createResource("https://www.wikipathways.org/instance/" + wpId + "_r" + revision));
+		Node pwyNode = ElementTriples.pathwayNode(this.domainName, wpId, revision);
+		ElementTriples.pathway(model.getGraph(), pwyNode, wpId, revision, pathway.getOrganism(),
+			Triples.literal(pathway.getBoardHeight()), Triples.literal(pathway.getBoardWidth()),
+			pathway.getTitle(), pathway.getVersion());
 
 		// FIXME: 
 		//if (tags.contains("Curation:AnalysisCollection")) {
 		//	pwyRes.addProperty(RDFS.seeAlso, model.createResource("https://scholia.toolforge.org/wikipathways/" + wpId));
 		//}
 
-		// Required Attributes
-		pwyRes.addLiteral(Gpml.ORGANISM, pathway.getOrganism());
-		pwyRes.addLiteral(Gpml.BOARD_HEIGHT, pathway.getBoardHeight());
-		pwyRes.addLiteral(Gpml.BOARD_WIDTH, pathway.getBoardWidth());
-		pwyRes.addLiteral(Gpml.NAME, pathway.getTitle());
-		
-		// Optional Attributes
-		if(pathway.getVersion() != null) pwyRes.addLiteral(Gpml.VERSION, pathway.getVersion());
 		// FIXME: if(p.getCopyright() != null) pwyRes.addLiteral(Gpml.LICENSE, p.getCopyright());
 		// FIXME: if(p.getAuthor() != null) pwyRes.addLiteral(Gpml.AUTHOR, p.getAuthor());
 		// FIXME: if(p.getEmail() != null) pwyRes.addLiteral(Gpml.EMAIL, p.getEmail());
@@ -148,7 +401,7 @@ public class Convertor {
 		//for(String s : p.getBiopaxRefs()) {
 		//	pwyRes.addLiteral(Gpml.BIOPAX_REF, s);
 		//}
-		return pwyRes;
+		return model.createResource(pwyNode.getURI());
 	}
 
 }
@@ -15,15 +15,16 @@
  */
 package org.pathvisio.io.rdf.gpml;
 
-import org.apache.jena.rdf.model.Model;
-import org.apache.jena.rdf.model.Resource;
-import org.apache.jena.vocabulary.DCTerms;
-import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
 import org.bridgedb.IDMapperStack;
 import org.bridgedb.Xref;
 import org.pathvisio.io.rdf.ontologies.Gpml;
+import org.pathvisio.io.rdf.utils.Triples;
 import org.pathvisio.io.rdf.utils.Utils;
 import org.pathvisio.libgpml.model.DataNode;
+import org.pathvisio.libgpml.model.DataNode.State;
+import org.pathvisio.libgpml.model.PathwayElement.CitationRef;
 import org.pathvisio.libgpml.model.PathwayElement.Comment;
 import org.pathvisio.libgpml.model.type.LineStyleType;
 
@@ -33,6 +34,8 @@ public class DataNodeConvertor {
 	IDMapperStack mapper;
 	Convertor convertor;
 	CommentConvertor commentConvertor;
+	StateConvertor stateConvertor;
+	CitationConvertor citationConvertor;
 	
 	protected DataNodeConvertor(Convertor convertor, String domainName) {
 		this(convertor, domainName, null);
@@ -40,6 +43,8 @@ public class DataNodeConvertor {
 	
 	protected DataNodeConvertor(Convertor convertor, String domainName, IDMapperStack mapper) {
 		this.commentConvertor = new CommentConvertor(convertor);
+		this.stateConvertor = new StateConvertor(convertor);
+		this.citationConvertor = new CitationConvertor(convertor);
 		this.domainName = domainName;
 		this.convertor = convertor;
 		this.mapper = mapper;
@@ -49,45 +54,37 @@ public class DataNodeConvertor {
 		return xref != null && xref.getId() != null && xref.getDataSource() != null;
 	}
 
-	public void convertDataNode(DataNode elem, Model model, String wpId, String revision) {
-		String pwResURI = domainName + "/Pathway/" + wpId + "_r" + revision; 
-		Resource datanodeRes = model.createResource(pwResURI + "/DataNode/" + 
-		    (elem.getElementId() != null ? elem.getElementId() : elem.hashCode()));
-		datanodeRes.addProperty(RDF.type, Gpml.DATA_NODE);
-		datanodeRes.addProperty(DCTerms.isPartOf, convertor.pwyRes);
-		convertor.pwyRes.addProperty(Gpml.HAS_DATA_NODE, datanodeRes);
+	public void convertDataNode(DataNode elem, ConversionContext context) {
+		Graph graph = context.graph;
+		String elementId = elem.getElementId() != null ? elem.getElementId() : String.valueOf(elem.hashCode());
+		Node datanodeNode = ElementTriples.element(graph, context.pwyNode, "DataNode", elementId, Gpml.DATA_NODE, Gpml.HAS_DATA_NODE);
 
-		datanodeRes.addLiteral(Gpml.FONT_STYLE, elem.getFontStyle() ? "Italic" : "Normal");
-		datanodeRes.addLiteral(Gpml.FONT_SIZE, elem.getFontSize());
-		datanodeRes.addLiteral(Gpml.FONT_NAME, elem.getFontName());
-		datanodeRes.addLiteral(Gpml.FONT_WEIGHT, elem.getFontWeight() ? "Bold" : "Normal");
-		datanodeRes.addLiteral(Gpml.FONT_DECORATION, elem.getFontDecoration() ? "Underline" : "Normal");
-		datanodeRes.addLiteral(Gpml.FONT_STRIKETHRU, elem.getFontStrikethru() ? "Strikethru" : "Normal");
-		datanodeRes.addLiteral(Gpml.GRAPH_ID, elem.getElementId() != null ? elem.getElementId() : "");
-		if(elem.getGroupRef() != null) datanodeRes.addLiteral(Gpml.GROUP_REF, elem.getGroupRef().getElementId());
-		datanodeRes.addLiteral(Gpml.FILL_COLOR, Utils.colorToHex(elem.getFillColor()));
-		datanodeRes.addLiteral(Gpml.ZORDER, elem.getZOrder());
-		datanodeRes.addLiteral(Gpml.CENTER_X, elem.getCenterX());
-		datanodeRes.addLiteral(Gpml.CENTER_Y, elem.getCenterY());
-		datanodeRes.addLiteral(Gpml.HEIGHT, elem.getHeight());
-		datanodeRes.addLiteral(Gpml.WIDTH, elem.getWidth());
-		datanodeRes.addLiteral(Gpml.ALIGN, elem.getHAlign().getName());
-		datanodeRes.addLiteral(Gpml.VALIGN, elem.getVAlign().getName());
-		datanodeRes.addLiteral(Gpml.LINE_STYLE, elem.getBorderStyle() != LineStyleType.DASHED ? "Solid" : "Broken");
-		datanodeRes.addLiteral(Gpml.LINE_THICKNESS, elem.getBorderWidth());
-		datanodeRes.addLiteral(Gpml.TEXTLABEL, elem.getTextLabel());
-		if (elem.getShapeType() != null)
-			datanodeRes.addLiteral(Gpml.SHAPE_TYPE, elem.getShapeType().getName());
-		datanodeRes.addLiteral(Gpml.TYPE, elem.getType().getName());
-		datanodeRes.addLiteral(Gpml.COLOR, Utils.colorToHex(elem.getTextColor()));
+		ElementTriples.text(graph, datanodeNode, elem.getFontStyle(), Triples.literal(elem.getFontSize()), elem.getFontName(),
+			elem.getFontWeight(), elem.getFontDecoration(), elem.getFontStrikethru(), Utils.colorToHex(elem.getTextColor()),
+			elem.getHAlign().getName(), elem.getVAlign().getName());
+		Triples.add(graph, datanodeNode, Gpml.GRAPH_ID, elem.getElementId() != null ? elem.getElementId() : "");
+		if(elem.getGroupRef() != null) ElementTriples.groupRef(graph, datanodeNode, elem.getGroupRef().getElementId());
+		ElementTriples.shape(graph, datanodeNode, Triples.literal(elem.getCenterX()), Triples.literal(elem.getCenterY()),
+			Triples.literal(elem.getWidth()), Triples.literal(elem.getHeight()), Utils.colorToHex(elem.getFillColor()),
+			Triples.literal(elem.getZOrder()), elem.getBorderStyle() == LineStyleType.DASHED, Triples.literal(elem.getBorderWidth()),
+			elem.getShapeType() != null ? elem.getShapeType().getName() : null);
+		Triples.add(graph, datanodeNode, Gpml.TEXTLABEL, elem.getTextLabel());
+		Triples.add(graph, datanodeNode, Gpml.TYPE, elem.getType().getName());
 
-		if(elem.getXref() != null && elem.getXref().getId() != null && elem.getXref().getDataSource() != null) {
-			datanodeRes.addLiteral(Gpml.XREF_ID, elem.getXref().getId());
-			datanodeRes.addLiteral(Gpml.XREF_DATASOURCE, elem.getXref().getDataSource().getFullName());
+		if(validXref(elem.getXref())) {
+			ElementTriples.xref(graph, datanodeNode, elem.getXref().getId(), elem.getXref().getDataSource().getFullName());
 		}
 
 		for(Comment c : elem.getComments()) {
-			commentConvertor.parseCommentGpml(c, model, datanodeRes);
+			commentConvertor.parseCommentGpml(c, context, datanodeNode);
+		}
+
+		for(CitationRef ref : elem.getCitationRefs()) {
+			citationConvertor.convertCitationRef(ref, context, datanodeNode);
+		}
+
+		for(State state : elem.getStates()) {
+			stateConvertor.convertState(state, context, datanodeNode);
 		}
 	}
 
@@ -0,0 +1,231 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.gpml;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.DCTerms;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.pathvisio.io.rdf.ontologies.Gpml;
+import org.pathvisio.io.rdf.utils.IdMinter;
+import org.pathvisio.io.rdf.utils.Triples;
+
+/**
+ * The GPMLRDF triples of the pathway elements. The element convertors read the
+ * values from the libGPML model, and the {@link StreamingConvertor} reads them from
+ * the GPML, and both write the triples with these methods, so that they give the
+ * same RDF. Numbers are passed as literal nodes, so that each caller keeps the
+ * datatype of its values.
+ */
+final class ElementTriples {
+
+	private ElementTriples() {}
+
+	static Node pathwayNode(String domainName, String wpId, String revision) {
+		return Triples.uri(domainName + "/Pathway/" + wpId + "_r" + revision);
+	}
+
+	static void pathway(Graph graph, Node pwyNode, String wpId, String revision, String organism,
+			Node boardHeight, Node boardWidth, String title, String version) {
+		Triples.add(graph, pwyNode, RDFS.seeAlso, Triples.uri("https://www.wikipathways.org/instance/" + wpId + "_r" + revision));
+
+		// Required Attributes
+		if (organism != null) Triples.add(graph, pwyNode, Gpml.ORGANISM, organism);
+		Triples.add(graph, pwyNode, Gpml.BOARD_HEIGHT, boardHeight);
+		Triples.add(graph, pwyNode, Gpml.BOARD_WIDTH, boardWidth);
+		Triples.add(graph, pwyNode, Gpml.NAME, title);
+
+		// Optional Attributes
+		if (version != null) Triples.add(graph, pwyNode, Gpml.VERSION, version);
+	}
+
+	/**
+	 * Creates the node of a top-level element, of the given type and part of the pathway.
+	 */
+	static Node element(Graph graph, Node pwyNode, String path, String elementId, Resource type, Property hasElement) {
+		Node node = Triples.uri(pwyNode.getURI() + "/" + path + "/" + elementId);
+		Triples.add(graph, node, RDF.type, type);
+		Triples.add(graph, pwyNode, hasElement, node);
+		Triples.add(graph, node, DCTerms.isPartOf, pwyNode);
+		return node;
+	}
+
+	static void text(Graph graph, Node node, boolean italic, Node fontSize, String fontName, boolean bold,
+			boolean underline, boolean strikethru, String color, String align, String valign) {
+		Triples.add(graph, node, Gpml.FONT_STYLE, italic ? "Italic" : "Normal");
+		Triples.add(graph, node, Gpml.FONT_SIZE, fontSize);
+		Triples.add(graph, node, Gpml.FONT_NAME, fontName);
+		Triples.add(graph, node, Gpml.FONT_WEIGHT, bold ? "Bold" : "Normal");
+		Triples.add(graph, node, Gpml.FONT_DECORATION, underline ? "Underline" : "Normal");
+		Triples.add(graph, node, Gpml.FONT_STRIKETHRU, strikethru ? "Strikethru" : "Normal");
+		Triples.add(graph, node, Gpml.COLOR, color);
+		Triples.add(graph, node, Gpml.ALIGN, align);
+		Triples.add(graph, node, Gpml.VALIGN, valign);
+	}
+
+	static void shape(Graph graph, Node node, Node centerX, Node centerY, Node width, Node height,
+			String fillColor, Node zOrder, boolean dashed, Node lineThickness, String shapeType) {
+		Triples.add(graph, node, Gpml.CENTER_X, centerX);
+		Triples.add(graph, node, Gpml.CENTER_Y, centerY);
+		Triples.add(graph, node, Gpml.WIDTH, width);
+		Triples.add(graph, node, Gpml.HEIGHT, height);
+		Triples.add(graph, node, Gpml.FILL_COLOR, fillColor);
+		Triples.add(graph, node, Gpml.ZORDER, zOrder);
+		Triples.add(graph, node, Gpml.LINE_STYLE, lineStyle(dashed));
+		Triples.add(graph, node, Gpml.LINE_THICKNESS, lineThickness);
+		if (shapeType != null) Triples.add(graph, node, Gpml.SHAPE_TYPE, shapeType);
+	}
+
+	static void line(Graph graph, Node node, String elementId, Node lineThickness, String color,
+			boolean dashed, Node zOrder, String connectorType) {
+		Triples.add(graph, node, Gpml.LINE_THICKNESS, lineThickness);
+		Triples.add(graph, node, Gpml.GRAPH_ID, elementId);
+		Triples.add(graph, node, Gpml.COLOR, color);
+		Triples.add(graph, node, Gpml.LINE_STYLE, lineStyle(dashed));
+		Triples.add(graph, node, Gpml.ZORDER, zOrder);
+		Triples.add(graph, node, Gpml.CONNECTOR_TYPE, connectorType);
+	}
+
+	static void groupRef(Graph graph, Node node, String groupId) {
+		if (groupId != null) Triples.add(graph, node, Gpml.GROUP_REF, groupId);
+	}
+
+	static void graphRef(Graph graph, Node node, String elementId) {
+		if (elementId != null) Triples.add(graph, node, Gpml.GRAPH_REF, elementId);
+	}
+
+	static void xref(Graph graph, Node node, String id, String dataSource) {
+		if (id != null && dataSource != null) {
+			Triples.add(graph, node, Gpml.XREF_ID, id);
+			Triples.add(graph, node, Gpml.XREF_DATASOURCE, dataSource);
+		}
+	}
+
+	static Node state(Graph graph, Node pwyNode, Node datanodeNode, String elementId, String dataNodeId,
+			String textLabel, Node relX, Node relY, Node width, Node height, String color, String fillColor,
+			boolean dashed, Node lineThickness, Node zOrder, String shapeType) {
+		Node stateNode = Triples.uri(pwyNode.getURI() + "/State/" + elementId);
+		Triples.add(graph, stateNode, RDF.type, Gpml.STATE);
+		Triples.add(graph, pwyNode, Gpml.HAS_STATE, stateNode);
+		Triples.add(graph, stateNode, DCTerms.isPartOf, datanodeNode);
+		Triples.add(graph, stateNode, DCTerms.isPartOf, pwyNode);
+
+		Triples.add(graph, stateNode, Gpml.GRAPH_ID, elementId);
+		Triples.add(graph, stateNode, Gpml.GRAPH_REF, dataNodeId);
+		if (textLabel != null) Triples.add(graph, stateNode, Gpml.TEXTLABEL, textLabel);
+		Triples.add(graph, stateNode, Gpml.REL_X, relX);
+		Triples.add(graph, stateNode, Gpml.REL_Y, relY);
+		Triples.add(graph, stateNode, Gpml.WIDTH, width);
+		Triples.add(graph, stateNode, Gpml.HEIGHT, height);
+		Triples.add(graph, stateNode, Gpml.COLOR, color);
+		Triples.add(graph, stateNode, Gpml.FILL_COLOR, fillColor);
+		Triples.add(graph, stateNode, Gpml.LINE_STYLE, lineStyle(dashed));
+		Triples.add(graph, stateNode, Gpml.LINE_THICKNESS, lineThickness);
+		Triples.add(graph, stateNode, Gpml.ZORDER, zOrder);
+		if (shapeType != null) Triples.add(graph, stateNode, Gpml.SHAPE_TYPE, shapeType);
+		return stateNode;
+	}
+
+	static Node group(Graph graph, Node pwyNode, String elementId, String textLabel, String style) {
+		Node groupNode = element(graph, pwyNode, "Group", elementId, Gpml.GROUP, Gpml.HAS_GROUP);
+		Triples.add(graph, groupNode, Gpml.GROUP_ID, elementId);
+		if (elementId != null) Triples.add(graph, groupNode, Gpml.GRAPH_ID, elementId);
+		if (textLabel != null && !textLabel.equals("")) Triples.add(graph, groupNode, Gpml.TEXTLABEL, textLabel);
+		Triples.add(graph, groupNode, Gpml.STYLE, style);
+		return groupNode;
+	}
+
+	static Node anchor(Graph graph, Node pwyNode, Node lineNode, String elementId, Node position, String shape) {
+		Node anchorNode = Triples.uri(lineNode.getURI() + "/Anchor/" + elementId);
+		Triples.add(graph, anchorNode, RDF.type, Gpml.ANCHOR);
+		Triples.add(graph, anchorNode, DCTerms.isPartOf, lineNode);
+		Triples.add(graph, anchorNode, DCTerms.isPartOf, pwyNode);
+
+		Triples.add(graph, anchorNode, Gpml.GRAPH_ID, elementId);
+		Triples.add(graph, anchorNode, Gpml.POSITION, position);
+		Triples.add(graph, anchorNode, Gpml.SHAPE, shape);
+
+		Triples.add(graph, lineNode, Gpml.HAS_ANCHOR, anchorNode);
+		return anchorNode;
+	}
+
+	/**
+	 * Writes the point at the given index of its line. The point IRI is minted from
+	 * the index and the coordinates, and not from the element ID: libGPML generates
+	 * random IDs for points without a GraphId, which would give different IRIs
+	 * for every conversion of the same GPML.
+	 */
+	static Node point(Graph graph, Node pwyNode, Node lineNode, IdMinter idMinter, int index, double x, double y,
+			Node relX, Node relY, String arrowHead) {
+		String pointId = idMinter.mint(index + " " + x + " " + y);
+		Node pointNode = Triples.uri(lineNode.getURI() + "/Point/" + pointId);
+		Triples.add(graph, pointNode, RDF.type, Gpml.POINT);
+		Triples.add(graph, pointNode, DCTerms.isPartOf, lineNode);
+		Triples.add(graph, pointNode, DCTerms.isPartOf, pwyNode);
+
+		Triples.add(graph, pointNode, Gpml.REL_X, relX);
+		Triples.add(graph, pointNode, Gpml.REL_Y, relY);
+		Triples.add(graph, pointNode, Gpml.X, x);
+		Triples.add(graph, pointNode, Gpml.Y, y);
+		if (arrowHead != null) Triples.add(graph, pointNode, Gpml.ARROW_HEAD, arrowHead);
+
+		Triples.add(graph, lineNode, Gpml.HAS_POINT, pointNode);
+		return pointNode;
+	}
+
+	static void comment(Graph graph, Node pwyNode, Node parent, IdMinter idMinter, String source, String text) {
+		// comments without text are identified by their parent and source, so that
+		// the IRI is the same for every conversion of the same GPML
+		String commentId = (text != null) ? idMinter.mint(text) : idMinter.mint(parent.getURI() + " " + source);
+		Node commentNode = Triples.uri(pwyNode.getURI() + "/Comment/" + commentId);
+
+		Triples.add(graph, commentNode, RDF.type, Gpml.COMMENT);
+		if (source != null) Triples.add(graph, commentNode, Gpml.SOURCE, source);
+		if (text != null) Triples.add(graph, commentNode, Gpml.COMMENT_TEXT, text);
+
+		Triples.add(graph, parent, Gpml.HAS_COMMENT, commentNode);
+		Triples.add(graph, commentNode, DCTerms.isPartOf, parent);
+	}
+
+	static Node citation(Graph graph, Node pwyNode, String elementId, String id, String database, String href) {
+		Node citationNode = citationNode(pwyNode, elementId);
+		Triples.add(graph, citationNode, RDF.type, Gpml.PUBLICATION_XREF);
+		Triples.add(graph, citationNode, DCTerms.isPartOf, pwyNode);
+
+		Triples.add(graph, citationNode, Gpml.GRAPH_ID, elementId);
+		if (id != null && database != null) {
+			Triples.add(graph, citationNode, Gpml.ID, id);
+			Triples.add(graph, citationNode, Gpml.DATABASE, database);
+		}
+		if (href != null) Triples.add(graph, citationNode, Gpml.HREF, href);
+		return citationNode;
+	}
+
+	static void citationRef(Graph graph, Node pwyNode, Node parent, String citationId) {
+		Triples.add(graph, parent, Gpml.HAS_PUBLICATION_XREF, citationNode(pwyNode, citationId));
+	}
+
+	private static Node citationNode(Node pwyNode, String elementId) {
+		return Triples.uri(pwyNode.getURI() + "/PublicationXref/" + elementId);
+	}
+
+	private static String lineStyle(boolean dashed) {
+		return dashed ? "Broken" : "Solid";
+	}
+
+}
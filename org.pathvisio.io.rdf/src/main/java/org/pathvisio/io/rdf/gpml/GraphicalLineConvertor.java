@@ -0,0 +1,68 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.gpml;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.pathvisio.io.rdf.ontologies.Gpml;
+import org.pathvisio.io.rdf.utils.Triples;
+import org.pathvisio.io.rdf.utils.Utils;
+import org.pathvisio.libgpml.model.GraphicalLine;
+import org.pathvisio.libgpml.model.LineElement.Anchor;
+import org.pathvisio.libgpml.model.PathwayElement.CitationRef;
+import org.pathvisio.libgpml.model.PathwayElement.Comment;
+import org.pathvisio.libgpml.model.type.LineStyleType;
+
+public class GraphicalLineConvertor {
+
+	Convertor convertor;
+	CommentConvertor commentConvertor;
+	PointConvertor pointConvertor;
+	AnchorConvertor anchorConvertor;
+	CitationConvertor citationConvertor;
+
+	protected GraphicalLineConvertor(Convertor convertor) {
+		this.commentConvertor = new CommentConvertor(convertor);
+		this.pointConvertor = new PointConvertor(convertor);
+		this.anchorConvertor = new AnchorConvertor(convertor);
+		this.citationConvertor = new CitationConvertor(convertor);
+		this.convertor = convertor;
+	}
+
+	public void convertGraphicalLine(GraphicalLine line, ConversionContext context) {
+		Graph graph = context.graph;
+		Node lineNode = ElementTriples.element(graph, context.pwyNode, "GraphicalLine", line.getElementId(), Gpml.GRAPHICAL_LINE, Gpml.HAS_GRAPHICAL_LINE);
+
+		ElementTriples.line(graph, lineNode, line.getElementId(), Triples.literal(line.getLineWidth()),
+			Utils.colorToHex(line.getLineColor()), line.getLineStyle() == LineStyleType.DASHED,
+			Triples.literal(line.getZOrder()), line.getConnectorType().getName());
+		if(line.getGroupRef() != null) ElementTriples.groupRef(graph, lineNode, line.getGroupRef().getElementId());
+
+		for(Anchor a : line.getAnchors()) {
+			anchorConvertor.convertAnchor(a, context, lineNode);
+		}
+
+		pointConvertor.convertPoints(line, context, lineNode);
+
+		for(Comment c : line.getComments()) {
+			commentConvertor.parseCommentGpml(c, context, lineNode);
+		}
+
+		for(CitationRef ref : line.getCitationRefs()) {
+			citationConvertor.convertCitationRef(ref, context, lineNode);
+		}
+	}
+
+}
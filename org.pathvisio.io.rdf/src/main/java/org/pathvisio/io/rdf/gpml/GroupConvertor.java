@@ -15,37 +15,37 @@
  */
 package org.pathvisio.io.rdf.gpml;
 
-import org.apache.jena.rdf.model.Model;
-import org.apache.jena.rdf.model.Resource;
-import org.apache.jena.vocabulary.DCTerms;
-import org.apache.jena.vocabulary.RDF;
-import org.pathvisio.io.rdf.ontologies.Gpml;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
 import org.pathvisio.libgpml.model.Group;
+import org.pathvisio.libgpml.model.PathwayElement.CitationRef;
+import org.pathvisio.libgpml.model.PathwayElement.Comment;
 
 public class GroupConvertor {
 
 	Convertor convertor;
 	CommentConvertor commentConvertor;
+	CitationConvertor citationConvertor;
 
 	protected GroupConvertor(Convertor convertor) {
 		this.commentConvertor = new CommentConvertor(convertor);
+		this.citationConvertor = new CitationConvertor(convertor);
 		this.convertor = convertor;
 	}
 
-	public void convertGroup(Group group, Model model, String wpId, String revision) {
-		if (group.getGroupRef() != null) System.out.println("  " + group.getGroupRef().getElementId());
-		String graphId = group.getElementId();
-		Resource groupRes = model.createResource(convertor.pwyRes.getURI() + "/Group/" + graphId);
+	public void convertGroup(Group group, ConversionContext context) {
+		Graph graph = context.graph;
+		Node groupNode = ElementTriples.group(graph, context.pwyNode, group.getElementId(),
+			group.getTextLabel(), group.getShapeType().getName());
+		if(group.getGroupRef() != null) ElementTriples.groupRef(graph, groupNode, group.getGroupRef().getElementId());
 
-		groupRes.addProperty(RDF.type, Gpml.GROUP);
-		convertor.pwyRes.addProperty(Gpml.HAS_GROUP, groupRes);
-		groupRes.addProperty(DCTerms.isPartOf, convertor.pwyRes);
+		for(Comment c : group.getComments()) {
+			commentConvertor.parseCommentGpml(c, context, groupNode);
+		}
 
-		if(group.getGroupRef() != null) groupRes.addLiteral(Gpml.GROUP_REF, group.getGroupRef());
-		groupRes.addLiteral(Gpml.GROUP_ID, group.getElementId());
-		if(group.getElementId() != null) groupRes.addLiteral(Gpml.GRAPH_ID, group.getElementId());
-		if(group.getTextLabel() != null && !group.getTextLabel().equals("")) groupRes.addLiteral(Gpml.TEXTLABEL, group.getTextLabel());
-		groupRes.addLiteral(Gpml.STYLE, group.getShapeType().getName());
+		for(CitationRef ref : group.getCitationRefs()) {
+			citationConvertor.convertCitationRef(ref, context, groupNode);
+		}
 	}
 
 }
@@ -15,14 +15,13 @@
  */
 package org.pathvisio.io.rdf.gpml;
 
-import org.apache.jena.rdf.model.Model;
-import org.apache.jena.rdf.model.Resource;
-import org.apache.jena.vocabulary.DCTerms;
-import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
 import org.pathvisio.io.rdf.ontologies.Gpml;
+import org.pathvisio.io.rdf.utils.Triples;
 import org.pathvisio.libgpml.model.Interaction;
 import org.pathvisio.libgpml.model.LineElement.Anchor;
-import org.pathvisio.libgpml.model.LineElement.LinePoint;
+import org.pathvisio.libgpml.model.PathwayElement.CitationRef;
 import org.pathvisio.libgpml.model.PathwayElement.Comment;
 import org.pathvisio.libgpml.model.type.LineStyleType;
 
@@ -32,49 +31,40 @@ public class InteractionConvertor {
 	CommentConvertor commentConvertor;
 	PointConvertor pointConvertor;
 	AnchorConvertor anchorConvertor;
+	CitationConvertor citationConvertor;
 
 	protected InteractionConvertor(Convertor convertor) {
 		this.commentConvertor = new CommentConvertor(convertor);
 		this.pointConvertor = new PointConvertor(convertor);
 		this.anchorConvertor = new AnchorConvertor(convertor);
+		this.citationConvertor = new CitationConvertor(convertor);
 		this.convertor = convertor;
 	}
 
-	public void convertInteraction(Interaction interaction, Model model, String wpId, String revision) {
-		Resource intRes = model.createResource(convertor.pwyRes.getURI() + "/Interaction/" + interaction.getElementId());
-
-		intRes.addProperty(RDF.type, Gpml.INTERACTION);
-		convertor.pwyRes.addProperty(Gpml.HAS_INTERACTION, intRes);
-		intRes.addProperty(DCTerms.isPartOf, convertor.pwyRes);
+	public void convertInteraction(Interaction interaction, ConversionContext context) {
+		Graph graph = context.graph;
+		Node intNode = ElementTriples.element(graph, context.pwyNode, "Interaction", interaction.getElementId(), Gpml.INTERACTION, Gpml.HAS_INTERACTION);
 		
-		intRes.addLiteral(Gpml.LINE_THICKNESS, interaction.getLineWidth());
-		intRes.addLiteral(Gpml.GRAPH_ID, interaction.getElementId());
-		intRes.addLiteral(Gpml.COLOR, org.pathvisio.io.rdf.utils.Utils.colorToHex(interaction.getLineColor()));
-		intRes.addLiteral(Gpml.LINE_STYLE, interaction.getLineStyle() != LineStyleType.DASHED ? "Solid" : "Broken");
-		intRes.addLiteral(Gpml.ZORDER, interaction.getZOrder());
-		intRes.addLiteral(Gpml.CONNECTOR_TYPE, interaction.getConnectorType().getName());
+		ElementTriples.line(graph, intNode, interaction.getElementId(), Triples.literal(interaction.getLineWidth()),
+			org.pathvisio.io.rdf.utils.Utils.colorToHex(interaction.getLineColor()), interaction.getLineStyle() == LineStyleType.DASHED,
+			Triples.literal(interaction.getZOrder()), interaction.getConnectorType().getName());
 		
 		if(interaction.getXref() != null && interaction.getXref().getId() != null && interaction.getXref().getDataSource() != null) {
-			intRes.addLiteral(Gpml.XREF_ID, interaction.getXref().getId());
-			intRes.addLiteral(Gpml.XREF_DATASOURCE, interaction.getXref().getDataSource().getFullName());
+			ElementTriples.xref(graph, intNode, interaction.getXref().getId(), interaction.getXref().getDataSource().getFullName());
 		}
 
 		for(Anchor a : interaction.getAnchors()) {
-			anchorConvertor.convertAnchor(a, model, intRes, wpId, revision);
+			anchorConvertor.convertAnchor(a, context, intNode);
 		}
 
-		for(LinePoint p : interaction.getLinePoints()) {
-			if(p.equals(interaction.getStartLinePoint())) {
-				pointConvertor.convertPoint(p, model, intRes, wpId, revision, interaction.getStartArrowHeadType().getName());
-			} else if (p.equals(interaction.getEndLinePoint())) {
-				pointConvertor.convertPoint(p, model, intRes, wpId, revision, interaction.getEndArrowHeadType().getName());
-			} else {
-				pointConvertor.convertPoint(p, model, intRes, wpId, revision, null);
-			}
-		}
+		pointConvertor.convertPoints(interaction, context, intNode);
 
 		for(Comment c : interaction.getComments()) {
-			commentConvertor.parseCommentGpml(c, model, intRes);
+			commentConvertor.parseCommentGpml(c, context, intNode);
+		}
+
+		for(CitationRef ref : interaction.getCitationRefs()) {
+			citationConvertor.convertCitationRef(ref, context, intNode);
 		}
 	}
 
@@ -15,13 +15,13 @@
  */
 package org.pathvisio.io.rdf.gpml;
 
-import org.apache.jena.rdf.model.Model;
-import org.apache.jena.rdf.model.Resource;
-import org.apache.jena.vocabulary.DCTerms;
-import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
 import org.pathvisio.io.rdf.ontologies.Gpml;
+import org.pathvisio.io.rdf.utils.Triples;
 import org.pathvisio.io.rdf.utils.Utils;
 import org.pathvisio.libgpml.model.Label;
+import org.pathvisio.libgpml.model.PathwayElement.CitationRef;
 import org.pathvisio.libgpml.model.PathwayElement.Comment;
 import org.pathvisio.libgpml.model.type.LineStyleType;
 
@@ -29,44 +29,35 @@ public class LabelConvertor {
 
 	Convertor convertor;
 	CommentConvertor commentConvertor;
+	CitationConvertor citationConvertor;
 
 	protected LabelConvertor(Convertor convertor) {
 		this.commentConvertor = new CommentConvertor(convertor);
+		this.citationConvertor = new CitationConvertor(convertor);
 		this.convertor = convertor;
 	}
 
-	public void convertLabel(Label label, Model model, String wpId, String revision) {
-		Resource labelRes = model.createResource(convertor.pwyRes.getURI() + "/Label/" + label.getElementId());
+	public void convertLabel(Label label, ConversionContext context) {
+		Graph graph = context.graph;
+		Node labelNode = ElementTriples.element(graph, context.pwyNode, "Label", label.getElementId(), Gpml.LABEL, Gpml.HAS_LABEL);
 
-		labelRes.addProperty(RDF.type, Gpml.LABEL);
-		convertor.pwyRes.addProperty(Gpml.HAS_LABEL, labelRes);
-		labelRes.addProperty(DCTerms.isPartOf, convertor.pwyRes);
-
-		labelRes.addLiteral(Gpml.FONT_STYLE, label.getFontStyle() ? "Italic" : "Normal");
-		labelRes.addLiteral(Gpml.LINE_THICKNESS, label.getBorderWidth());
-		labelRes.addLiteral(Gpml.FONT_SIZE, label.getFontSize());
-		labelRes.addLiteral(Gpml.FONT_NAME, label.getFontName());
-		labelRes.addLiteral(Gpml.ALIGN, label.getHAlign().getName());
-		if(label.getElementId() != null) labelRes.addLiteral(Gpml.GRAPH_ID, label.getElementId()); //created if statement, to check for problems in RDF creation
-		labelRes.addLiteral(Gpml.COLOR, Utils.colorToHex(label.getTextColor()));
-		labelRes.addLiteral(Gpml.CENTER_Y, label.getCenterY());
-		labelRes.addLiteral(Gpml.VALIGN, label.getVAlign().getName());
-		labelRes.addLiteral(Gpml.FONT_WEIGHT, label.getFontWeight() ? "Bold" : "Normal");
-		labelRes.addLiteral(Gpml.FONT_DECORATION, label.getFontDecoration() ? "Underline" : "Normal");
-		labelRes.addLiteral(Gpml.FONT_STRIKETHRU, label.getFontStrikethru() ? "Strikethru" : "Normal");
-		labelRes.addLiteral(Gpml.HEIGHT, label.getHeight());
-		if(label.getHref() != null) labelRes.addLiteral(Gpml.HREF, label.getHref());
-		labelRes.addLiteral(Gpml.LINE_STYLE, label.getBorderStyle() != LineStyleType.DASHED ? "Solid" : "Broken");
-		labelRes.addLiteral(Gpml.CENTER_X, label.getCenterX());
-		labelRes.addLiteral(Gpml.TEXTLABEL, label.getTextLabel());
-		labelRes.addLiteral(Gpml.WIDTH, label.getWidth());
-		labelRes.addLiteral(Gpml.FILL_COLOR, Utils.colorToHex(label.getFillColor()));
-		labelRes.addLiteral(Gpml.ZORDER, label.getZOrder());
-		if (label.getShapeType() != null)
-			labelRes.addLiteral(Gpml.SHAPE_TYPE, label.getShapeType().getName());
+		ElementTriples.text(graph, labelNode, label.getFontStyle(), Triples.literal(label.getFontSize()), label.getFontName(),
+			label.getFontWeight(), label.getFontDecoration(), label.getFontStrikethru(), Utils.colorToHex(label.getTextColor()),
+			label.getHAlign().getName(), label.getVAlign().getName());
+		if(label.getElementId() != null) Triples.add(graph, labelNode, Gpml.GRAPH_ID, label.getElementId()); //created if statement, to check for problems in RDF creation
+		if(label.getHref() != null) Triples.add(graph, labelNode, Gpml.HREF, label.getHref());
+		ElementTriples.shape(graph, labelNode, Triples.literal(label.getCenterX()), Triples.literal(label.getCenterY()),
+			Triples.literal(label.getWidth()), Triples.literal(label.getHeight()), Utils.colorToHex(label.getFillColor()),
+			Triples.literal(label.getZOrder()), label.getBorderStyle() == LineStyleType.DASHED, Triples.literal(label.getBorderWidth()),
+			label.getShapeType() != null ? label.getShapeType().getName() : null);
+		Triples.add(graph, labelNode, Gpml.TEXTLABEL, label.getTextLabel());
 		
 		for(Comment c : label.getComments()) {
-			commentConvertor.parseCommentGpml(c, model, labelRes);
+			commentConvertor.parseCommentGpml(c, context, labelNode);
+		}
+
+		for(CitationRef ref : label.getCitationRefs()) {
+			citationConvertor.convertCitationRef(ref, context, labelNode);
 		}
 
 	}
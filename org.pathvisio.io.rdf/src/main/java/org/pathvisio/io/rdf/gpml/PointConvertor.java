@@ -15,16 +15,23 @@
  */
 package org.pathvisio.io.rdf.gpml;
 
-import org.apache.jena.rdf.model.Model;
-import org.apache.jena.rdf.model.Resource;
-import org.apache.jena.vocabulary.DCTerms;
-import org.apache.jena.vocabulary.RDF;
+import java.util.List;
+
+import org.apache.jena.datatypes.BaseDatatype;
+import org.apache.jena.datatypes.RDFDatatype;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
 import org.pathvisio.io.rdf.ontologies.Gpml;
-import org.pathvisio.io.rdf.utils.Utils;
+import org.pathvisio.io.rdf.utils.Triples;
+import org.pathvisio.libgpml.model.GraphLink.LinkableTo;
+import org.pathvisio.libgpml.model.LineElement;
 import org.pathvisio.libgpml.model.LineElement.LinePoint;
 
 public class PointConvertor {
 
+	static final RDFDatatype LINE_GEOMETRY = new BaseDatatype(Gpml.LINE_GEOMETRY_DATATYPE);
+
 	Convertor convertor;
 	CommentConvertor commentConvertor;
 
@@ -33,28 +40,60 @@ public class PointConvertor {
 		this.convertor = convertor;
 	}
 
-	public void convertPoint(LinePoint point, Model model, Resource lineRes, String wpId, String revision, String arrowHead) {
-		String graphId = point.getElementId();
-		if (graphId == null) {
-			graphId = Utils.md5sum(""+point.hashCode());
+	public void convertPoints(LineElement line, ConversionContext context, Node lineNode) {
+		if (convertor.compactGeometry) {
+			convertGeometry(line, context, lineNode);
+			return;
+		}
+		List<LinePoint> points = line.getLinePoints();
+		for(int i = 0; i < points.size(); i++) {
+			LinePoint p = points.get(i);
+			if(p.equals(line.getStartLinePoint())) {
+				convertPoint(p, i, context, lineNode, line.getStartArrowHeadType().getName());
+			} else if (p.equals(line.getEndLinePoint())) {
+				convertPoint(p, i, context, lineNode, line.getEndArrowHeadType().getName());
+			} else {
+				convertPoint(p, i, context, lineNode, null);
+			}
+		}
+	}
+
+	/**
+	 * Converts the point at the given index of its line.
+	 *
+	 * @see ElementTriples#point
+	 */
+	public void convertPoint(LinePoint point, int index, ConversionContext context, Node lineNode, String arrowHead) {
+		Node pointNode = ElementTriples.point(context.graph, context.pwyNode, lineNode, convertor.idMinter, index,
+			point.getX(), point.getY(), Triples.literal(point.getRelX()), Triples.literal(point.getRelY()), arrowHead);
+		if(point.getElementRef() != null) ElementTriples.graphRef(context.graph, pointNode, point.getElementRef().getElementId());
+	}
+
+	/**
+	 * Compact alternative to {@link #convertPoint}: writes all points of the line as
+	 * one gpml:LineGeometry literal instead of one resource per point.
+	 */
+	public void convertGeometry(LineElement line, ConversionContext context, Node lineNode) {
+		Graph graph = context.graph;
+		StringBuilder geometry = new StringBuilder("LINESTRING (");
+		boolean first = true;
+		for (LinePoint p : line.getLinePoints()) {
+			if (!first) geometry.append(", ");
+			geometry.append(p.getX()).append(' ').append(p.getY());
+			first = false;
 		}
-		Resource pointRes = model.createResource(lineRes.getURI() + "/Point/" + graphId);
-
-		pointRes.addProperty(RDF.type, Gpml.POINT);
-		pointRes.addProperty(DCTerms.isPartOf, lineRes);
-		pointRes.addProperty(DCTerms.isPartOf, convertor.pwyRes);
-
-		// TODO: make sure that every point has a graph id!!!
-		if(point.getElementId() != null) pointRes.addLiteral(Gpml.GRAPH_ID, point.getElementId());
-		if(point.getElementRef() != null) pointRes.addLiteral(Gpml.GRAPH_REF, point.getElementRef().getElementId());
-		pointRes.addLiteral(Gpml.REL_X, point.getRelX());
-		pointRes.addLiteral(Gpml.REL_Y, point.getRelY());
-		pointRes.addLiteral(Gpml.X, point.getX());
-		pointRes.addLiteral(Gpml.Y, point.getY());
-		
-		if(arrowHead != null) pointRes.addLiteral(Gpml.ARROW_HEAD, arrowHead);
-
-		lineRes.addProperty(Gpml.HAS_POINT, pointRes);
+		geometry.append(") ARROWHEADS (")
+			.append(line.getStartArrowHeadType().getName()).append(' ')
+			.append(line.getEndArrowHeadType().getName())
+			.append(") GRAPHREFS (")
+			.append(graphRef(line.getStartElementRef())).append(' ')
+			.append(graphRef(line.getEndElementRef()))
+			.append(')');
+		Triples.add(graph, lineNode, Gpml.LINE_GEOMETRY, NodeFactory.createLiteral(geometry.toString(), LINE_GEOMETRY));
+	}
+
+	private static String graphRef(LinkableTo ref) {
+		return ref != null && ref.getElementId() != null ? ref.getElementId() : "-";
 	}
 
 }
@@ -0,0 +1,64 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.gpml;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.pathvisio.io.rdf.ontologies.Gpml;
+import org.pathvisio.io.rdf.utils.Triples;
+import org.pathvisio.io.rdf.utils.Utils;
+import org.pathvisio.libgpml.model.PathwayElement.CitationRef;
+import org.pathvisio.libgpml.model.PathwayElement.Comment;
+import org.pathvisio.libgpml.model.Shape;
+import org.pathvisio.libgpml.model.type.LineStyleType;
+
+public class ShapeConvertor {
+
+	Convertor convertor;
+	CommentConvertor commentConvertor;
+	CitationConvertor citationConvertor;
+
+	protected ShapeConvertor(Convertor convertor) {
+		this.commentConvertor = new CommentConvertor(convertor);
+		this.citationConvertor = new CitationConvertor(convertor);
+		this.convertor = convertor;
+	}
+
+	public void convertShape(Shape shape, ConversionContext context) {
+		Graph graph = context.graph;
+		Node shapeNode = ElementTriples.element(graph, context.pwyNode, "Shape", shape.getElementId(), Gpml.SHAPE_CLASS, Gpml.HAS_SHAPE);
+
+		ElementTriples.text(graph, shapeNode, shape.getFontStyle(), Triples.literal(shape.getFontSize()), shape.getFontName(),
+			shape.getFontWeight(), shape.getFontDecoration(), shape.getFontStrikethru(), Utils.colorToHex(shape.getTextColor()),
+			shape.getHAlign().getName(), shape.getVAlign().getName());
+		if(shape.getElementId() != null) Triples.add(graph, shapeNode, Gpml.GRAPH_ID, shape.getElementId());
+		if(shape.getGroupRef() != null) ElementTriples.groupRef(graph, shapeNode, shape.getGroupRef().getElementId());
+		ElementTriples.shape(graph, shapeNode, Triples.literal(shape.getCenterX()), Triples.literal(shape.getCenterY()),
+			Triples.literal(shape.getWidth()), Triples.literal(shape.getHeight()), Utils.colorToHex(shape.getFillColor()),
+			Triples.literal(shape.getZOrder()), shape.getBorderStyle() == LineStyleType.DASHED, Triples.literal(shape.getBorderWidth()),
+			shape.getShapeType() != null ? shape.getShapeType().getName() : null);
+		if(shape.getTextLabel() != null) Triples.add(graph, shapeNode, Gpml.TEXTLABEL, shape.getTextLabel());
+		Triples.add(graph, shapeNode, Gpml.ROTATION, shape.getRotation());
+
+		for(Comment c : shape.getComments()) {
+			commentConvertor.parseCommentGpml(c, context, shapeNode);
+		}
+
+		for(CitationRef ref : shape.getCitationRefs()) {
+			citationConvertor.convertCitationRef(ref, context, shapeNode);
+		}
+	}
+
+}
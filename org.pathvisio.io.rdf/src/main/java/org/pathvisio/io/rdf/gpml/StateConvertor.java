@@ -0,0 +1,62 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.gpml;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.bridgedb.Xref;
+import org.pathvisio.io.rdf.utils.Triples;
+import org.pathvisio.io.rdf.utils.Utils;
+import org.pathvisio.libgpml.model.DataNode.State;
+import org.pathvisio.libgpml.model.PathwayElement.CitationRef;
+import org.pathvisio.libgpml.model.PathwayElement.Comment;
+import org.pathvisio.libgpml.model.type.LineStyleType;
+
+public class StateConvertor {
+
+	Convertor convertor;
+	CommentConvertor commentConvertor;
+	CitationConvertor citationConvertor;
+
+	protected StateConvertor(Convertor convertor) {
+		this.commentConvertor = new CommentConvertor(convertor);
+		this.citationConvertor = new CitationConvertor(convertor);
+		this.convertor = convertor;
+	}
+
+	public void convertState(State state, ConversionContext context, Node datanodeNode) {
+		Graph graph = context.graph;
+		Node stateNode = ElementTriples.state(graph, context.pwyNode, datanodeNode, state.getElementId(),
+			state.getDataNode().getElementId(), state.getTextLabel(), Triples.literal(state.getRelX()), Triples.literal(state.getRelY()),
+			Triples.literal(state.getWidth()), Triples.literal(state.getHeight()), Utils.colorToHex(state.getTextColor()),
+			Utils.colorToHex(state.getFillColor()), state.getBorderStyle() == LineStyleType.DASHED,
+			Triples.literal(state.getBorderWidth()), Triples.literal(state.getZOrder()),
+			state.getShapeType() != null ? state.getShapeType().getName() : null);
+
+		Xref xref = state.getXref();
+		if(xref != null && xref.getId() != null && xref.getDataSource() != null) {
+			ElementTriples.xref(graph, stateNode, xref.getId(), xref.getDataSource().getFullName());
+		}
+
+		for(Comment c : state.getComments()) {
+			commentConvertor.parseCommentGpml(c, context, stateNode);
+		}
+
+		for(CitationRef ref : state.getCitationRefs()) {
+			citationConvertor.convertCitationRef(ref, context, stateNode);
+		}
+	}
+
+}
@@ -0,0 +1,634 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.gpml;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.vocabulary.RDF;
+import org.pathvisio.io.rdf.ontologies.Gpml;
+import org.pathvisio.io.rdf.utils.IdMinter;
+import org.pathvisio.io.rdf.utils.Triples;
+import org.pathvisio.io.rdf.utils.Utils;
+
+/**
+ * Converts GPML2013a to GPMLRDF while reading it, without building a
+ * {@link org.pathvisio.libgpml.model.PathwayModel} first. Each top-level element
+ * is read up to its end tag and its triples are then written to a {@link StreamRDF},
+ * so memory use depends on the size of the largest element and not on the size of
+ * the pathway.
+ *
+ * GroupRefs, point GraphRefs, States and BiopaxRefs can refer to elements further
+ * down the document. These references are kept in a table of pending references
+ * and are written as soon as their target is read. References that are still
+ * pending at the end of the document are dropped, like libGPML does.
+ *
+ * The triples are written with the same {@link ElementTriples} as the element
+ * convertors, so the output is the same as that of {@link Convertor} with the
+ * default options, except that elements without a GraphId get a sequential ID
+ * instead of the random ID libGPML generates. This class only adds the defaults
+ * of GPML2013a for attributes that are missing, which libGPML fills in when it
+ * reads the GPML. Points are always written as gpml:Point resources.
+ */
+public class StreamingConvertor {
+
+	static final String GPML_2013A = "http://pathvisio.org/GPML/2013a";
+
+	static final int ZORDER_DATANODE = 0x8000;
+	static final int ZORDER_LABEL = 0x7000;
+	static final int ZORDER_SHAPE = 0x4000;
+	static final int ZORDER_LINE = 0x3000;
+
+	static final Map<String,String> ARROWHEADS = new HashMap<>();
+	static final Map<String,String> COLORS = new HashMap<>();
+	static {
+		ARROWHEADS.put("Line", "Undirected");
+		ARROWHEADS.put("Arrow", "Directed");
+		ARROWHEADS.put("TBar", "Inhibition");
+		ARROWHEADS.put("mim-conversion", "Conversion");
+		ARROWHEADS.put("mim-inhibition", "Inhibition");
+		ARROWHEADS.put("mim-catalysis", "Catalysis");
+		ARROWHEADS.put("mim-stimulation", "Stimulation");
+		ARROWHEADS.put("mim-necessary-stimulation", "Stimulation");
+		ARROWHEADS.put("mim-binding", "Binding");
+		ARROWHEADS.put("mim-translocation", "Translocation");
+		ARROWHEADS.put("mim-transcription-translation", "TranscriptionTranslation");
+
+		COLORS.put("transparent", "0");
+		COLORS.put("black", "0");
+		COLORS.put("white", "ffffff");
+		COLORS.put("red", "ff0000");
+		COLORS.put("green", "ff00");
+		COLORS.put("blue", "ff");
+		COLORS.put("yellow", "ffff00");
+		COLORS.put("orange", "ffc800");
+		COLORS.put("magenta", "ff00ff");
+		COLORS.put("cyan", "ffff");
+		COLORS.put("pink", "ffafaf");
+		COLORS.put("gray", "808080");
+		COLORS.put("lightgray", "c0c0c0");
+		COLORS.put("darkgray", "404040");
+	}
+
+	String domainName;
+	IdMinter idMinter = IdMinter.MD5;
+
+	public StreamingConvertor() {
+		this(Utils.WP_RDF_URL);
+	}
+
+	public StreamingConvertor(String domainName) {
+		this.domainName = domainName;
+	}
+
+	/**
+	 * Sets the strategy used to mint IRIs for comments and points. Use the same
+	 * {@link IdMinter} as the {@link Convertor} the output is compared with.
+	 */
+	public StreamingConvertor setIdMinter(IdMinter idMinter) {
+		this.idMinter = idMinter;
+		return this;
+	}
+
+	/**
+	 * Converts the GPML into a new model. This keeps the full RDF in memory; use
+	 * {@link #convert(InputStream, String, StreamRDF)} to write the triples elsewhere.
+	 */
+	public Model asRDF(InputStream gpml, String wpId) throws XMLStreamException {
+		Model model = ModelFactory.createDefaultModel();
+		convert(gpml, wpId, StreamRDFLib.graph(model.getGraph()));
+		return model;
+	}
+
+	/**
+	 * Reads the GPML and writes its GPMLRDF to the output. The stream may
+	 * contain duplicate triples, for example for citations referenced by
+	 * more than one element.
+	 *
+	 * @param gpml  the GPML2013a document
+	 * @param wpId  the WikiPathways identifier of the pathway, like "WP4846"
+	 */
+	public void convert(InputStream gpml, String wpId, StreamRDF output) throws XMLStreamException {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		XMLStreamReader reader = factory.createXMLStreamReader(gpml);
+		try {
+			output.start();
+			new Conversion(wpId, output).read(reader);
+			output.finish();
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * One top-level GPML element with the parts of its subtree that are converted.
+	 */
+	static class Element {
+		String name;
+		Map<String,String> attributes = new HashMap<>();
+		Map<String,String> graphics = new HashMap<>();
+		Map<String,String> xref;
+		Map<String,String> properties = new HashMap<>();
+		List<Map<String,String>> points = new ArrayList<>();
+		List<Map<String,String>> anchors = new ArrayList<>();
+		List<String[]> comments = new ArrayList<>();
+		List<String> biopaxRefs = new ArrayList<>();
+
+		String get(String name) {
+			return attributes.get(name);
+		}
+
+		String graphics(String name, String defaultValue) {
+			String value = graphics.get(name);
+			return value != null ? value : defaultValue;
+		}
+	}
+
+	/**
+	 * The state of a single conversion, including the pending references. The
+	 * triples of each top-level element are collected in a small graph, which is
+	 * written to the output when the element is converted.
+	 */
+	private class Conversion {
+
+		final String wpId;
+		final StreamRDF output;
+		final Graph graph = GraphFactory.createDefaultGraph();
+		Node pwyNode;
+		Map<String,String> pathway;
+
+		int generatedIds = 0;
+
+		// targets read so far
+		final Set<String> linkables = new HashSet<>();
+		final Map<String,String> groups = new HashMap<>();
+		final Set<String> dataNodes = new HashSet<>();
+		final Map<String,String> citations = new HashMap<>();
+
+		// pending references, by the ID of their target
+		final Map<String,List<Node>> pendingGroupRefs = new HashMap<>();
+		final Map<String,List<Node>> pendingGraphRefs = new HashMap<>();
+		final Map<String,List<Node>> pendingCitationRefs = new HashMap<>();
+		final Map<String,List<Element>> pendingStates = new HashMap<>();
+
+		Conversion(String wpId, StreamRDF output) {
+			this.wpId = wpId;
+			this.output = output;
+		}
+
+		void read(XMLStreamReader reader) throws XMLStreamException {
+			while (reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT);
+			if (!"Pathway".equals(reader.getLocalName()) || !GPML_2013A.equals(reader.getNamespaceURI())) {
+				throw new XMLStreamException("Expected a GPML2013a Pathway but found: {" +
+					reader.getNamespaceURI() + "}" + reader.getLocalName(), reader.getLocation());
+			}
+			pathway = attributes(reader);
+			pwyNode = ElementTriples.pathwayNode(domainName, wpId, revision());
+
+			while (reader.hasNext()) {
+				int event = reader.next();
+				if (event == XMLStreamConstants.END_ELEMENT) break;
+				if (event != XMLStreamConstants.START_ELEMENT) continue;
+				String name = reader.getLocalName();
+				switch (name) {
+				case "Graphics":
+					convertPathway(attributes(reader));
+					skip(reader);
+					break;
+				case "BiopaxRef":
+					addCitationRef(pwyNode, reader.getElementText().trim());
+					break;
+				case "DataNode":
+					convertDataNode(readElement(reader));
+					break;
+				case "State":
+					convertState(readElement(reader));
+					break;
+				case "Interaction":
+				case "GraphicalLine":
+					convertLine(readElement(reader));
+					break;
+				case "Label":
+					convertLabel(readElement(reader));
+					break;
+				case "Shape":
+					convertShape(readElement(reader));
+					break;
+				case "Group":
+					convertGroup(readElement(reader));
+					break;
+				case "Biopax":
+					readBiopax(reader);
+					break;
+				default:
+					skip(reader);
+				}
+				flush();
+			}
+			// anything still pending points to an element that does not exist
+		}
+
+		private void flush() {
+			graph.find().forEachRemaining(output::triple);
+			graph.clear();
+		}
+
+		private String revision() {
+			String version = pathway.get("Version");
+			return Utils.getRevisionFromVersion(wpId, version != null ? version : "");
+		}
+
+		private void convertPathway(Map<String,String> board) {
+			ElementTriples.pathway(graph, pwyNode, wpId, revision(), pathway.get("Organism"),
+				Triples.literal(parseDouble(board.get("BoardHeight"), 0.0)),
+				Triples.literal(parseDouble(board.get("BoardWidth"), 0.0)),
+				pathway.getOrDefault("Name", ""), pathway.get("Version"));
+		}
+
+		private void convertDataNode(Element elem) {
+			String graphId = graphId(elem);
+			Node datanodeNode = ElementTriples.element(graph, pwyNode, "DataNode", graphId, Gpml.DATA_NODE, Gpml.HAS_DATA_NODE);
+
+			convertText(elem, datanodeNode);
+			Triples.add(graph, datanodeNode, Gpml.GRAPH_ID, graphId);
+			addGroupRef(datanodeNode, elem.get("GroupRef"));
+			convertShapeGraphics(elem, datanodeNode, ZORDER_DATANODE, "Rectangle");
+			Triples.add(graph, datanodeNode, Gpml.TEXTLABEL, elem.attributes.getOrDefault("TextLabel", ""));
+			Triples.add(graph, datanodeNode, Gpml.TYPE, elem.attributes.getOrDefault("Type", "Unknown"));
+			convertXref(elem, datanodeNode);
+			convertCommentsAndCitations(elem, datanodeNode);
+
+			dataNodes.add(graphId);
+			addLinkable(graphId);
+			List<Element> states = pendingStates.remove(graphId);
+			if (states != null) states.forEach(this::convertState);
+		}
+
+		private void convertState(Element state) {
+			String dataNodeId = state.get("GraphRef");
+			if (dataNodeId == null) return;
+			if (!dataNodes.contains(dataNodeId)) {
+				pendingStates.computeIfAbsent(dataNodeId, id -> new ArrayList<>()).add(state);
+				return;
+			}
+			String graphId = graphId(state);
+			Node datanodeNode = Triples.uri(pwyNode.getURI() + "/DataNode/" + dataNodeId);
+			Map<String,String> graphics = state.graphics;
+			Node stateNode = ElementTriples.state(graph, pwyNode, datanodeNode, graphId, dataNodeId, state.get("TextLabel"),
+				Triples.literal(parseDouble(graphics.get("RelX"), 0.0)), Triples.literal(parseDouble(graphics.get("RelY"), 0.0)),
+				Triples.literal(parseDouble(graphics.get("Width"), 0.0)), Triples.literal(parseDouble(graphics.get("Height"), 0.0)),
+				color(graphics.get("Color"), "0"), color(graphics.get("FillColor"), "0"), dashed(state),
+				Triples.literal(parseDouble(graphics.get("LineThickness"), 1.0)),
+				Triples.literal(parseInt(graphics.get("ZOrder"), ZORDER_DATANODE)), shapeType(state, "Rectangle"));
+			convertXref(state, stateNode);
+			convertCommentsAndCitations(state, stateNode);
+
+			addLinkable(graphId);
+		}
+
+		private void convertLabel(Element label) {
+			String graphId = graphId(label);
+			Node labelNode = ElementTriples.element(graph, pwyNode, "Label", graphId, Gpml.LABEL, Gpml.HAS_LABEL);
+
+			convertText(label, labelNode);
+			Triples.add(graph, labelNode, Gpml.GRAPH_ID, graphId);
+			if (label.get("Href") != null) Triples.add(graph, labelNode, Gpml.HREF, label.get("Href"));
+			convertShapeGraphics(label, labelNode, ZORDER_LABEL, "None");
+			Triples.add(graph, labelNode, Gpml.TEXTLABEL, label.attributes.getOrDefault("TextLabel", ""));
+			convertCommentsAndCitations(label, labelNode);
+
+			addLinkable(graphId);
+		}
+
+		private void convertShape(Element shape) {
+			String graphId = graphId(shape);
+			Node shapeNode = ElementTriples.element(graph, pwyNode, "Shape", graphId, Gpml.SHAPE_CLASS, Gpml.HAS_SHAPE);
+
+			convertText(shape, shapeNode);
+			Triples.add(graph, shapeNode, Gpml.GRAPH_ID, graphId);
+			addGroupRef(shapeNode, shape.get("GroupRef"));
+			convertShapeGraphics(shape, shapeNode, ZORDER_SHAPE, "Rectangle");
+			if (shape.get("TextLabel") != null) Triples.add(graph, shapeNode, Gpml.TEXTLABEL, shape.get("TextLabel"));
+			Triples.add(graph, shapeNode, Gpml.ROTATION, parseDouble(shape.graphics.get("Rotation"), 0.0));
+			convertCommentsAndCitations(shape, shapeNode);
+
+			addLinkable(graphId);
+		}
+
+		private void convertLine(Element line) {
+			boolean interaction = "Interaction".equals(line.name);
+			String graphId = graphId(line);
+			Node lineNode = ElementTriples.element(graph, pwyNode, line.name, graphId,
+				interaction ? Gpml.INTERACTION : Gpml.GRAPHICAL_LINE,
+				interaction ? Gpml.HAS_INTERACTION : Gpml.HAS_GRAPHICAL_LINE);
+
+			Map<String,String> graphics = line.graphics;
+			ElementTriples.line(graph, lineNode, graphId, Triples.literal(parseDouble(graphics.get("LineThickness"), 1.0)),
+				color(graphics.get("Color"), "0"), dashed(line), Triples.literal(parseInt(graphics.get("ZOrder"), ZORDER_LINE)),
+				line.graphics("ConnectorType", "Straight"));
+			if (interaction) convertXref(line, lineNode);
+			else addGroupRef(lineNode, line.get("GroupRef"));
+
+			for (Map<String,String> anchor : line.anchors) {
+				String anchorId = anchor.get("GraphId") != null ? anchor.get("GraphId") : generateId();
+				ElementTriples.anchor(graph, pwyNode, lineNode, anchorId,
+					Triples.literal(parseDouble(anchor.get("Position"), 0.0)), anchor.getOrDefault("Shape", "None"));
+				addLinkable(anchorId);
+			}
+
+			List<Map<String,String>> points = line.points;
+			for (int i = 0; i < points.size(); i++) {
+				Map<String,String> point = points.get(i);
+				String arrowHead = null;
+				if (i == 0 || i == points.size() - 1) {
+					arrowHead = ARROWHEADS.getOrDefault(point.getOrDefault("ArrowHead", "Line"), "Undirected");
+				}
+				Node pointNode = ElementTriples.point(graph, pwyNode, lineNode, idMinter, i,
+					parseDouble(point.get("X"), 0.0), parseDouble(point.get("Y"), 0.0),
+					Triples.literal(parseDouble(point.get("RelX"), 0.0)), Triples.literal(parseDouble(point.get("RelY"), 0.0)),
+					arrowHead);
+				addGraphRef(pointNode, point.get("GraphRef"));
+			}
+			convertCommentsAndCitations(line, lineNode);
+		}
+
+		private void convertGroup(Element group) {
+			// elements refer to the GroupId, but libGPML identifies groups by their GraphId
+			String graphId = group.get("GraphId") != null ? group.get("GraphId") : group.get("GroupId");
+			if (graphId == null) graphId = generateId();
+			Node groupNode = ElementTriples.group(graph, pwyNode, graphId, group.get("TextLabel"),
+				"Complex".equals(group.get("Style")) ? "Octagon" : "Rectangle");
+			addGroupRef(groupNode, group.get("GroupRef"));
+			convertCommentsAndCitations(group, groupNode);
+
+			if (group.get("GroupId") != null) {
+				groups.put(group.get("GroupId"), graphId);
+				List<Node> members = pendingGroupRefs.remove(group.get("GroupId"));
+				if (members != null) {
+					for (Node member : members) ElementTriples.groupRef(graph, member, graphId);
+				}
+			}
+			addLinkable(graphId);
+		}
+
+		private void readBiopax(XMLStreamReader reader) throws XMLStreamException {
+			while (reader.hasNext()) {
+				int event = reader.next();
+				if (event == XMLStreamConstants.END_ELEMENT) return;
+				if (event != XMLStreamConstants.START_ELEMENT) continue;
+				if (!"PublicationXref".equals(reader.getLocalName())) {
+					skip(reader);
+					continue;
+				}
+				String biopaxId = reader.getAttributeValue(RDF.getURI(), "id");
+				if (biopaxId == null) biopaxId = reader.getAttributeValue(null, "id");
+				String id = null;
+				String db = null;
+				while (reader.hasNext()) {
+					event = reader.next();
+					if (event == XMLStreamConstants.END_ELEMENT) break;
+					if (event != XMLStreamConstants.START_ELEMENT) continue;
+					if ("ID".equals(reader.getLocalName())) id = reader.getElementText().trim();
+					else if ("DB".equals(reader.getLocalName())) db = reader.getElementText().trim();
+					else skip(reader);
+				}
+				if (biopaxId != null) convertCitation(biopaxId, id, db);
+				flush();
+			}
+		}
+
+		private void convertCitation(String biopaxId, String id, String db) {
+			String citationId = biopaxId;
+			boolean valid = id != null && !id.isEmpty() && db != null && !db.isEmpty();
+			// libGPML merges citations with the same identifier
+			if (valid) {
+				String existing = citations.putIfAbsent(db + ":" + id, biopaxId);
+				if (existing != null) citationId = existing;
+			}
+			if (citationId.equals(biopaxId)) {
+				ElementTriples.citation(graph, pwyNode, biopaxId, valid ? id : null, valid ? db : null, null);
+			}
+			List<Node> referrers = pendingCitationRefs.remove(biopaxId);
+			if (referrers != null) {
+				for (Node referrer : referrers) ElementTriples.citationRef(graph, pwyNode, referrer, citationId);
+			}
+		}
+
+		/**
+		 * Converts the text attributes, with the defaults of GPML2013a.
+		 */
+		private void convertText(Element elem, Node node) {
+			Map<String,String> graphics = elem.graphics;
+			ElementTriples.text(graph, node, "Italic".equals(graphics.get("FontStyle")),
+				Triples.literal(parseInt(graphics.get("FontSize"), 12)), elem.graphics("FontName", "Arial"),
+				"Bold".equals(graphics.get("FontWeight")), "Underline".equals(graphics.get("FontDecoration")),
+				"Strikethru".equals(graphics.get("FontStrikethru")), color(graphics.get("Color"), "0"),
+				elem.graphics("Align", "Center"), elem.graphics("Valign", "Top"));
+		}
+
+		/**
+		 * Converts the shape attributes, with the defaults of GPML2013a.
+		 */
+		private void convertShapeGraphics(Element elem, Node node, int defaultZOrder, String defaultShapeType) {
+			Map<String,String> graphics = elem.graphics;
+			ElementTriples.shape(graph, node,
+				Triples.literal(parseDouble(graphics.get("CenterX"), 0.0)), Triples.literal(parseDouble(graphics.get("CenterY"), 0.0)),
+				Triples.literal(parseDouble(graphics.get("Width"), 0.0)), Triples.literal(parseDouble(graphics.get("Height"), 0.0)),
+				color(graphics.get("FillColor"), "0"), Triples.literal(parseInt(graphics.get("ZOrder"), defaultZOrder)),
+				dashed(elem), Triples.literal(parseDouble(graphics.get("LineThickness"), 1.0)), shapeType(elem, defaultShapeType));
+		}
+
+		private void convertXref(Element elem, Node node) {
+			if (elem.xref == null) return;
+			String database = elem.xref.get("Database");
+			if (database != null && !database.isEmpty()) ElementTriples.xref(graph, node, elem.xref.get("ID"), database);
+		}
+
+		private void convertCommentsAndCitations(Element elem, Node node) {
+			for (String[] comment : elem.comments) {
+				ElementTriples.comment(graph, pwyNode, node, idMinter, comment[0], comment[1]);
+			}
+			for (String biopaxRef : elem.biopaxRefs) {
+				addCitationRef(node, biopaxRef);
+			}
+		}
+
+		private void addGroupRef(Node node, String groupId) {
+			if (groupId == null) return;
+			String graphId = groups.get(groupId);
+			if (graphId != null) {
+				ElementTriples.groupRef(graph, node, graphId);
+			} else {
+				pendingGroupRefs.computeIfAbsent(groupId, id -> new ArrayList<>()).add(node);
+			}
+		}
+
+		private void addGraphRef(Node node, String graphRef) {
+			if (graphRef == null) return;
+			if (linkables.contains(graphRef)) {
+				ElementTriples.graphRef(graph, node, graphRef);
+			} else {
+				pendingGraphRefs.computeIfAbsent(graphRef, id -> new ArrayList<>()).add(node);
+			}
+		}
+
+		private void addCitationRef(Node node, String biopaxRef) {
+			// citations are at the end of GPML2013a, after all references to them
+			pendingCitationRefs.computeIfAbsent(biopaxRef, id -> new ArrayList<>()).add(node);
+		}
+
+		private void addLinkable(String graphId) {
+			linkables.add(graphId);
+			List<Node> points = pendingGraphRefs.remove(graphId);
+			if (points != null) {
+				for (Node point : points) ElementTriples.graphRef(graph, point, graphId);
+			}
+		}
+
+		private String graphId(Element elem) {
+			return elem.get("GraphId") != null ? elem.get("GraphId") : generateId();
+		}
+
+		private String generateId() {
+			return "id" + Integer.toHexString(++generatedIds);
+		}
+
+	}
+
+	private static boolean dashed(Element elem) {
+		return "Broken".equals(elem.graphics.get("LineStyle"));
+	}
+
+	private static String shapeType(Element elem, String defaultShapeType) {
+		String component = elem.properties.get("org.pathvisio.CellularComponentProperty");
+		if (component != null && !component.equals("None")) return component.replace(" ", "");
+		return elem.graphics("ShapeType", defaultShapeType);
+	}
+
+	/**
+	 * Returns the color as {@link Utils#colorToHex} writes it: hexadecimal RGB
+	 * without leading zeros and without alpha.
+	 */
+	static String color(String value, String defaultValue) {
+		if (value == null || value.isEmpty()) return defaultValue;
+		String named = COLORS.get(value.toLowerCase());
+		if (named != null) return named;
+		try {
+			return Integer.toHexString(Integer.parseInt(value.startsWith("#") ? value.substring(1) : value, 16) & 0xFFFFFF);
+		} catch (NumberFormatException exception) {
+			return defaultValue;
+		}
+	}
+
+	private static double parseDouble(String value, double defaultValue) {
+		if (value == null || value.isEmpty()) return defaultValue;
+		return Double.parseDouble(value);
+	}
+
+	private static int parseInt(String value, int defaultValue) {
+		if (value == null || value.isEmpty()) return defaultValue;
+		return (int)Double.parseDouble(value);
+	}
+
+	private static Map<String,String> attributes(XMLStreamReader reader) {
+		Map<String,String> attributes = new HashMap<>();
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			attributes.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+		}
+		return attributes;
+	}
+
+	/**
+	 * Reads the current element up to its end tag.
+	 */
+	private static Element readElement(XMLStreamReader reader) throws XMLStreamException {
+		Element elem = new Element();
+		elem.name = reader.getLocalName();
+		elem.attributes = attributes(reader);
+		int depth = 1;
+		while (depth > 0 && reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+				continue;
+			}
+			if (event != XMLStreamConstants.START_ELEMENT) continue;
+			switch (reader.getLocalName()) {
+			case "Graphics":
+				elem.graphics = attributes(reader);
+				depth++;
+				break;
+			case "Point":
+				elem.points.add(attributes(reader));
+				skip(reader);
+				break;
+			case "Anchor":
+				elem.anchors.add(attributes(reader));
+				skip(reader);
+				break;
+			case "Xref":
+				elem.xref = attributes(reader);
+				skip(reader);
+				break;
+			case "Attribute":
+				elem.properties.put(reader.getAttributeValue(null, "Key"), reader.getAttributeValue(null, "Value"));
+				skip(reader);
+				break;
+			case "Comment":
+				String source = reader.getAttributeValue(null, "Source");
+				elem.comments.add(new String[] { source, reader.getElementText() });
+				break;
+			case "BiopaxRef":
+				elem.biopaxRefs.add(reader.getElementText().trim());
+				break;
+			default:
+				skip(reader);
+			}
+		}
+		return elem;
+	}
+
+	/**
+	 * Skips the current element, including its subtree.
+	 */
+	private static void skip(XMLStreamReader reader) throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0 && reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) depth++;
+			else if (event == XMLStreamConstants.END_ELEMENT) depth--;
+		}
+	}
+
+}
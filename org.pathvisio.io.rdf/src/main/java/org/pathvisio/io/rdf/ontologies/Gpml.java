@@ -195,7 +195,20 @@ public class Gpml {
      *  of a border of a DataNode, Label, Shape or State.</p>
      */
     public static final Property LINE_STYLE = m_model.createProperty( "http://vocabularies.wikipathways.org/gpml#lineStyle" );
-    
+
+    // TODO: add on vocabularies.wikipathways.org
+    /** <p>The complete geometry of a GraphicalLine or Interaction as a single
+     *  gpml:LineGeometry literal, used instead of gpml:hasPoint in compact mode.</p>
+     */
+    public static final Property LINE_GEOMETRY = m_model.createProperty( "http://vocabularies.wikipathways.org/gpml#lineGeometry" );
+
+    // TODO: add on vocabularies.wikipathways.org
+    /** <p>Datatype of gpml:lineGeometry values: a WKT-style linestring followed by the
+     *  start and end arrow heads and graph refs, e.g.
+     *  <code>LINESTRING (10.0 20.0, 30.0 40.0) ARROWHEADS (Line Arrow) GRAPHREFS (a1b2c -)</code>.</p>
+     */
+    public static final String LINE_GEOMETRY_DATATYPE = "http://vocabularies.wikipathways.org/gpml#LineGeometry";
+
     /** <p>The thickness of a GraphicalLine or Interaction as well as the border thickness 
      *  for DataNodes, Labels, Shapes and States.</p>
      */
@@ -0,0 +1,45 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.utils;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.jena.graph.Graph;
+
+/**
+ * A convertor bound to one pathway revision that can convert the pathway
+ * element by element, as used by {@link PathwayDelta}.
+ */
+public interface ElementConvertor {
+
+	/**
+	 * Converts every element into its own graph, keyed by the element ID. The
+	 * pathway resource itself is stored under the empty string.
+	 */
+	public Map<String, Graph> asElementGraphs();
+
+	/**
+	 * Like {@link #asElementGraphs()}, but only for the elements with the given IDs.
+	 */
+	public Map<String, Graph> asElementGraphs(Set<String> elementIds);
+
+	/**
+	 * Whether the graph of an element also depends on the elements it links to,
+	 * or that link to it, for example through the points of an interaction.
+	 */
+	public boolean dependsOnLinkedElements();
+
+}
@@ -0,0 +1,313 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.utils;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.jena.vocabulary.RDF;
+
+/**
+ * A fingerprint of every element of a GPML2013a document, keyed by the element ID
+ * libGPML gives it, so that two revisions of a pathway can be compared without
+ * converting them. The fingerprint is a hash of the attributes and text of the
+ * element and its subtree. States count as part of their DataNode, and the
+ * attributes, comments and ontology terms of the pathway itself are stored under
+ * the empty string, like in {@link ElementConvertor#asElementGraphs()}.
+ *
+ * Besides the fingerprints, it keeps which elements link to each other, through
+ * GroupRefs, GraphRefs and BiopaxRefs, and which elements have an Xref, a comment
+ * or a citation in common, because their RDF can share resources.
+ */
+public class GpmlFingerprints {
+
+	private final Map<String, StringBuilder> canonical = new HashMap<>();
+	private final Map<String, String> fingerprints = new HashMap<>();
+	private final Map<String, Set<String>> links = new HashMap<>();
+	private final Map<String, Set<String>> sharedKeys = new HashMap<>();
+	private final Map<String, Set<String>> sharers = new HashMap<>();
+	private boolean complete = true;
+	private String version;
+
+	// references by the ID they use, resolved at the end of the document
+	private final Map<String, String> anchorOwners = new HashMap<>();
+	private final Map<String, List<String>> groupKeys = new HashMap<>();
+	private final Map<String, List<String>> references = new HashMap<>();
+	private final Map<String, String> citationXrefs = new HashMap<>();
+
+	private GpmlFingerprints() {}
+
+	public static GpmlFingerprints read(InputStream gpml) throws XMLStreamException {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		XMLStreamReader reader = factory.createXMLStreamReader(gpml);
+		try {
+			GpmlFingerprints result = new GpmlFingerprints();
+			result.readPathway(reader);
+			return result;
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * False if some elements could not be fingerprinted, because they have no GraphId
+	 * and libGPML gives them a random ID. Such revisions can only be compared in full.
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+
+	/**
+	 * Returns the Version of the pathway, from which the convertors take the revision
+	 * in the IRIs of all elements, or null.
+	 */
+	public String getVersion() {
+		return version;
+	}
+
+	public Set<String> getElementIds() {
+		return fingerprints.keySet();
+	}
+
+	/**
+	 * Returns the IDs of the elements that were added, removed or changed in the other revision.
+	 */
+	public Set<String> changedElements(GpmlFingerprints other) {
+		Set<String> changed = new HashSet<>();
+		for (Map.Entry<String, String> entry : fingerprints.entrySet()) {
+			if (!entry.getValue().equals(other.fingerprints.get(entry.getKey()))) changed.add(entry.getKey());
+		}
+		for (String id : other.fingerprints.keySet()) {
+			if (!fingerprints.containsKey(id)) changed.add(id);
+		}
+		return changed;
+	}
+
+	/**
+	 * Returns the elements that link to one of the given elements, or that one of them links to.
+	 */
+	public Set<String> linkedElements(Collection<String> ids) {
+		Set<String> linked = new HashSet<>();
+		for (String id : ids) linked.addAll(links.getOrDefault(id, Collections.emptySet()));
+		return linked;
+	}
+
+	/**
+	 * Returns the elements that have a comment in common with one of the given elements,
+	 * and, if <code>allResources</code> is set, also an Xref or a citation.
+	 */
+	public Set<String> sharingElements(Collection<String> ids, boolean allResources) {
+		Set<String> sharing = new HashSet<>();
+		for (String id : ids) {
+			for (String key : sharedKeys.getOrDefault(id, Collections.emptySet())) {
+				if (allResources || key.startsWith("comment ")) sharing.addAll(sharers.get(key));
+			}
+		}
+		return sharing;
+	}
+
+	private void readPathway(XMLStreamReader reader) throws XMLStreamException {
+		while (reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT);
+		StringBuilder pathway = canonical("");
+		appendAttributes(reader, pathway);
+		version = reader.getAttributeValue(null, "Version");
+
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.END_ELEMENT) break;
+			if (event != XMLStreamConstants.START_ELEMENT) continue;
+			switch (reader.getLocalName()) {
+			case "DataNode":
+			case "Label":
+			case "Shape":
+			case "Interaction":
+			case "GraphicalLine":
+				readElement(reader, key(reader.getAttributeValue(null, "GraphId")));
+				break;
+			case "State":
+				readElement(reader, key(reader.getAttributeValue(null, "GraphRef")));
+				break;
+			case "Group":
+				readGroup(reader);
+				break;
+			case "Biopax":
+				readBiopax(reader);
+				break;
+			default:
+				readElement(reader, "");
+			}
+		}
+		resolveReferences();
+		for (Map.Entry<String, StringBuilder> entry : canonical.entrySet()) {
+			fingerprints.put(entry.getKey(), Utils.md5sum(entry.getValue().toString()));
+		}
+		canonical.clear();
+	}
+
+	private String key(String graphId) {
+		if (graphId == null) {
+			complete = false;
+			return "";
+		}
+		return graphId;
+	}
+
+	private void readGroup(XMLStreamReader reader) throws XMLStreamException {
+		// elements refer to the GroupId, and libGPML may identify the group by either
+		String groupId = reader.getAttributeValue(null, "GroupId");
+		String graphId = reader.getAttributeValue(null, "GraphId");
+		List<String> keys = new ArrayList<>();
+		if (graphId != null) keys.add(graphId);
+		if (groupId != null && !groupId.equals(graphId)) keys.add(groupId);
+		if (keys.isEmpty()) keys.add(key(null));
+		if (groupId != null) groupKeys.put(groupId, keys);
+		readElement(reader, keys.get(0));
+		for (int i = 1; i < keys.size(); i++) {
+			canonical(keys.get(i)).append(canonical(keys.get(0)));
+			link(keys.get(0), keys.get(i));
+		}
+	}
+
+	private void readBiopax(XMLStreamReader reader) throws XMLStreamException {
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.END_ELEMENT) return;
+			if (event != XMLStreamConstants.START_ELEMENT) continue;
+			if ("PublicationXref".equals(reader.getLocalName())) {
+				String citationId = reader.getAttributeValue(RDF.getURI(), "id");
+				if (citationId == null) citationId = reader.getAttributeValue(null, "id");
+				readElement(reader, key(citationId));
+			} else {
+				readElement(reader, "");
+			}
+		}
+	}
+
+	/**
+	 * Appends the current element and its subtree to the canonical form of the
+	 * element with the given key, and collects its references and shared resources.
+	 */
+	private void readElement(XMLStreamReader reader, String key) throws XMLStreamException {
+		StringBuilder builder = canonical(key);
+		String name = reader.getLocalName();
+		builder.append('<').append(name);
+		appendAttributes(reader, builder);
+		addReference(key, reader.getAttributeValue(null, "GroupRef"));
+		if (!"State".equals(name)) addReference(key, reader.getAttributeValue(null, "GraphRef"));
+		switch (name) {
+		case "Anchor":
+			String anchorId = reader.getAttributeValue(null, "GraphId");
+			if (anchorId != null) anchorOwners.put(anchorId, key);
+			break;
+		case "Xref":
+			String database = reader.getAttributeValue(null, "Database");
+			String id = reader.getAttributeValue(null, "ID");
+			if (database != null && !database.isEmpty() && id != null && !id.isEmpty()) {
+				share(key, "xref " + database + ":" + id);
+			}
+			break;
+		}
+
+		StringBuilder text = new StringBuilder();
+		String db = null;
+		String citationId = null;
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.END_ELEMENT) break;
+			if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+				text.append(reader.getText());
+			} else if (event == XMLStreamConstants.START_ELEMENT) {
+				String child = reader.getLocalName();
+				if ("DB".equals(child)) db = reader.getElementText().trim();
+				else if ("ID".equals(child)) citationId = reader.getElementText().trim();
+				else {
+					readElement(reader, key);
+					continue;
+				}
+				builder.append('<').append(child).append('>').append(child.equals("DB") ? db : citationId);
+			}
+		}
+		String content = text.toString().trim();
+		builder.append('>').append(content).append("</").append(name).append('>');
+		if ("BiopaxRef".equals(name)) addReference(key, "biopax " + content);
+		if ("Comment".equals(name)) share(key, "comment " + content);
+		if ("PublicationXref".equals(name) && db != null && citationId != null && !citationId.isEmpty()) {
+			citationXrefs.put(key, db + ":" + citationId);
+		}
+	}
+
+	private static void appendAttributes(XMLStreamReader reader, StringBuilder builder) {
+		Map<String, String> attributes = new TreeMap<>();
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			attributes.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+		}
+		for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+			builder.append(' ').append(attribute.getKey()).append("=\"").append(attribute.getValue()).append('"');
+		}
+	}
+
+	private StringBuilder canonical(String key) {
+		return canonical.computeIfAbsent(key, k -> new StringBuilder());
+	}
+
+	private void addReference(String key, String reference) {
+		if (reference != null && !reference.isEmpty()) references.computeIfAbsent(key, k -> new ArrayList<>()).add(reference);
+	}
+
+	private void share(String key, String sharedKey) {
+		sharedKeys.computeIfAbsent(key, k -> new HashSet<>()).add(sharedKey);
+		sharers.computeIfAbsent(sharedKey, k -> new HashSet<>()).add(key);
+	}
+
+	private void link(String key, String other) {
+		if (key.equals(other)) return;
+		links.computeIfAbsent(key, k -> new HashSet<>()).add(other);
+		links.computeIfAbsent(other, k -> new HashSet<>()).add(key);
+	}
+
+	private void resolveReferences() {
+		for (Map.Entry<String, List<String>> entry : references.entrySet()) {
+			String key = entry.getKey();
+			for (String reference : entry.getValue()) {
+				if (reference.startsWith("biopax ")) {
+					String citation = reference.substring("biopax ".length());
+					link(key, citation);
+					if (citationXrefs.containsKey(citation)) share(key, "citation " + citationXrefs.get(citation));
+				} else if (groupKeys.containsKey(reference)) {
+					for (String groupKey : groupKeys.get(reference)) link(key, groupKey);
+				} else {
+					link(key, anchorOwners.getOrDefault(reference, reference));
+				}
+			}
+		}
+		references.clear();
+	}
+
+}
@@ -0,0 +1,37 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.utils;
+
+/**
+ * Strategy to mint the hashed local part of IRIs for pathway elements that do not
+ * have an identifier of their own, like comments and points.
+ */
+public interface IdMinter {
+
+	/**
+	 * The default: the hex MD5 sum as computed by {@link Utils#md5sum(String)}, which
+	 * gives the same IRIs as earlier releases.
+	 */
+	public static final IdMinter MD5 = Utils::md5sum;
+
+	/**
+	 * A faster, non-cryptographic alternative: the hex 64-bit FNV-1a hash of the UTF-8
+	 * bytes of the input. Note that this gives different IRIs than {@link #MD5}.
+	 */
+	public static final IdMinter FNV1A = Utils::fnv1a64;
+
+	public String mint(String input);
+
+}
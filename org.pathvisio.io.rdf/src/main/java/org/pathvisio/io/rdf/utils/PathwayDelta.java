@@ -0,0 +1,179 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.graph.compose.MultiUnion;
+import org.apache.jena.riot.out.NodeFmtLib;
+import org.apache.jena.sparql.graph.GraphFactory;
+
+/**
+ * The triples that changed between two revisions of the same pathway, as
+ * RDF Patch or SPARQL Update. It is computed from the per-element graphs of
+ * the GPMLRDF or WPRDF convertors, for example:
+ *
+ * <pre>
+ * PathwayDelta delta = PathwayDelta.between(
+ *     GpmlFingerprints.read(oldGpml), new Convertor(oldPathway),
+ *     GpmlFingerprints.read(newGpml), new Convertor(newPathway)
+ * );
+ * delta.writePatch(System.out);
+ * </pre>
+ *
+ * The {@link GpmlFingerprints} of the two revisions tell which elements were added,
+ * removed or changed, and only those are converted and compared, together with the
+ * elements whose RDF depends on them or can share resources with them. Reading the
+ * GPML is still linear in the size of the pathway, but the conversion and the diff
+ * follow the size of the edit. Because elements can share resources (e.g. two
+ * DataNodes with the same Xref in WPRDF), a triple is only deleted when no
+ * converted element of the new revision still asserts it.
+ */
+public class PathwayDelta {
+
+	private final Graph deleted = GraphFactory.createDefaultGraph();
+	private final Graph added = GraphFactory.createDefaultGraph();
+
+	/**
+	 * Compares all element graphs of the two revisions. This takes time linear in the
+	 * size of the pathway; {@link #between} only compares the elements that changed.
+	 */
+	public PathwayDelta(Map<String, Graph> oldGraphs, Map<String, Graph> newGraphs) {
+		Set<String> ids = new HashSet<>(oldGraphs.keySet());
+		ids.addAll(newGraphs.keySet());
+		for (String id : ids) {
+			Graph oldGraph = oldGraphs.get(id);
+			Graph newGraph = newGraphs.get(id);
+			if (oldGraph != null) difference(oldGraph, newGraph, deleted);
+			if (newGraph != null) difference(newGraph, oldGraph, added);
+		}
+		// a triple may move between element graphs, e.g. for shared resources
+		if (!deleted.isEmpty()) retainAbsent(deleted, new MultiUnion(newGraphs.values().iterator()));
+		if (!added.isEmpty()) retainAbsent(added, new MultiUnion(oldGraphs.values().iterator()));
+	}
+
+	/**
+	 * Converts and compares only the elements that differ between the fingerprints of the
+	 * two revisions, and the elements their RDF can depend on. If an element could not be
+	 * fingerprinted, or the Version differs, all element graphs are compared: the revision
+	 * is part of the IRIs of all elements, so all their triples change.
+	 */
+	public static PathwayDelta between(GpmlFingerprints oldFingerprints, ElementConvertor oldRevision,
+			GpmlFingerprints newFingerprints, ElementConvertor newRevision) {
+		if (!oldFingerprints.isComplete() || !newFingerprints.isComplete()
+				|| !Objects.equals(oldFingerprints.getVersion(), newFingerprints.getVersion())) {
+			return new PathwayDelta(oldRevision.asElementGraphs(), newRevision.asElementGraphs());
+		}
+		Set<String> changed = oldFingerprints.changedElements(newFingerprints);
+		if (changed.isEmpty()) return new PathwayDelta(Collections.emptyMap(), Collections.emptyMap());
+
+		boolean linked = oldRevision.dependsOnLinkedElements() || newRevision.dependsOnLinkedElements();
+		Set<String> affected = new HashSet<>(changed);
+		if (linked) {
+			affected.addAll(oldFingerprints.linkedElements(changed));
+			affected.addAll(newFingerprints.linkedElements(changed));
+		}
+		affected.addAll(oldFingerprints.sharingElements(changed, linked));
+		affected.addAll(newFingerprints.sharingElements(changed, linked));
+		Set<String> converted = new HashSet<>(affected);
+		if (linked) {
+			// the elements the affected ones link to, e.g. the DataNodes of an interaction
+			converted.addAll(oldFingerprints.linkedElements(affected));
+			converted.addAll(newFingerprints.linkedElements(affected));
+		}
+		return new PathwayDelta(oldRevision.asElementGraphs(converted), newRevision.asElementGraphs(converted));
+	}
+
+	private static void difference(Graph graph, Graph other, Graph result) {
+		graph.find().forEachRemaining(triple -> {
+			if (other == null || !other.contains(triple)) result.add(triple);
+		});
+	}
+
+	private static void retainAbsent(Graph result, Graph other) {
+		for (Triple triple : result.find().toList()) {
+			if (other.contains(triple)) result.delete(triple);
+		}
+	}
+
+	public Graph getDeleted() {
+		return deleted;
+	}
+
+	public Graph getAdded() {
+		return added;
+	}
+
+	public boolean isEmpty() {
+		return deleted.isEmpty() && added.isEmpty();
+	}
+
+	/**
+	 * Writes the delta as a single RDF Patch transaction.
+	 */
+	public void writePatch(OutputStream output) throws IOException {
+		Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+		writer.write("TX .\n");
+		for (Triple triple : deleted.find().toList()) {
+			writer.write("D " + format(triple) + " .\n");
+		}
+		for (Triple triple : added.find().toList()) {
+			writer.write("A " + format(triple) + " .\n");
+		}
+		writer.write("TC .\n");
+		writer.flush();
+	}
+
+	/**
+	 * Returns the delta as a SPARQL Update request.
+	 */
+	public String toSparqlUpdate() {
+		StringBuilder update = new StringBuilder();
+		if (!deleted.isEmpty()) {
+			update.append("DELETE DATA {\n");
+			for (Triple triple : deleted.find().toList()) {
+				update.append("  ").append(format(triple)).append(" .\n");
+			}
+			update.append("}");
+		}
+		if (!added.isEmpty()) {
+			if (update.length() > 0) update.append(" ;\n");
+			update.append("INSERT DATA {\n");
+			for (Triple triple : added.find().toList()) {
+				update.append("  ").append(format(triple)).append(" .\n");
+			}
+			update.append("}");
+		}
+		return update.toString();
+	}
+
+	private static String format(Triple triple) {
+		return NodeFmtLib.strNT(triple.getSubject()) + " "
+			+ NodeFmtLib.strNT(triple.getPredicate()) + " "
+			+ NodeFmtLib.strNT(triple.getObject());
+	}
+
+}
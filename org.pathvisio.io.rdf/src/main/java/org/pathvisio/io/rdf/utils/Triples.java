@@ -0,0 +1,88 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.utils;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+
+/**
+ * Adds triples straight to a {@link Graph}, without the {@link org.apache.jena.rdf.model.Resource}
+ * wrappers and the <code>Object</code>-typed literal inference of <code>Resource.addLiteral()</code>.
+ * The overloads give the same literals as the matching <code>addLiteral()</code> methods,
+ * so an <code>int</code> becomes an <code>xsd:long</code> and a <code>String</code> an
+ * <code>xsd:string</code>.
+ */
+public class Triples {
+
+	private Triples() {}
+
+	public static Node uri(String uri) {
+		return NodeFactory.createURI(uri);
+	}
+
+	public static void add(Graph graph, Node subject, Property predicate, Node object) {
+		graph.add(Triple.create(subject, predicate.asNode(), object));
+	}
+
+	public static void add(Graph graph, Node subject, Property predicate, RDFNode object) {
+		graph.add(Triple.create(subject, predicate.asNode(), object.asNode()));
+	}
+
+	public static void add(Graph graph, Node subject, Property predicate, String value) {
+		graph.add(Triple.create(subject, predicate.asNode(), literal(value)));
+	}
+
+	public static void add(Graph graph, Node subject, Property predicate, long value) {
+		graph.add(Triple.create(subject, predicate.asNode(), literal(value)));
+	}
+
+	public static void add(Graph graph, Node subject, Property predicate, double value) {
+		graph.add(Triple.create(subject, predicate.asNode(), literal(value)));
+	}
+
+	public static void add(Graph graph, Node subject, Property predicate, float value) {
+		graph.add(Triple.create(subject, predicate.asNode(), literal(value)));
+	}
+
+	public static void add(Graph graph, Node subject, Property predicate, boolean value) {
+		graph.add(Triple.create(subject, predicate.asNode(), literal(value)));
+	}
+
+	public static Node literal(String value) {
+		return NodeFactory.createLiteral(value);
+	}
+
+	public static Node literal(long value) {
+		return NodeFactory.createLiteralByValue(value, XSDDatatype.XSDlong);
+	}
+
+	public static Node literal(double value) {
+		return NodeFactory.createLiteralByValue(value, XSDDatatype.XSDdouble);
+	}
+
+	public static Node literal(float value) {
+		return NodeFactory.createLiteralByValue(value, XSDDatatype.XSDfloat);
+	}
+
+	public static Node literal(boolean value) {
+		return NodeFactory.createLiteralByValue(value, XSDDatatype.XSDboolean);
+	}
+
+}
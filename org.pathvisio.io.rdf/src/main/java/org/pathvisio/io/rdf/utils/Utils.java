@@ -19,6 +19,7 @@ package org.pathvisio.io.rdf.utils;
 import java.awt.Color;
 import java.io.File;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
@@ -81,15 +82,33 @@ public class Utils {
 		model.setNsPrefix("owl", OWL.getURI());
 	}
 
+	private static final ThreadLocal<MessageDigest> MD5_DIGEST = ThreadLocal.withInitial(() -> {
+		try {
+			return MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException ex) {
+			return null;
+		}
+	});
+
 	public static String md5sum(String input) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("MD5");
-            digest.update(input.getBytes());
-            return new BigInteger(1, digest.digest()).toString(16);
-        } catch (NoSuchAlgorithmException ex) {
-            return "";
-        }
-    }
+		MessageDigest digest = MD5_DIGEST.get();
+		if (digest == null) return "";
+		// digest() resets the digest, so it can be reused by the next call on this thread
+		digest.update(input.getBytes());
+		return new BigInteger(1, digest.digest()).toString(16);
+	}
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	public static String fnv1a64(String input) {
+		long hash = FNV_OFFSET_BASIS;
+		for (byte b : input.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= (b & 0xff);
+			hash *= FNV_PRIME;
+		}
+		return Long.toHexString(hash);
+	}
 
 	public static String colorToHex(Color color) {
 		String red = padding(Integer.toBinaryString(color.getRed()), 8, '0');
@@ -17,17 +17,27 @@ package org.pathvisio.io.rdf.wp;
 import java.io.File;
 import java.io.FilenameFilter;
 import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.vocabulary.DCTerms;
 import org.apache.jena.vocabulary.DC_11;
-import org.apache.jena.vocabulary.OWL;
 import org.apache.jena.vocabulary.RDFS;
 import org.bridgedb.BridgeDb;
 import org.bridgedb.DataSource;
@@ -36,6 +46,7 @@ import org.bridgedb.IDMapperException;
 import org.bridgedb.IDMapperStack;
 import org.bridgedb.Xref;
 import org.bridgedb.bio.DataSourceTxt;
+import org.bridgedb.bio.Organism;
 import org.pathvisio.io.rdf.ontologies.Wp;
 
 /**
@@ -48,10 +59,195 @@ import org.pathvisio.io.rdf.ontologies.Wp;
  */
 public class BridgeDbIDMapper {
 
+	/**
+	 * The system codes of the data sources {@link #getUnifiedIdentifiers} maps to.
+	 */
+	static final String[] TARGET_SYSTEM_CODES = Arrays.stream(MappingTarget.values())
+		.map(target -> target.systemCode).toArray(String[]::new);
+
 	public static IDMapperStack createBridgeDbMapper(Properties prop) throws Exception {
-		Class.forName("org.apache.derby.jdbc.ClientDriver");
+		return createBridgeDbMapper(prop, null);
+	}
+
+	/**
+	 * Creates the BridgeDb mapper stack for pathways of the given organism, with only the
+	 * mapping files for that organism and the species-independent ones. See
+	 * {@link #selectForOrganism(File[], String)}.
+	 */
+	public static IDMapperStack createBridgeDbMapper(Properties prop, String organism) throws Exception {
+		loadDrivers(prop);
+		IDMapperStack mapper = new IDMapperStack();
+		for (IDMapper fileMapper : connect(selectForOrganism(bridgeFiles(prop), organism), EmbeddedDerby.warmUpSize(prop), metrics(prop), timeTargets(prop))) {
+			mapper.addIDMapper(fileMapper);
+		}
+		return mapper;
+	}
+
+	/**
+	 * Creates a {@link RoutingIDMapper} for the mapping files, which sends each lookup only
+	 * to the mapping files that support the data source of the identifier.
+	 */
+	public static RoutingIDMapper createRoutingBridgeDbMapper(Properties prop) throws Exception {
+		return createRoutingBridgeDbMapper(prop, null);
+	}
+
+	/**
+	 * Creates a {@link RoutingIDMapper} for the mapping files for the given organism and
+	 * the species-independent ones.
+	 */
+	public static RoutingIDMapper createRoutingBridgeDbMapper(Properties prop, String organism) throws Exception {
+		loadDrivers(prop);
+		File[] bridgeDbFiles = selectForOrganism(bridgeFiles(prop), organism);
+		List<IDMapper> fileMappers = connect(bridgeDbFiles, EmbeddedDerby.warmUpSize(prop), metrics(prop), timeTargets(prop));
+		RoutingIDMapper mapper = new RoutingIDMapper();
+		for (int i = 0; i < bridgeDbFiles.length; i++) {
+			mapper.addIDMapper(bridgeDbFiles[i].getName(), fileMappers.get(i));
+		}
+		return mapper;
+	}
+
+	/**
+	 * Connects to all mapping files once, for converting pathways of many organisms
+	 * with {@link Convertor#setSpeciesMappers(SpeciesIDMappers)}.
+	 */
+	public static SpeciesIDMappers createSpeciesMappers(Properties prop) throws Exception {
+		loadDrivers(prop);
+		File[] bridgeDbFiles = bridgeFiles(prop);
+		List<IDMapper> fileMappers = connect(bridgeDbFiles, EmbeddedDerby.warmUpSize(prop), metrics(prop), timeTargets(prop));
+		SpeciesIDMappers mappers = new SpeciesIDMappers();
+		for (int i = 0; i < bridgeDbFiles.length; i++) {
+			mappers.addIDMapper(species(bridgeDbFiles[i]), fileMappers.get(i));
+		}
+		return mappers;
+	}
+
+	/**
+	 * Returns {@link MappingMetrics#getDefault()} when the mappingmetrics property is true,
+	 * and null otherwise.
+	 */
+	static MappingMetrics metrics(Properties prop) {
+		return Boolean.parseBoolean(prop.getProperty("mappingmetrics")) ? MappingMetrics.getDefault() : null;
+	}
+
+	/**
+	 * Returns true when the mappingmetricspertarget property is true, to record the latency
+	 * of each target, at the cost of one query per target, see {@link MeteredIDMapper}.
+	 */
+	static boolean timeTargets(Properties prop) {
+		return Boolean.parseBoolean(prop.getProperty("mappingmetricspertarget"));
+	}
+
+	// loads the JDBC drivers and the BridgeDb data sources; see EmbeddedDerby for the Derby settings
+	private static void loadDrivers(Properties prop) throws Exception {
+		EmbeddedDerby.configure(prop);
+		if (!EmbeddedDerby.isEnabled(prop)) Class.forName("org.apache.derby.jdbc.ClientDriver");
 		Class.forName("org.bridgedb.rdb.IDMapperRdb");
 		if (!DataSource.fullNameExists("Ensembl")) DataSourceTxt.init();
+	}
+
+	/**
+	 * Opens the mapping databases concurrently, because opening a large Derby file
+	 * mostly waits on the disk, and returns the mappers in the order of the files.
+	 * The time each file took to open is printed. When a file cannot be opened, the
+	 * databases that were opened are closed again.
+	 *
+	 * @param warmUp  the number of identifiers per target data source to look up in each
+	 *                database after opening it, see {@link EmbeddedDerby#warmUp(IDMapper, int)}
+	 * @param metrics the metrics to record the lookups in, per file, or null; the warm-up
+	 *                is not recorded
+	 * @param timeTargets whether the metrics time each target of a lookup with its own query
+	 */
+	static List<IDMapper> connect(File[] bridgeDbFiles, int warmUp, MappingMetrics metrics, boolean timeTargets) throws Exception {
+		List<Callable<IDMapper>> tasks = new ArrayList<>();
+		for (File bridgeDbFile : bridgeDbFiles) {
+			tasks.add(() -> {
+				long start = System.nanoTime();
+				IDMapper mapper = BridgeDb.connect("idmapper-pgdb:" + bridgeDbFile.getAbsolutePath());
+				System.out.println(bridgeDbFile.getAbsolutePath() + " (" + (System.nanoTime() - start) / 1_000_000 + " ms)");
+				if (warmUp > 0) {
+					start = System.nanoTime();
+					int warmedUp = EmbeddedDerby.warmUp(mapper, warmUp);
+					System.out.println("Warmed up " + bridgeDbFile.getName() + " with " + warmedUp + " identifiers ("
+						+ (System.nanoTime() - start) / 1_000_000 + " ms)");
+				}
+				if (metrics != null) mapper = new MeteredIDMapper(bridgeDbFile.getName(), mapper, metrics, timeTargets);
+				return mapper;
+			});
+		}
+		if (tasks.isEmpty()) return new ArrayList<>();
+		// one thread per file: the threads wait on the disk, not on the processors
+		ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+		long start = System.nanoTime();
+		try {
+			List<IDMapper> mappers = new ArrayList<>();
+			Exception failure = null;
+			for (Future<IDMapper> mapper : pool.invokeAll(tasks)) {
+				try {
+					mappers.add(mapper.get());
+				} catch (ExecutionException exception) {
+					if (failure == null) failure = exception.getCause() instanceof Exception
+						? (Exception)exception.getCause() : exception;
+				}
+			}
+			if (failure != null) {
+				for (IDMapper mapper : mappers) {
+					try { mapper.close(); } catch (IDMapperException exception) {} // ignore
+				}
+				throw failure;
+			}
+			System.out.println("Opened " + mappers.size() + " mapping files in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+			return mappers;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Returns the organism a mapping file is for, from the BridgeDb file naming, where
+	 * gene databases start with the organism code, like <code>Hs_Derby_Ensembl_108.bridge</code>.
+	 * Returns null for species-independent files, like the metabolite, interaction and
+	 * complex databases.
+	 */
+	static Organism species(File bridgeFile) {
+		String name = bridgeFile.getName();
+		int separator = name.indexOf('_');
+		if (separator <= 0) return null;
+		return Organism.fromCode(name.substring(0, separator));
+	}
+
+	/**
+	 * Returns the BridgeDb organisms of the organism of a pathway, which can be a
+	 * comma-separated list of Latin names. Organisms BridgeDb does not know are left out.
+	 */
+	static Set<Organism> organisms(String organism) {
+		Set<Organism> organisms = new HashSet<>();
+		for (TaxonIndex.Taxon taxon : TaxonIndex.resolve(organism)) {
+			Organism bridgeDbOrganism = Organism.fromLatinName(taxon.name);
+			if (bridgeDbOrganism != null) organisms.add(bridgeDbOrganism);
+		}
+		return organisms;
+	}
+
+	/**
+	 * Selects the mapping files for pathways of the given organism: the species-specific
+	 * files of that organism, and all species-independent files. When the organism is not
+	 * known to BridgeDb, all files are selected.
+	 */
+	public static File[] selectForOrganism(File[] bridgeFiles, String organism) {
+		Set<Organism> organisms = organisms(organism);
+		if (organisms.isEmpty()) return bridgeFiles;
+		List<File> selected = new ArrayList<>();
+		for (File bridgeFile : bridgeFiles) {
+			Organism species = species(bridgeFile);
+			if (species == null || organisms.contains(species)) selected.add(bridgeFile);
+		}
+		return selected.toArray(new File[0]);
+	}
+
+	/**
+	 * Returns the BridgeDb mapping files in the folder given by the bridgefiles property.
+	 */
+	public static File[] bridgeFiles(Properties prop) throws Exception {
 		if (prop.getProperty("bridgefiles") == null) {
 			throw new Exception("Expected a bridgefiles property, but did not find one.");
 		}
@@ -62,189 +258,158 @@ public class BridgeDbIDMapper {
 		        return name.toLowerCase().endsWith(".bridge");
 		    }
 		};
-
 		File[] bridgeDbFiles = dir.listFiles(filter);
-		IDMapperStack mapper = new IDMapperStack();
-		for (File bridgeDbFile : bridgeDbFiles) {
-			System.out.println(bridgeDbFile.getAbsolutePath());
-			mapper.addIDMapper(
-				BridgeDb.connect("idmapper-pgdb:" + bridgeDbFile.getAbsolutePath())
-			);
+		if (bridgeDbFiles == null) throw new Exception("Not a folder with BridgeDb mapping files: " + dir);
+		Arrays.sort(bridgeDbFiles); // listFiles() does not guarantee an order
+		return bridgeDbFiles;
+	}
+
+	/**
+	 * Creates the BridgeDb mapper stack, wrapped in a {@link PersistentIDMapper} when
+	 * the properties have a mappingcache property with the folder to keep the cache in.
+	 * When the properties have a mappingsnapshot property instead, the {@link MappingSnapshot}
+	 * in that file is used, and the mapping databases are not opened at all. When the
+	 * routemappings property is true, a {@link RoutingIDMapper} is used instead of the stack.
+	 * A negativecache property with a maximum size puts a {@link NegativeCachingIDMapper}
+	 * in front of the mapping databases. When the mappingmetrics property is true, the
+	 * lookups in each mapping file, or in the snapshot, are recorded in
+	 * {@link MappingMetrics#getDefault()}, and with mappingmetricspertarget also
+	 * timed per target.
+	 */
+	public static IDMapper createCachedBridgeDbMapper(Properties prop) throws Exception {
+		return createCachedBridgeDbMapper(prop, null);
+	}
+
+	/**
+	 * Like {@link #createCachedBridgeDbMapper(Properties)}, but only with the mapping files
+	 * for the given organism and the species-independent ones.
+	 */
+	public static IDMapper createCachedBridgeDbMapper(Properties prop, String organism) throws Exception {
+		if (prop.getProperty("mappingsnapshot") != null) {
+			if (!DataSource.fullNameExists("Ensembl")) DataSourceTxt.init();
+			IDMapper snapshot = MappingSnapshot.open(new File(prop.getProperty("mappingsnapshot")));
+			MappingMetrics metrics = metrics(prop);
+			return metrics != null ? new MeteredIDMapper("snapshot", snapshot, metrics, timeTargets(prop)) : snapshot;
+		}
+		IDMapper mapper = Boolean.parseBoolean(prop.getProperty("routemappings"))
+			? createRoutingBridgeDbMapper(prop, organism) : createBridgeDbMapper(prop, organism);
+		if (prop.getProperty("mappingcache") != null) {
+			File[] bridgeFiles = bridgeFiles(prop);
+			mapper = PersistentIDMapper.open(mapper, new File(prop.getProperty("mappingcache")),
+				bridgeFiles, selectForOrganism(bridgeFiles, organism));
+		}
+		if (prop.getProperty("negativecache") != null) {
+			mapper = new NegativeCachingIDMapper(mapper, Integer.parseInt(prop.getProperty("negativecache").trim()));
 		}
 		return mapper;
 	}
 
+	// all of MappingTarget, except InChIKey, which is written differently
+	private static final MappingTarget[] TARGETS = Arrays.stream(MappingTarget.values())
+		.filter(target -> target != MappingTarget.INCHIKEY).toArray(MappingTarget[]::new);
+
+	/**
+	 * Maps the identifier to all target data sources with one lookup, and adds the
+	 * mapped identifiers to the DataNode resource.
+	 */
 	public static void getUnifiedIdentifiers(Model model, IDMapper  mapper, Xref idXref, Resource internalWPDataNodeResource)
 	throws IDMapperException, UnsupportedEncodingException {
 //		System.out.println(idXref);
-		//ENSEMBL
-		outputBridgeDbMapping(model, mapper, idXref, internalWPDataNodeResource,
-			"En", "https://identifiers.org/ensembl/", Wp.bdbEnsembl
-		);
-		//Uniprot
-		outputBridgeDbMapping(model, mapper, idXref, internalWPDataNodeResource,
-			"S", "https://identifiers.org/uniprot/", Wp.bdbUniprot
-		);
-		//Entrez Gene
-		outputBridgeDbMapping(model, mapper, idXref, internalWPDataNodeResource,
-			"L", "https://identifiers.org/ncbigene/", Wp.bdbEntrezGene
-		);
-		//HGNC Symbols
-		outputBridgeDbMapping(model, mapper, idXref, internalWPDataNodeResource,
-			"H", "https://identifiers.org/hgnc.symbol/", Wp.bdbHgncSymbol
-		);
+		if (idXref.getDataSource().equals(Wp.bdbInChIKey))
+			System.out.println("InChIKey found: " + idXref);
+		if (mapper == null) { // OK, not BridgeDb mapping files; just return
+			System.out.println("No mapper found");
+			return;
+		}
 
-		// Metabolites
+		DataSource[] sources = new DataSource[TARGETS.length];
+		List<DataSource> targets = new ArrayList<>();
+		for (int i = 0; i < TARGETS.length; i++) {
+			try {
+				sources[i] = DataSource.getExistingBySystemCode(TARGETS[i].systemCode);
+				targets.add(sources[i]);
+			} catch (Exception exception) {
+				System.out.println("Unknown system code (mapping files not loaded?): " + TARGETS[i].systemCode);
+			}
+		}
+		DataSource inchikeySource = null;
+		try {
+			inchikeySource = DataSource.getExistingBySystemCode(MappingTarget.INCHIKEY.systemCode);
+			targets.add(inchikeySource);
+		} catch (Exception exception) {
+			System.out.println("InChIKey exception: " + exception.getMessage());
+		}
 
-		//HMDB
-		outputBridgeDbMapping(model, mapper, idXref, internalWPDataNodeResource,
-			"Ch", "https://identifiers.org/hmdb/", Wp.bdbHmdb
-		);
-		//CHEMSPIDER
-		outputBridgeDbMapping(model, mapper, idXref, internalWPDataNodeResource,
-			"Cs", "https://identifiers.org/chemspider/", Wp.bdbChemspider
-		);
-		//ChEBI
-		outputBridgeDbMapping(model, mapper, idXref, internalWPDataNodeResource,
-			"Ce", "https://identifiers.org/chebi/", Wp.bdbChEBI
-		);
-		// Wikidata
-		outputBridgeDbMapping(model, mapper, idXref, internalWPDataNodeResource,
-			"Wd", "http://www.wikidata.org/entity/", Wp.bdbWikidata
+		Map<DataSource, Set<Xref>> mapped = partition(
+			mapper.mapID(idXref, targets.toArray(new DataSource[0])), targets
 		);
-		// PubChem Compound
-		outputBridgeDbMapping(model, mapper, idXref, internalWPDataNodeResource,
-			"Cpc", "http://rdf.ncbi.nlm.nih.gov/pubchem/compound/CID", Wp.bdbPubChem
-		);
-		// Kegg Compound
-				outputBridgeDbMapping(model, mapper, idXref, internalWPDataNodeResource,
-					"Ck", "https://identifiers.org/kegg.compound/", Wp.bdbKeggCompound
-				); 
-		// LipidMaps
-				outputBridgeDbMapping(model, mapper, idXref, internalWPDataNodeResource,
-					"Lm", "https://identifiers.org/lipidmaps/", Wp.bdbLipidMaps
-				); 
+		// the next if clause is to handle new HMDB00xxxxx-style identifiers and a BridgeDb
+		// mapping file that does not recognize them yet (causing empty results)
+		if ("Ch".equals(idXref.getDataSource().getSystemCode()) && idXref.getId().length() == 11) {
+			List<DataSource> unmapped = new ArrayList<>();
+			for (DataSource source : sources) {
+				if (source != null && mapped.get(source).isEmpty()) unmapped.add(source);
+			}
+			if (!unmapped.isEmpty()) { // HMDB00xxxxx -> HMDBxxxxx
+				Xref hmdbXref = new Xref(idXref.getId().replace("HMDB00", "HMDB"), idXref.getDataSource());
+				mapped.putAll(partition(mapper.mapID(hmdbXref, unmapped.toArray(new DataSource[0])), unmapped));
+			}
+		}
+
+		for (int i = 0; i < TARGETS.length; i++) {
+			if (sources[i] == null) continue;
+			outputBridgeDbMapping(model, idXref, internalWPDataNodeResource,
+				TARGETS[i].systemCode, TARGETS[i].predicate, mapped.get(sources[i])
+			);
+		}
+
 		// InChIKey
-		if (idXref.getDataSource().equals(Wp.bdbInChIKey))
-			System.out.println("InChIKey found: " + idXref);
-		if (mapper != null) {
+		if (inchikeySource != null) {
 			try {
-				DataSource source = DataSource.getExistingBySystemCode("Ik");
-				Set<Xref> unifiedIdXref = mapper.mapID(idXref, source);
-				Iterator<Xref> iter = unifiedIdXref.iterator();
+				Iterator<Xref> iter = mapped.get(inchikeySource).iterator();
 				while (iter.hasNext()){
 					Xref unifiedId = (Xref) iter.next();
 					String inchikey = unifiedId.getId();
-					Resource inchiResource = model.createResource("https://identifiers.org/inchikey/" + inchikey);
-					internalWPDataNodeResource.addProperty(Wp.bdbInChIKey, inchiResource);
-					Resource neutralResource = model.createResource("https://identifiers.org/inchikey/" + inchikey.substring(0,inchikey.length()-1) + "N");
+					Resource inchiResource = model.createResource(MappingTarget.INCHIKEY.prefix + inchikey);
+					internalWPDataNodeResource.addProperty(MappingTarget.INCHIKEY.predicate, inchiResource);
+					Resource neutralResource = model.createResource(MappingTarget.INCHIKEY.prefix + inchikey.substring(0,inchikey.length()-1) + "N");
 					internalWPDataNodeResource.addProperty(RDFS.seeAlso, neutralResource);
 				}
 			} catch (Exception exception) {
 				System.out.println("InChIKey exception: " + exception.getMessage());
 			}
-		} else {
-			System.out.println("No mapper found");
 		}
-
-		// Interactions
-
-		// Reactome
-		outputBridgeDbMapping(model, mapper, idXref, internalWPDataNodeResource,
-			"Re", "https://identifiers.org/reactome/", Wp.bdbReactome
-		);
-		// Rhea
-		outputBridgeDbMapping(model, mapper, idXref, internalWPDataNodeResource,
-			"Rh", "https://identifiers.org/rhea/", Wp.bdbRhea
-		);
-
-		// Complexes
-
-		// Complex Portal
-		outputBridgeDbMapping(model, mapper, idXref, internalWPDataNodeResource,
-			"Cpx", "https://identifiers.org/complexportal/", Wp.bdbComplexPortal
-		);
-
-		// Literature references
-
-		// DOI
-		outputBridgeDbMapping(model, mapper, idXref, internalWPDataNodeResource,
-			"Pbd", "https://doi.org/", OWL.sameAs
-		);
 	}
 
-	private static void outputBridgeDbMapping(Model model, IDMapper mapper, Xref idXref,
-			Resource internalWPDataNodeResource, String sourceCode, String uriPrefix, Property predicate)
-	throws IDMapperException, UnsupportedEncodingException {
-		if (mapper == null) return; // OK, not BridgeDb mapping files; just return
-		DataSource source = null;
-		try {
-			source = DataSource.getExistingBySystemCode(sourceCode);
-		} catch (Exception exception) {
-			System.out.println("Unknown system code (mapping files not loaded?): " + sourceCode);
-			return;
+	/**
+	 * Splits the result of a lookup with several target data sources by target. Every
+	 * target gets a set, which is empty when nothing was mapped to it.
+	 */
+	static Map<DataSource, Set<Xref>> partition(Set<Xref> mapped, Collection<DataSource> targets) {
+		Map<DataSource, Set<Xref>> partitioned = new HashMap<>();
+		for (DataSource target : targets) partitioned.put(target, new HashSet<>());
+		if (mapped == null) return partitioned;
+		for (Xref xref : mapped) {
+			Set<Xref> targetSet = partitioned.get(xref.getDataSource());
+			if (targetSet != null) targetSet.add(xref);
 		}
+		return partitioned;
+	}
+
+	private static void outputBridgeDbMapping(Model model, Xref idXref, Resource internalWPDataNodeResource,
+			String sourceCode, Property predicate, Set<Xref> unifiedIdXref) {
 		// first, if we already have a $foo identifier, also output is as mapped identifier
 		if (sourceCode.equals(idXref.getDataSource().getSystemCode())) {
-			// here too, we need to make sure to output proper identifiers.org IRIs for ChEBI IDs.
-			if ("Ce".equals(sourceCode)) {
-				String nodeIdentifier = idXref.getId();
-				if (nodeIdentifier.startsWith("CHEBI:")) {
-					Resource unifiedlIdResource = model.createResource(uriPrefix+nodeIdentifier);
-					internalWPDataNodeResource.addProperty(predicate, unifiedlIdResource);
-				} else { // just digits
-					nodeIdentifier = "CHEBI:" + nodeIdentifier;
-					Resource unifiedlIdResource = model.createResource(uriPrefix+nodeIdentifier);
-					internalWPDataNodeResource.addProperty(predicate, unifiedlIdResource);
-				}
-			} else {
-				Resource unifiedlIdResource = model.createResource(uriPrefix + idXref.getId().replaceAll(" ", "_"));
-				internalWPDataNodeResource.addProperty(predicate, unifiedlIdResource);
-			}
-		}
-		// now, use BridgeDb to find additional identifiers
-		Set<Xref> unifiedIdXref = mapper.mapID(idXref, source);
-		Iterator<Xref> iter = unifiedIdXref.iterator();
-		// the next if clause is to handle new HMDB00xxxxx-style identifiers and a BridgeDb
-		// mapping file that does not recognize them yet (causing an empty iter)
-		if (!iter.hasNext() && "Ch".equals(idXref.getDataSource().getSystemCode())) {
-			String origIdentifier = idXref.getId();
-			if (origIdentifier.length() == 11) { // HMDB00xxxxx -> HMDBxxxxx
-				idXref = new Xref(origIdentifier.replace("HMDB00", "HMDB"), idXref.getDataSource());
-				unifiedIdXref = mapper.mapID(idXref, source);
-				iter = unifiedIdXref.iterator();
-			}
+			Resource unifiedlIdResource = model.createResource(IRINormalizer.sourceIRI(sourceCode, idXref.getId()));
+			internalWPDataNodeResource.addProperty(predicate, unifiedlIdResource);
 		}
-		while (iter.hasNext()){
-			Xref unifiedId = (Xref) iter.next();
-			if ("Ce".equals(sourceCode)) {
-				String unifiedDataNodeIdentifier = unifiedId.getId();
-				if (unifiedDataNodeIdentifier.startsWith("CHEBI:")) {
-					Resource unifiedlIdResource = model.createResource(uriPrefix+unifiedDataNodeIdentifier);
-					internalWPDataNodeResource.addProperty(predicate, unifiedlIdResource);
-				} else { // just digits
-					unifiedDataNodeIdentifier = "CHEBI:" + unifiedDataNodeIdentifier;
-					Resource unifiedlIdResource = model.createResource(uriPrefix+unifiedDataNodeIdentifier);
-					internalWPDataNodeResource.addProperty(predicate, unifiedlIdResource);
-				}
-			} else if ("Ch".equals(sourceCode)) {
-				String unifiedDataNodeIdentifier = unifiedId.getId();
-				if (unifiedDataNodeIdentifier.length() == 9) {
-					unifiedDataNodeIdentifier = unifiedDataNodeIdentifier.replace("HMDB", "HMDB00");
-				}
-				Resource unifiedlIdResource = model.createResource(uriPrefix+unifiedDataNodeIdentifier);
-				internalWPDataNodeResource.addProperty(predicate, unifiedlIdResource);
-			} else if ("Pbd".equals(sourceCode)) {
-				String dataNodeIdentifier = unifiedId.getId().toUpperCase();
-				String unifiedDataNodeIdentifier = URLEncoder.encode(dataNodeIdentifier, "UTF-8");
-  			    Resource unifiedlIdResource = model.createResource(uriPrefix+unifiedDataNodeIdentifier);
-			    internalWPDataNodeResource.addProperty(predicate, unifiedlIdResource);
-			    unifiedlIdResource.addProperty(DCTerms.identifier, model.createLiteral(dataNodeIdentifier));
-			    unifiedlIdResource.addProperty(DC_11.source, model.createLiteral("DOI"));
-			} else {
-				String unifiedDataNodeIdentifier = URLEncoder.encode(unifiedId.getId(), "UTF-8");
-  			    Resource unifiedlIdResource = model.createResource(uriPrefix+unifiedDataNodeIdentifier);
-			    internalWPDataNodeResource.addProperty(predicate, unifiedlIdResource);
+		// now, add the additional identifiers BridgeDb found
+		for (Xref unifiedId : unifiedIdXref) {
+			Resource unifiedlIdResource = model.createResource(IRINormalizer.mappedIRI(sourceCode, unifiedId.getId()));
+			internalWPDataNodeResource.addProperty(predicate, unifiedlIdResource);
+			if ("Pbd".equals(sourceCode)) {
+				unifiedlIdResource.addProperty(DCTerms.identifier, model.createLiteral(unifiedId.getId().toUpperCase()));
+				unifiedlIdResource.addProperty(DC_11.source, model.createLiteral("DOI"));
 			}
 			//createCHEMINFBits(model,
 			//		internalWPDataNodeResource, CHEMINF.CHEMINF_000405, unifiedChemspiderDataNodeIdentifier
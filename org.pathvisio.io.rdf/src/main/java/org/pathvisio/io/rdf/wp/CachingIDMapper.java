@@ -0,0 +1,202 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.wp;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.IDMapper;
+import org.bridgedb.IDMapperException;
+import org.bridgedb.Xref;
+
+/**
+ * An {@link IDMapper} that keeps the results of lookups, per identifier and
+ * target data source, in a least-recently-used cache of limited size. The same
+ * metabolites occur in many pathways, so one cache can be shared by all
+ * {@link Convertor}s of a batch run. Lookups without a target data source are
+ * not cached.
+ * The cache can be used by several threads; two threads that miss on the
+ * same identifier at the same time may both do the lookup.
+ */
+public class CachingIDMapper extends ForwardingIDMapper {
+
+	/**
+	 * A snapshot of the cache statistics.
+	 */
+	public static class Stats {
+
+		public final long hits;
+		public final long misses;
+		public final long evictions;
+		public final long loadTimeNanos;
+		public final int size;
+
+		Stats(long hits, long misses, long evictions, long loadTimeNanos, int size) {
+			this.hits = hits;
+			this.misses = misses;
+			this.evictions = evictions;
+			this.loadTimeNanos = loadTimeNanos;
+			this.size = size;
+		}
+
+		public double hitRate() {
+			long lookups = hits + misses;
+			return lookups == 0 ? 0.0 : (double)hits / lookups;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d entries, %d hits, %d misses (hit rate %.1f%%), %d evictions, %.1f ms loading",
+				size, hits, misses, 100 * hitRate(), evictions, loadTimeNanos / 1e6);
+		}
+
+	}
+
+	// also used by NegativeCachingIDMapper
+	static final class Key {
+
+		final Xref xref;
+		final DataSource target;
+
+		Key(Xref xref, DataSource target) {
+			this.xref = xref;
+			this.target = target;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) return false;
+			Key other = (Key)obj;
+			return xref.equals(other.xref) && Objects.equals(target, other.target);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * xref.hashCode() + Objects.hashCode(target);
+		}
+
+	}
+
+	private final int maximumSize;
+	private final Map<Key, Set<Xref>> cache;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder loadTimeNanos = new LongAdder();
+
+	/**
+	 * @param mapper       the mapper to cache the lookups of, usually an IDMapperStack
+	 * @param maximumSize  the maximum number of (identifier, target) pairs to keep
+	 */
+	public CachingIDMapper(IDMapper mapper, int maximumSize) {
+		super(mapper);
+		if (maximumSize < 1) throw new IllegalArgumentException("The maximum size must be positive: " + maximumSize);
+		this.maximumSize = maximumSize;
+		this.cache = new LinkedHashMap<Key, Set<Xref>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Set<Xref>> eldest) {
+				if (size() <= CachingIDMapper.this.maximumSize) return false;
+				evictions.increment();
+				return true;
+			}
+		};
+	}
+
+	public Stats getStats() {
+		int size;
+		synchronized (cache) {
+			size = cache.size();
+		}
+		return new Stats(hits.sum(), misses.sum(), evictions.sum(), loadTimeNanos.sum(), size);
+	}
+
+	/**
+	 * Empties the cache, for example after the mapping databases changed. The
+	 * statistics are kept.
+	 */
+	public void clear() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+
+	private final TargetStore store = new TargetStore() {
+		@Override
+		public Set<Xref> get(Xref xref, DataSource target) {
+			Set<Xref> mapped;
+			synchronized (cache) {
+				mapped = cache.get(new Key(xref, target));
+			}
+			if (mapped != null) hits.increment(); else misses.increment();
+			return mapped;
+		}
+
+		@Override
+		public void put(Xref xref, DataSource target, Set<Xref> mapped) {
+			synchronized (cache) {
+				cache.put(new Key(xref, target), mapped);
+			}
+		}
+	};
+
+	/**
+	 * Answers the targets that are in the cache from the cache, and looks up the
+	 * others with a single lookup, whose results are then cached per target.
+	 */
+	@Override
+	public Set<Xref> mapID(Xref ref, DataSource... tgtDataSources) throws IDMapperException {
+		if (tgtDataSources.length == 0 || ref == null) return mapper.mapID(ref, tgtDataSources);
+		return mapPerTarget(ref, tgtDataSources, store);
+	}
+
+	/**
+	 * Answers the identifiers that are in the cache from the cache, and looks up
+	 * the others with a single bulk lookup, whose results are then cached too.
+	 */
+	@Override
+	public Map<Xref, Set<Xref>> mapID(Collection<Xref> srcXrefs, DataSource... tgtDataSources) throws IDMapperException {
+		if (tgtDataSources.length != 1) return mapper.mapID(srcXrefs, tgtDataSources);
+		return mapPerTarget(srcXrefs, tgtDataSources[0], store);
+	}
+
+	@Override
+	protected Set<Xref> load(Xref ref, DataSource[] tgtDataSources) throws IDMapperException {
+		long start = System.nanoTime();
+		try {
+			return super.load(ref, tgtDataSources);
+		} finally {
+			loadTimeNanos.add(System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	protected Map<Xref, Set<Xref>> load(Collection<Xref> srcXrefs, DataSource target) throws IDMapperException {
+		long start = System.nanoTime();
+		try {
+			return super.load(srcXrefs, target);
+		} finally {
+			loadTimeNanos.add(System.nanoTime() - start);
+		}
+	}
+
+}
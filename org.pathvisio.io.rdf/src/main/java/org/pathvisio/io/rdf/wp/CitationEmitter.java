@@ -0,0 +1,120 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.wp;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.sparql.vocabulary.FOAF;
+import org.apache.jena.vocabulary.DC;
+import org.apache.jena.vocabulary.DCTerms;
+import org.apache.jena.vocabulary.RDF;
+import org.bridgedb.Xref;
+import org.pathvisio.io.rdf.ontologies.CITO;
+import org.pathvisio.io.rdf.ontologies.Wp;
+import org.pathvisio.io.rdf.utils.Triples;
+import org.pathvisio.io.rdf.utils.Utils;
+
+/**
+ * Writes the WPRDF for literature references. The triples that describe a
+ * publication (its type, source, identifier and web page) are written only
+ * the first time the publication is cited; every citing element only gets the
+ * triples that link it to the publication.
+ *
+ * By default the {@link Convertor} uses a new emitter for each pathway. When the
+ * models of many pathways are merged into one dump, share one emitter between the
+ * conversions with {@link Convertor#setCitationEmitter(CitationEmitter)}, so that
+ * each publication is described once per dump. Do not share an emitter when the
+ * models are written out separately, because later pathways would then lack the
+ * descriptions.
+ *
+ * Only PubMed identifiers are converted; DOIs are not converted (yet).
+ */
+public class CitationEmitter {
+
+	/**
+	 * A validated PubMed identifier with its IRIs.
+	 */
+	static class PubMedReference {
+
+		final String pmid;
+		final Node node;
+		final Node page;
+
+		PubMedReference(String pmid) {
+			this.pmid = pmid;
+			this.node = Triples.uri(Utils.IDENTIFIERS_ORG_URL + "/pubmed/" + pmid);
+			this.page = Triples.uri("http://www.ncbi.nlm.nih.gov/pubmed/" + pmid);
+		}
+
+	}
+
+	// PubMed identifiers as found in GPML, mapped to the validated reference
+	private static final Map<String,PubMedReference> PUBMED = new ConcurrentHashMap<>();
+	private static final PubMedReference INVALID = new PubMedReference("");
+
+	private final Set<String> described = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Links the citing resource to the publication, and the pathway too when this is
+	 * the first time the pathway cites it. The publication itself is described the
+	 * first time this emitter sees it.
+	 */
+	public void emit(ConversionContext context, Resource citing, Xref citationXref) {
+		String fullName = citationXref.getDataSource().getFullName();
+		if (!"PubMed".equals(fullName)) return;
+		PubMedReference reference = pubMedReference(citationXref.getId());
+		if (reference == null) return;
+
+		Graph graph = context.graph;
+		if (described.add(reference.pmid)) {
+			Triples.add(graph, reference.node, RDF.type, Wp.PublicationReference);
+			Triples.add(graph, reference.node, DC.source, fullName);
+			Triples.add(graph, reference.node, DCTerms.identifier, reference.pmid);
+			Triples.add(graph, reference.node, FOAF.page, reference.page);
+		}
+		Triples.add(graph, reference.node, DCTerms.isPartOf, citing);
+		Triples.add(graph, citing.asNode(), DCTerms.references, reference.node);
+		Triples.add(graph, citing.asNode(), CITO.cites, reference.node);
+		if (context.cited.add(reference.pmid)) {
+			Triples.add(graph, context.pwyRes.asNode(), CITO.cites, reference.node);
+		}
+	}
+
+	/**
+	 * Returns the reference for a PubMed identifier, or null if the identifier is
+	 * not a number. Each identifier is only validated once.
+	 */
+	static PubMedReference pubMedReference(String id) {
+		if (id == null) return null;
+		PubMedReference reference = PUBMED.computeIfAbsent(id, CitationEmitter::validate);
+		return reference != INVALID ? reference : null;
+	}
+
+	private static PubMedReference validate(String id) {
+		String pmid = id.trim();
+		try {
+			Integer.parseInt(pmid);
+			return new PubMedReference(pmid);
+		} catch (NumberFormatException exception) {
+			return INVALID; // not an integer
+		}
+	}
+
+}
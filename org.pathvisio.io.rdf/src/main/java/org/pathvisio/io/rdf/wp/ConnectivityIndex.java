@@ -0,0 +1,64 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.wp;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.pathvisio.libgpml.model.Interaction;
+import org.pathvisio.libgpml.model.LineElement.Anchor;
+import org.pathvisio.libgpml.model.PathwayModel;
+
+/**
+ * How the interactions of a pathway connect: the interactions by element ID
+ * and the interaction that owns each anchor. Built once per pathway, so that the
+ * {@link InteractionConvertor} does not have to scan all interactions for every lookup.
+ *
+ * <p>There is deliberately no index of the lines that start or end at an anchor. An
+ * interaction only has its own line as participating line: the original loop over the
+ * lines attached to its anchors compared element references with element IDs, never
+ * matched, and so never added one. Adding them would change the WPRDF, and needs a
+ * rule for branch lines whose arrowheads differ from the main line, which
+ * <code>getInteractionType()</code> would otherwise report as mixed line types.
+ */
+public class ConnectivityIndex {
+
+	private final Map<String,Interaction> interactions = new HashMap<>();
+	private final Map<String,Interaction> anchorOwners = new HashMap<>();
+
+	ConnectivityIndex(PathwayModel pathway) {
+		for (Interaction interaction : pathway.getInteractions()) {
+			interactions.putIfAbsent(interaction.getElementId(), interaction);
+			for (Anchor anchor : interaction.getAnchors()) {
+				anchorOwners.putIfAbsent(anchor.getElementId(), interaction);
+			}
+		}
+	}
+
+	/**
+	 * Returns the interaction with the given element ID, or null.
+	 */
+	Interaction getInteraction(String elementId) {
+		return interactions.get(elementId);
+	}
+
+	/**
+	 * Returns the interaction the anchor is part of, or null.
+	 */
+	Interaction getInteractionWithAnchor(Anchor anchor) {
+		return anchorOwners.get(anchor.getElementId());
+	}
+
+}
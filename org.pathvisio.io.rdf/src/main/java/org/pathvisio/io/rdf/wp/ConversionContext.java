@@ -0,0 +1,91 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.wp;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Resource;
+import org.bridgedb.IDMapper;
+import org.pathvisio.io.rdf.utils.Utils;
+import org.pathvisio.libgpml.model.PathwayModel;
+
+/**
+ * The state of a single conversion: the pathway that is converted, the model
+ * the triples go into, the pathway resource, the resources of the
+ * converted DataNodes, which the interactions and groups link to, the
+ * {@link ConnectivityIndex} of the interactions, the publications the
+ * pathway already cites, and the identifier mapper for this pathway. The
+ * {@link Convertor} and the element convertors keep no per-conversion state
+ * themselves, so one {@link Convertor} can run many conversions at the same
+ * time, each with its own context.
+ */
+public class ConversionContext {
+
+	final PathwayModel pathway;
+	final Model model;
+	final Graph graph;
+	final Resource pwyRes;
+	final String wpId;
+	final String revision;
+	final Map<String, Resource> datanodes;
+	final ConnectivityIndex connectivity;
+	final CitationEmitter citations;
+	final Set<String> cited;
+	final IDMapper mapper;
+
+	ConversionContext(PathwayModel pathway, Model model, Resource pwyRes, CitationEmitter citations, IDMapper mapper) {
+		this(pathway, model, pwyRes, new ConcurrentHashMap<>(), new ConnectivityIndex(pathway), citations,
+			ConcurrentHashMap.newKeySet(), mapper);
+	}
+
+	private ConversionContext(PathwayModel pathway, Model model, Resource pwyRes, Map<String, Resource> datanodes,
+			ConnectivityIndex connectivity, CitationEmitter citations, Set<String> cited, IDMapper mapper) {
+		this.pathway = pathway;
+		this.model = model;
+		this.graph = model.getGraph();
+		this.pwyRes = pwyRes.inModel(model);
+		this.wpId = pathway.getPathway().getXref().getId();
+		this.revision = Utils.getRevisionFromVersion(wpId, pathway.getPathway().getVersion());
+		this.datanodes = datanodes;
+		this.connectivity = connectivity;
+		this.citations = citations;
+		this.cited = cited;
+		this.mapper = mapper;
+	}
+
+	/**
+	 * Returns a context for the same pathway, sharing the DataNode resources,
+	 * that writes into the given model.
+	 */
+	ConversionContext withModel(Model model) {
+		return new ConversionContext(this.pathway, model, this.pwyRes, this.datanodes, this.connectivity,
+			this.citations, this.cited, this.mapper);
+	}
+
+	/**
+	 * Returns a context like {@link #withModel(Model)}, but one that writes all
+	 * citation triples into the given model again, so that the model describes
+	 * a single element by itself.
+	 */
+	ConversionContext forElement(Model model) {
+		return new ConversionContext(this.pathway, model, this.pwyRes, this.datanodes, this.connectivity,
+			new CitationEmitter(), ConcurrentHashMap.newKeySet(), this.mapper);
+	}
+
+}
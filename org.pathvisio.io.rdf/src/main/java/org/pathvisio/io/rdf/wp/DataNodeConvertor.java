@@ -14,31 +14,31 @@
  */
 package org.pathvisio.io.rdf.wp;
 
-import org.apache.jena.rdf.model.Model;
+import org.apache.jena.graph.Graph;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.sparql.vocabulary.FOAF;
 import org.apache.jena.vocabulary.DC;
 import org.apache.jena.vocabulary.DCTerms;
 import org.apache.jena.vocabulary.RDF;
 import org.apache.jena.vocabulary.RDFS;
-import org.bridgedb.DataSource;
-import org.bridgedb.IDMapperStack;
+import org.bridgedb.IDMapper;
 import org.bridgedb.Xref;
 import org.pathvisio.io.rdf.ontologies.Wp;
+import org.pathvisio.io.rdf.utils.Triples;
 import org.pathvisio.libgpml.model.DataNode;
 import org.pathvisio.libgpml.model.PathwayElement.CitationRef;
 
 public class DataNodeConvertor {
 
 	String domainName;
-	IDMapperStack mapper;
+	IDMapper mapper;
 	Convertor convertor;
 	
 	protected DataNodeConvertor(Convertor convertor, String domainName) {
 		this(convertor, domainName, null);
 	}
 	
-	protected DataNodeConvertor(Convertor convertor, String domainName, IDMapperStack mapper) {
+	protected DataNodeConvertor(Convertor convertor, String domainName, IDMapper mapper) {
 		this.convertor = convertor;
 		this.domainName = domainName;
 		this.mapper = mapper;
@@ -48,79 +48,55 @@ public class DataNodeConvertor {
 		return xref != null && xref.getId() != null && xref.getDataSource() != null;
 	}
 
-	public void convertDataNode(DataNode elem, Model model, String wpId, String revision) {
+	public void convertDataNode(DataNode elem, ConversionContext context) {
+		Graph graph = context.graph;
 		String nodeID = elem.getElementId();
 		Xref xref = elem.getXref();
 		if (validXref(xref)) {
 			if(!elem.getType().equals("Unknown")) {
 				if (xref.getId() != null && elem.getXref().getId().trim().length() > 0) {
-					String xrefid = xref.getId();
-					DataSource datasource = xref.getDataSource(); 
-					String url = datasource.getIdentifiersOrgUri(xrefid);
-					if (url != null) url = url.replace("http://identifiers", "https://identifiers");
-					String foafURL = null;
-					if (datasource.getKnownUrl(xrefid) != null) {
-						foafURL = datasource.getKnownUrl(xrefid).replaceAll(" ", "_").replaceAll("\t", "");
-					}
-					if ("HMDB".equals(xref.getDataSource().getFullName())) {
-						if (xrefid.length() == 11) {
-							// OK, all is fine
-						} else if (xrefid.length() > 4) {
-							xrefid = "HMDB00" + xrefid.substring(4);
-						} // else, something really weird
-						url = datasource.getIdentifiersOrgUri(xrefid);
-						if (url != null) url = url.replace("http://identifiers", "https://identifiers");
-					}
-					if(url != null && !url.equals("")) {
+					// the DataNode IRI, the HMDB identifier padded to HMDB00xxxxx, and the FOAF page
+					IRINormalizer.DataNodeIRI iris = IRINormalizer.dataNode(xref);
+					String xrefid = iris.identifier;
+					String foafURL = iris.page;
+					if(iris.iri != null) {
 						Resource datanodeRes = null; // = data.getDataNodes().get(xref);
 						if(datanodeRes == null) {
-							if (url.contains("chebi/CHEBI:")){
-								String resourceURL = url.trim().replaceAll(" ", "_");
-								datanodeRes = model.createResource(resourceURL);
-								datanodeRes.addProperty(DC.identifier, model.createResource(resourceURL));
-							}
-							else if (url.contains("chebi")){
-								String resourceURL = url.trim().replaceAll(" ", "_").replace("chebi/","chebi/CHEBI:");
-								datanodeRes = model.createResource(resourceURL);
-								datanodeRes.addProperty(DC.identifier, model.createResource(resourceURL));
-							}
-							else{
-								String resourceURL = url.trim().replaceAll(" ", "_");
-								datanodeRes = model.createResource(resourceURL);
-								datanodeRes.addProperty(DC.identifier, model.createResource(resourceURL));
-							}
+							String resourceURL = iris.iri;
+							datanodeRes = context.model.createResource(resourceURL);
+							Triples.add(graph, datanodeRes.asNode(), DC.identifier, Triples.uri(resourceURL));
 							
-							this.convertor.datanodes.put(nodeID, datanodeRes);
-							datanodeRes.addLiteral(DC.source, xref.getDataSource().getFullName());
-							datanodeRes.addLiteral(DCTerms.identifier, xrefid);
+							context.datanodes.put(nodeID, datanodeRes);
+							Triples.add(graph, datanodeRes.asNode(), DC.source, xref.getDataSource().getFullName());
+							Triples.add(graph, datanodeRes.asNode(), DCTerms.identifier, xrefid);
 
-							datanodeRes.addProperty(RDF.type, Wp.DataNode);
+							Triples.add(graph, datanodeRes.asNode(), RDF.type, Wp.DataNode);
 							
 							switch (elem.getType().getName()) {
 							case "GeneProduct":
-								datanodeRes.addProperty(RDF.type, Wp.GeneProduct);
+								Triples.add(graph, datanodeRes.asNode(), RDF.type, Wp.GeneProduct);
 								break;
 								
 							case "Protein":
-								datanodeRes.addProperty(RDF.type, Wp.Protein);
+								Triples.add(graph, datanodeRes.asNode(), RDF.type, Wp.Protein);
 								break;
 								
 							case "Metabolite":
-								datanodeRes.addProperty(RDF.type, Wp.Metabolite);
-								try { BridgeDbIDMapper.getUnifiedIdentifiers(model, mapper, xref, datanodeRes);
+								Triples.add(graph, datanodeRes.asNode(), RDF.type, Wp.Metabolite);
+								try { BridgeDbIDMapper.getUnifiedIdentifiers(context.model, context.mapper, xref, datanodeRes);
 								} catch(Exception exception) {} // ignore
 								break;
 								
 							case "Rna":
-								datanodeRes.addProperty(RDF.type, Wp.Rna);
+								Triples.add(graph, datanodeRes.asNode(), RDF.type, Wp.Rna);
 								break;
 
 							case "Pathway":
-								datanodeRes.addProperty(RDF.type, Wp.Pathway);
+								Triples.add(graph, datanodeRes.asNode(), RDF.type, Wp.Pathway);
 								break;
 
 							case "Complex":
-								datanodeRes.addProperty(RDF.type, Wp.Complex);
+								Triples.add(graph, datanodeRes.asNode(), RDF.type, Wp.Complex);
 								break;
 
 							default:
@@ -133,8 +109,8 @@ public class DataNodeConvertor {
 						}
 						// FOAF URL
 						if (foafURL != null) {
-							Resource foafResource = model.createResource(foafURL);
-							datanodeRes.addProperty(FOAF.page, foafResource);
+							Resource foafResource = context.model.createResource(foafURL);
+							Triples.add(graph, datanodeRes.asNode(), FOAF.page, foafResource);
 						}
 
 						// references
@@ -142,13 +118,13 @@ public class DataNodeConvertor {
 							Xref citationXref = ref.getCitation().getXref();
 							String fullName = citationXref.getDataSource().getFullName();
 							if ("PubMed".equals(fullName) || "DOI".equals(fullName)) {
-								this.convertor.addCitation(model, datanodeRes, citationXref);
+								this.convertor.addCitation(context, datanodeRes, citationXref);
 							}
 						}
 
-						datanodeRes.addProperty(Wp.isAbout, model.createResource(this.domainName + "/Pathway/" + wpId + "_r" + revision + "/DataNode/" + elem.getElementId()));
-						datanodeRes.addLiteral(RDFS.label, elem.getTextLabel().replace("\n", " ").trim());
-						datanodeRes.addProperty(DCTerms.isPartOf, convertor.pwyRes);
+						Triples.add(graph, datanodeRes.asNode(), Wp.isAbout, Triples.uri(this.domainName + "/Pathway/" + context.wpId + "_r" + context.revision + "/DataNode/" + elem.getElementId()));
+						Triples.add(graph, datanodeRes.asNode(), RDFS.label, elem.getTextLabel().replace("\n", " ").trim());
+						Triples.add(graph, datanodeRes.asNode(), DCTerms.isPartOf, context.pwyRes);
 					}
 				}
 			}
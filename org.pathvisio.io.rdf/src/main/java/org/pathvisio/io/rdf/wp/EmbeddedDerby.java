@@ -0,0 +1,125 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.wp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.IDMapper;
+import org.bridgedb.IDMapperException;
+import org.bridgedb.Xref;
+import org.bridgedb.XrefIterator;
+
+/**
+ * Settings for reading the BridgeDb mapping files with the embedded Derby engine, taken
+ * from the same properties as {@link BridgeDbIDMapper#createBridgeDbMapper(Properties)}:
+ *
+ * <ul>
+ * <li><code>derbyembedded</code>: when true, the embedded Derby driver is loaded instead of
+ *   the network client driver. The <code>.bridge</code> files are zipped databases, which
+ *   Derby opens read-only.</li>
+ * <li><code>derbypagecache</code>: the number of pages Derby caches per database. The Derby
+ *   default of 1000 pages is far too small for the mapping databases. Defaults to
+ *   {@link #DEFAULT_PAGE_CACHE_SIZE} in embedded mode.</li>
+ * <li><code>derbywarmup</code>: the number of identifiers of each WPRDF target data source
+ *   to look up right after a mapping file is opened, to read the index pages the
+ *   conversion will need into the page cache.</li>
+ * </ul>
+ *
+ * The Derby properties are system properties, read when a database is opened, so
+ * {@link #configure(Properties)} must be called before the first mapping file is opened.
+ * Derby properties given on the command line, with <code>-D</code>, are kept.
+ */
+public class EmbeddedDerby {
+
+	public static final int DEFAULT_PAGE_CACHE_SIZE = 16000;
+
+	private static final String PAGE_CACHE_SIZE = "derby.storage.pageCacheSize";
+	private static final int CHUNK_SIZE = 1000;
+
+	private EmbeddedDerby() {}
+
+	public static boolean isEnabled(Properties prop) {
+		return Boolean.parseBoolean(prop.getProperty("derbyembedded"));
+	}
+
+	/**
+	 * Sets the Derby page cache size, and loads the embedded driver when embedded mode
+	 * is enabled.
+	 */
+	public static void configure(Properties prop) throws ClassNotFoundException {
+		String pageCacheSize = prop.getProperty("derbypagecache");
+		if (pageCacheSize == null && isEnabled(prop)) pageCacheSize = Integer.toString(DEFAULT_PAGE_CACHE_SIZE);
+		if (pageCacheSize != null && System.getProperty(PAGE_CACHE_SIZE) == null) {
+			System.setProperty(PAGE_CACHE_SIZE, Integer.toString(Integer.parseInt(pageCacheSize.trim())));
+		}
+		if (!isEnabled(prop)) return;
+		try {
+			Class.forName("org.apache.derby.jdbc.EmbeddedDriver");
+		} catch (ClassNotFoundException exception) {
+			// since Derby 10.15, the embedded driver class is in derbytools
+			Class.forName("org.apache.derby.iapi.jdbc.AutoloadedDriver");
+		}
+	}
+
+	/**
+	 * Returns the number of identifiers per target data source to warm up with,
+	 * or zero when no warm-up is configured.
+	 */
+	public static int warmUpSize(Properties prop) {
+		String size = prop.getProperty("derbywarmup");
+		return size == null ? 0 : Integer.parseInt(size.trim());
+	}
+
+	/**
+	 * Looks up at most the given number of identifiers of each WPRDF target data source
+	 * in the mapping database, in bulk, to all target data sources. Mappers that cannot
+	 * list their identifiers are not warmed up. Failures are printed, not thrown, because
+	 * the warm-up only makes later lookups faster.
+	 *
+	 * @return the number of identifiers looked up
+	 */
+	public static int warmUp(IDMapper mapper, int identifiersPerSource) {
+		if (identifiersPerSource <= 0 || !(mapper instanceof XrefIterator)) return 0;
+		List<DataSource> targets = new ArrayList<>();
+		for (String systemCode : BridgeDbIDMapper.TARGET_SYSTEM_CODES) {
+			if (DataSource.systemCodeExists(systemCode)) targets.add(DataSource.getExistingBySystemCode(systemCode));
+		}
+		DataSource[] targetArray = targets.toArray(new DataSource[0]);
+		int count = 0;
+		try {
+			for (DataSource source : targets) {
+				List<Xref> chunk = new ArrayList<>();
+				int sourceCount = 0;
+				for (Xref xref : ((XrefIterator)mapper).getIterator(source)) {
+					if (sourceCount++ == identifiersPerSource) break;
+					chunk.add(xref);
+					if (chunk.size() == CHUNK_SIZE) {
+						mapper.mapID(chunk, targetArray);
+						chunk.clear();
+					}
+				}
+				if (!chunk.isEmpty()) mapper.mapID(chunk, targetArray);
+				count += Math.min(sourceCount, identifiersPerSource);
+			}
+		} catch (IDMapperException exception) {
+			System.out.println("Could not warm up the mapping database: " + exception.getMessage());
+		}
+		return count;
+	}
+
+}
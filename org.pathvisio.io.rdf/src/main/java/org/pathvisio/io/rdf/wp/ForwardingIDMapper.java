@@ -0,0 +1,174 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.wp;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.IDMapper;
+import org.bridgedb.IDMapperCapabilities;
+import org.bridgedb.IDMapperException;
+import org.bridgedb.Xref;
+
+/**
+ * An {@link IDMapper} that passes every call to another mapper. Subclasses override
+ * the lookups they change. Mappers that keep results per identifier and target data
+ * source, like {@link CachingIDMapper}, answer lookups with
+ * {@link #mapPerTarget(Xref, DataSource[], TargetStore)} and
+ * {@link #mapPerTarget(Collection, DataSource, TargetStore)}, which only ask the
+ * wrapped mapper for what is not stored yet, with a single lookup.
+ */
+public abstract class ForwardingIDMapper implements IDMapper {
+
+	/**
+	 * The results of lookups, per identifier and target data source.
+	 */
+	protected interface TargetStore {
+
+		/**
+		 * Returns the stored result, or null if the lookup must go to the wrapped mapper.
+		 */
+		Set<Xref> get(Xref xref, DataSource target);
+
+		/**
+		 * Stores the result of a lookup by the wrapped mapper.
+		 */
+		void put(Xref xref, DataSource target, Set<Xref> mapped);
+
+	}
+
+	protected final IDMapper mapper;
+
+	protected ForwardingIDMapper(IDMapper mapper) {
+		this.mapper = mapper;
+	}
+
+	/**
+	 * Answers the targets that are in the store from the store, and looks up the
+	 * others with a single lookup, whose results are then stored per target. The
+	 * result is the union over the targets, like that of the wrapped mapper.
+	 */
+	protected final Set<Xref> mapPerTarget(Xref ref, DataSource[] tgtDataSources, TargetStore store) throws IDMapperException {
+		Map<DataSource, Set<Xref>> results = new HashMap<>();
+		List<DataSource> missing = new ArrayList<>();
+		for (DataSource target : tgtDataSources) {
+			Set<Xref> stored = store.get(ref, target);
+			if (stored != null) {
+				results.put(target, stored);
+			} else {
+				missing.add(target);
+			}
+		}
+		if (!missing.isEmpty()) {
+			Set<Xref> loaded = load(ref, missing.toArray(new DataSource[0]));
+			Map<DataSource, Set<Xref>> partitioned = BridgeDbIDMapper.partition(loaded, missing);
+			for (DataSource target : missing) {
+				Set<Xref> mapped = Collections.unmodifiableSet(partitioned.get(target));
+				store.put(ref, target, mapped);
+				results.put(target, mapped);
+			}
+		}
+		if (tgtDataSources.length == 1) return results.get(tgtDataSources[0]);
+		Set<Xref> mapped = new HashSet<>();
+		for (Set<Xref> targetMapped : results.values()) mapped.addAll(targetMapped);
+		return mapped;
+	}
+
+	/**
+	 * Answers the identifiers that are in the store from the store, and looks up the
+	 * others with a single bulk lookup, whose results are then stored too.
+	 */
+	protected final Map<Xref, Set<Xref>> mapPerTarget(Collection<Xref> srcXrefs, DataSource target, TargetStore store) throws IDMapperException {
+		Map<Xref, Set<Xref>> results = new HashMap<>();
+		List<Xref> missing = new ArrayList<>();
+		for (Xref xref : srcXrefs) {
+			Set<Xref> stored = store.get(xref, target);
+			if (stored != null) {
+				results.put(xref, stored);
+			} else {
+				missing.add(xref);
+			}
+		}
+		if (missing.isEmpty()) return results;
+
+		Map<Xref, Set<Xref>> loaded = load(missing, target);
+		for (Xref xref : missing) {
+			Set<Xref> mapped = loaded != null ? loaded.get(xref) : null;
+			mapped = mapped != null ? Collections.unmodifiableSet(mapped) : Collections.emptySet();
+			store.put(xref, target, mapped);
+			results.put(xref, mapped);
+		}
+		return results;
+	}
+
+	/**
+	 * Looks up what {@link #mapPerTarget(Xref, DataSource[], TargetStore)} did not find
+	 * in its store.
+	 */
+	protected Set<Xref> load(Xref ref, DataSource[] tgtDataSources) throws IDMapperException {
+		return mapper.mapID(ref, tgtDataSources);
+	}
+
+	/**
+	 * Looks up what {@link #mapPerTarget(Collection, DataSource, TargetStore)} did not
+	 * find in its store.
+	 */
+	protected Map<Xref, Set<Xref>> load(Collection<Xref> srcXrefs, DataSource target) throws IDMapperException {
+		return mapper.mapID(srcXrefs, target);
+	}
+
+	@Override
+	public Set<Xref> mapID(Xref ref, DataSource... tgtDataSources) throws IDMapperException {
+		return mapper.mapID(ref, tgtDataSources);
+	}
+
+	@Override
+	public Map<Xref, Set<Xref>> mapID(Collection<Xref> srcXrefs, DataSource... tgtDataSources) throws IDMapperException {
+		return mapper.mapID(srcXrefs, tgtDataSources);
+	}
+
+	@Override
+	public boolean xrefExists(Xref xref) throws IDMapperException {
+		return mapper.xrefExists(xref);
+	}
+
+	@Override
+	public Set<Xref> freeSearch(String text, int limit) throws IDMapperException {
+		return mapper.freeSearch(text, limit);
+	}
+
+	@Override
+	public IDMapperCapabilities getCapabilities() {
+		return mapper.getCapabilities();
+	}
+
+	@Override
+	public void close() throws IDMapperException {
+		mapper.close();
+	}
+
+	@Override
+	public boolean isConnected() {
+		return mapper.isConnected();
+	}
+
+}
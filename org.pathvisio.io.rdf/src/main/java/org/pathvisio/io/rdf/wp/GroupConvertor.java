@@ -18,7 +18,7 @@ package org.pathvisio.io.rdf.wp;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.apache.jena.rdf.model.Model;
+import org.apache.jena.graph.Graph;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.vocabulary.DC;
 import org.apache.jena.vocabulary.DCTerms;
@@ -26,6 +26,7 @@ import org.apache.jena.vocabulary.RDF;
 import org.apache.jena.vocabulary.RDFS;
 import org.bridgedb.Xref;
 import org.pathvisio.io.rdf.ontologies.Wp;
+import org.pathvisio.io.rdf.utils.Triples;
 import org.pathvisio.io.rdf.utils.Utils;
 import org.pathvisio.libgpml.model.DataNode;
 import org.pathvisio.libgpml.model.Group;
@@ -55,7 +56,8 @@ public class GroupConvertor {
 	 * conversion only WP vocabulary
 	 * semantic information about a complex group
 	 */
-	public void convertGroup(Group group, Model model, String wpId, String revision) {
+	public void convertGroup(Group group, ConversionContext context) {
+		Graph graph = context.graph;
 		DataNode embeddedComplexDataNode = null;
 		if(group.getType() == GroupType.COMPLEX) {
 			List<Resource> participants = new ArrayList<Resource>();
@@ -66,7 +68,7 @@ public class GroupConvertor {
 						// if it has a DataNode participant of @Type=Complex
 						embeddedComplexDataNode = node;
 					} else {
-						Resource r = this.convertor.datanodes.get(node.getElementId());
+						Resource r = context.datanodes.get(node.getElementId());
 						if(r != null) {
 							participants.add(r);
 						}
@@ -76,38 +78,37 @@ public class GroupConvertor {
 			// TODO: what about complexes with only one data node?
 			if(participants.size() > 1) {
 				String graphId = group.getElementId();
-				Resource groupRes = model.createResource(this.domainName + "/Pathway/" + wpId + "_r" + revision + "/Complex/" + graphId);
-				groupRes.addProperty(RDF.type, Wp.DataNode);
-				groupRes.addProperty(RDF.type, Wp.Complex);
-				groupRes.addProperty(Wp.isAbout, model.createResource(this.domainName + "/Pathway/" + wpId + "_r" + revision + "/Group/" + graphId));
-				groupRes.addProperty(DCTerms.isPartOf, this.convertor.pwyRes);
-				if(group.getTextLabel() != null && !group.getTextLabel().equals("")) groupRes.addLiteral(RDFS.label, group.getTextLabel().replace("\n", " "));
+				Resource groupRes = context.model.createResource(this.domainName + "/Pathway/" + context.wpId + "_r" + context.revision + "/Complex/" + graphId);
+				Triples.add(graph, groupRes.asNode(), RDF.type, Wp.DataNode);
+				Triples.add(graph, groupRes.asNode(), RDF.type, Wp.Complex);
+				Triples.add(graph, groupRes.asNode(), Wp.isAbout, Triples.uri(this.domainName + "/Pathway/" + context.wpId + "_r" + context.revision + "/Group/" + graphId));
+				Triples.add(graph, groupRes.asNode(), DCTerms.isPartOf, context.pwyRes);
+				if(group.getTextLabel() != null && !group.getTextLabel().equals("")) Triples.add(graph, groupRes.asNode(), RDFS.label, group.getTextLabel().replace("\n", " "));
 
-				Resource complexBinding = model.createResource(this.domainName + "/Pathway/" + wpId + "_r" + revision + "/ComplexBinding/" + graphId);
-				complexBinding.addProperty(RDF.type, Wp.Interaction);
-				complexBinding.addProperty(RDF.type, Wp.Binding);
-				complexBinding.addProperty(RDF.type, Wp.ComplexBinding);
-				complexBinding.addProperty(Wp.participants, groupRes);
-				complexBinding.addProperty(Wp.isAbout, model.createResource(this.domainName + "/Pathway/" + wpId + "_r" + revision + "/Group/" + graphId));
-				complexBinding.addProperty(DCTerms.isPartOf, this.convertor.pwyRes);
+				Resource complexBinding = context.model.createResource(this.domainName + "/Pathway/" + context.wpId + "_r" + context.revision + "/ComplexBinding/" + graphId);
+				Triples.add(graph, complexBinding.asNode(), RDF.type, Wp.Interaction);
+				Triples.add(graph, complexBinding.asNode(), RDF.type, Wp.Binding);
+				Triples.add(graph, complexBinding.asNode(), RDF.type, Wp.ComplexBinding);
+				Triples.add(graph, complexBinding.asNode(), Wp.participants, groupRes);
+				Triples.add(graph, complexBinding.asNode(), Wp.isAbout, Triples.uri(this.domainName + "/Pathway/" + context.wpId + "_r" + context.revision + "/Group/" + graphId));
+				Triples.add(graph, complexBinding.asNode(), DCTerms.isPartOf, context.pwyRes);
 				
 				for(Resource r : participants) {
-					groupRes.addProperty(Wp.participants, r);
-					complexBinding.addProperty(Wp.participants, r);
-					r.addProperty(DCTerms.isPartOf, groupRes);
+					Triples.add(graph, groupRes.asNode(), Wp.participants, r);
+					Triples.add(graph, complexBinding.asNode(), Wp.participants, r);
+					Triples.add(graph, r.asNode(), DCTerms.isPartOf, groupRes);
 				}
 				
 				// there is (potentially) one special participant
 				if (embeddedComplexDataNode != null) {
 					Xref idXref = embeddedComplexDataNode.getXref();
 					if (idXref != null && idXref.getId() != null && idXref.getId().trim().length() > 0) {
-						groupRes.addProperty(RDFS.label, embeddedComplexDataNode.getTextLabel());
+						Triples.add(graph, groupRes.asNode(), RDFS.label, embeddedComplexDataNode.getTextLabel());
 						if (idXref.getDataSource() != null) {
-							String idURL = idXref.getDataSource().getIdentifiersOrgUri(idXref.getId());
-							if (idURL != null) idURL = idURL.replace("http://identifiers", "https://identifiers");
-							groupRes.addProperty(DC.identifier, model.createResource(idURL));
-							groupRes.addLiteral(DC.source, idXref.getDataSource().getFullName());
-							groupRes.addLiteral(DCTerms.identifier, idXref.getId());
+							String idURL = IRINormalizer.identifiersOrgIRI(idXref.getDataSource(), idXref.getId());
+							Triples.add(graph, groupRes.asNode(), DC.identifier, context.model.createResource(idURL)); // a blank node if there is no identifiers.org IRI
+							Triples.add(graph, groupRes.asNode(), DC.source, idXref.getDataSource().getFullName());
+							Triples.add(graph, groupRes.asNode(), DCTerms.identifier, idXref.getId());
 						}
 					}
 				}
@@ -117,8 +118,8 @@ public class GroupConvertor {
 					Xref citationXref = ref.getCitation().getXref();
 					String fullName = citationXref.getDataSource().getFullName();
 					if ("PubMed".equals(fullName) || "DOI".equals(fullName)) {
-						this.convertor.addCitation(model, groupRes, citationXref);
-						this.convertor.addCitation(model, complexBinding, citationXref);
+						this.convertor.addCitation(context, groupRes, citationXref);
+						this.convertor.addCitation(context, complexBinding, citationXref);
 					}
 				}
 			}
@@ -0,0 +1,232 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.wp;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.Xref;
+
+/**
+ * Builds the IRIs of identifiers in the WPRDF: the DataNode IRIs, based on identifiers.org,
+ * and the IRIs of the identifiers BridgeDb maps metabolites to. The rules for the mapped
+ * identifiers come from {@link MappingTarget}, and each IRI is built in one pass over the
+ * identifier, without regular expressions. The same identifiers occur in many pathways,
+ * so the IRIs are memoised per data source; a memo that reaches {@link #MEMO_SIZE}
+ * entries is emptied.
+ */
+public class IRINormalizer {
+
+	static final int MEMO_SIZE = 50_000;
+
+	/**
+	 * The IRIs of a DataNode identifier.
+	 */
+	public static class DataNodeIRI {
+
+		/** The DataNode IRI, or null when the data source has no identifiers.org IRI. */
+		public final String iri;
+		/** The identifier, normalised like the IRI. */
+		public final String identifier;
+		/** The web page of the identifier at the data source, or null. */
+		public final String page;
+
+		DataNodeIRI(String iri, String identifier, String page) {
+			this.iri = iri;
+			this.identifier = identifier;
+			this.page = page;
+		}
+
+	}
+
+	// memoised values of one kind, for one data source
+	private static class Memo<V> {
+
+		private final Map<String, V> values = new ConcurrentHashMap<>();
+
+		V get(String identifier, Function<String, V> builder) {
+			V value = values.get(identifier);
+			if (value == null) {
+				if (values.size() >= MEMO_SIZE) values.clear();
+				value = builder.apply(identifier);
+				values.put(identifier, value);
+			}
+			return value;
+		}
+
+	}
+
+	// the memos of a data source BridgeDb maps to
+	private static class Target {
+
+		final String prefix;
+		final MappingTarget.Kind kind;
+		final Memo<String> sources = new Memo<>();
+		final Memo<String> mapped = new Memo<>();
+
+		Target(MappingTarget target) {
+			this.prefix = target.prefix;
+			this.kind = target.kind;
+		}
+
+	}
+
+	private static final Map<String, Target> TARGETS = new HashMap<>();
+	static {
+		for (MappingTarget target : MappingTarget.values()) {
+			// InChIKey IRIs are built by BridgeDbIDMapper
+			if (target.kind != MappingTarget.Kind.INCHIKEY) TARGETS.put(target.systemCode, new Target(target));
+		}
+	}
+
+	// the rules for the data source of a DataNode, filled when first used
+	private static class Source {
+
+		final DataSource dataSource;
+		final boolean hmdb;
+		final Memo<DataNodeIRI> dataNodes = new Memo<>();
+		final Memo<String> identifiersOrg = new Memo<>();
+
+		Source(DataSource dataSource) {
+			this.dataSource = dataSource;
+			this.hmdb = "HMDB".equals(dataSource.getFullName());
+		}
+
+	}
+
+	private static final Map<DataSource, Source> SOURCES = new ConcurrentHashMap<>();
+
+	// stands for null in the memos, which cannot hold null
+	private static final String NONE = new String();
+
+	private IRINormalizer() {}
+
+	/**
+	 * Returns the IRI of the mapped identifier for the given target system code, or null
+	 * when the system code is not a WPRDF target.
+	 */
+	public static String mappedIRI(String systemCode, String identifier) {
+		Target target = TARGETS.get(systemCode);
+		if (target == null) return null;
+		return target.mapped.get(identifier, id -> {
+			switch (target.kind) {
+			case CHEBI: return target.prefix + chebi(id);
+			// HMDBxxxxx -> HMDB00xxxxx
+			case HMDB: return target.prefix + (id.length() == 9 ? id.replace("HMDB", "HMDB00") : id);
+			case DOI: return target.prefix + URLEncoder.encode(id.toUpperCase(), StandardCharsets.UTF_8);
+			default: return target.prefix + URLEncoder.encode(id, StandardCharsets.UTF_8);
+			}
+		});
+	}
+
+	/**
+	 * Returns the IRI for the target system code of an identifier the DataNode already
+	 * has, which, unlike the mapped identifiers, is not URL-encoded, or null when the
+	 * system code is not a WPRDF target.
+	 */
+	public static String sourceIRI(String systemCode, String identifier) {
+		Target target = TARGETS.get(systemCode);
+		if (target == null) return null;
+		return target.sources.get(identifier, id -> target.kind == MappingTarget.Kind.CHEBI
+			? target.prefix + chebi(id) : target.prefix + underscores(id, false, false));
+	}
+
+	/**
+	 * Returns the IRIs of a DataNode identifier. The identifiers.org IRIs use https,
+	 * ChEBI IRIs get the CHEBI: prefix, spaces become underscores, and HMDB identifiers
+	 * are padded to the HMDB00xxxxx form.
+	 */
+	public static DataNodeIRI dataNode(Xref xref) {
+		Source source = source(xref.getDataSource());
+		return source.dataNodes.get(xref.getId(), id -> {
+			String page = source.dataSource.getKnownUrl(id);
+			if (page != null) page = underscores(page, false, true);
+			String identifier = id;
+			if (source.hmdb && id.length() != 11 && id.length() > 4) identifier = "HMDB00" + id.substring(4);
+			String url = identifiersOrg(source, identifier);
+			String iri = null;
+			if (url != null && !url.isEmpty()) {
+				iri = underscores(url, true, false);
+				if (!iri.contains("chebi/CHEBI:") && iri.contains("chebi")) iri = iri.replace("chebi/", "chebi/CHEBI:");
+			}
+			return new DataNodeIRI(iri, identifier, page);
+		});
+	}
+
+	/**
+	 * Returns the https identifiers.org IRI of the identifier, or null when the
+	 * data source has none.
+	 */
+	public static String identifiersOrgIRI(DataSource dataSource, String identifier) {
+		return identifiersOrg(source(dataSource), identifier);
+	}
+
+	/**
+	 * Forgets all memoised IRIs, for when data sources are registered again with other
+	 * identifiers.org or URL patterns.
+	 */
+	static void clear() {
+		SOURCES.clear();
+		for (Target target : TARGETS.values()) {
+			target.sources.values.clear();
+			target.mapped.values.clear();
+		}
+	}
+
+	private static Source source(DataSource dataSource) {
+		Source source = SOURCES.get(dataSource);
+		return source != null ? source : SOURCES.computeIfAbsent(dataSource, Source::new);
+	}
+
+	private static String identifiersOrg(Source source, String identifier) {
+		String iri = source.identifiersOrg.get(identifier, id -> {
+			String url = source.dataSource.getIdentifiersOrgUri(id);
+			return url == null ? NONE : url.replace("http://identifiers", "https://identifiers");
+		});
+		return iri == NONE ? null : iri;
+	}
+
+	private static String chebi(String identifier) {
+		return identifier.startsWith("CHEBI:") ? identifier : "CHEBI:" + identifier;
+	}
+
+	// replaces spaces with underscores, and optionally trims or removes tabs, in one pass
+	static String underscores(String text, boolean trim, boolean removeTabs) {
+		int start = 0;
+		int end = text.length();
+		if (trim) {
+			while (start < end && text.charAt(start) <= ' ') start++;
+			while (end > start && text.charAt(end - 1) <= ' ') end--;
+		}
+		StringBuilder result = null;
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			if (c != ' ' && !(removeTabs && c == '\t')) {
+				if (result != null) result.append(c);
+				continue;
+			}
+			if (result == null) result = new StringBuilder(end - start).append(text, start, i);
+			if (c == ' ') result.append('_');
+		}
+		if (result != null) return result.toString();
+		return start == 0 && end == text.length() ? text : text.substring(start, end);
+	}
+
+}
@@ -20,13 +20,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import org.apache.jena.rdf.model.Model;
+import org.apache.jena.graph.Graph;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.vocabulary.DCTerms;
 import org.apache.jena.vocabulary.RDF;
-import org.bridgedb.IDMapperStack;
+import org.bridgedb.IDMapper;
 import org.bridgedb.Xref;
 import org.pathvisio.io.rdf.ontologies.Wp;
+import org.pathvisio.io.rdf.utils.Triples;
 import org.pathvisio.io.rdf.utils.Utils;
 import org.pathvisio.libgpml.model.DataNode;
 import org.pathvisio.libgpml.model.GraphLink.LinkableTo;
@@ -48,14 +49,14 @@ import org.pathvisio.libgpml.model.type.ObjectType;
 public class InteractionConvertor {
 
 	String domainName;
-	IDMapperStack mapper;
+	IDMapper mapper;
 	Convertor convertor;
 	
 	protected InteractionConvertor(Convertor convertor, String domainName) {
 		this(convertor, domainName, null);
 	}
 	
-	protected InteractionConvertor(Convertor convertor, String domainName, IDMapperStack mapper) {
+	protected InteractionConvertor(Convertor convertor, String domainName, IDMapper mapper) {
 		this.convertor = convertor;
 		this.domainName = domainName;
 		this.mapper = mapper;
@@ -71,51 +72,25 @@ public class InteractionConvertor {
 	 * conversion only WP vocabulary
 	 * semantic information about interactions
 	 */
-	public void convertInteraction(Interaction interaction, Model model, String wpId, String revision) {
+	public void convertInteraction(Interaction interaction, ConversionContext context) {
+		Graph graph = context.graph;
 		// System.out.println("Interaction: " + interaction.getElementId());
-		if(pointingTowardsLine(interaction)) {
+		if(pointingTowardsLine(context, interaction)) {
 			System.out.println("pointing towards line. ignoring this interaction");
 		} else {
 			List<Interaction> participatingLines = new ArrayList<Interaction>();
 			participatingLines.add(interaction);
-			List<Interaction> regLines = new ArrayList<Interaction>();
-			
-			for (Anchor a : interaction.getAnchors()) {
-				// System.out.println("  anchor: " + a.getElementId());
-				for (Interaction currLine : this.convertor.pathway.getInteractions()) {
-					if (currLine.getObjectType().equals(ObjectType.INTERACTION)) {
-						if (currLine.getStartElementRef() != null) {
-							if(currLine.getStartElementRef().equals(a.getElementId())) {
-								if(currLine.getStartArrowHeadType().equals(ArrowHeadType.UNDIRECTED)) {
-									if(!participatingLines.contains(currLine)) participatingLines.add(currLine);
-								} else {
-									if(!regLines.contains(currLine)) regLines.add(currLine);
-								}
-							} 
-						}
-						if(currLine.getEndElementRef() != null) {
-							if(currLine.getEndElementRef().equals(a.getElementId())) {
-								if(currLine.getEndArrowHeadType().equals(ArrowHeadType.UNDIRECTED)) {
-									if(!participatingLines.contains(currLine)) participatingLines.add(currLine);
-								} else {
-									if(!regLines.contains(currLine)) regLines.add(currLine);
-								}
-							}
-						}
-					}
-				}
-			}
 
 			ArrowHeadType lt = getInteractionType(participatingLines);
 			// System.out.println("  line type: " + lt);
 			if (lt == null) {
 				System.out.println("WARNING - different line types in one interaction");
 			} else {
-				Resource intRes = createResource(model, wpId, revision, interaction);
-				String gpmlURL = this.domainName + "/Pathway/" + wpId + "_r" + revision
+				Resource intRes = createResource(context, interaction);
+				String gpmlURL = this.domainName + "/Pathway/" + context.wpId + "_r" + context.revision
 						+ "/Interaction/" + interaction.getElementId();
-				Resource gpmlRes = model.createResource(gpmlURL);
-				Map<types, List<PathwayObject>> participants = getParticipants(intRes, participatingLines, lt);
+				Resource gpmlRes = context.model.createResource(gpmlURL);
+				Map<types, List<PathwayObject>> participants = getParticipants(context, intRes, participatingLines, lt);
 				int datanodeCount = getDataNodeCount(participants, ObjectType.DATANODE);
 				// System.out.println("  node count: " + datanodeCount);
 				int groupCount = getDataNodeCount(participants, ObjectType.GROUP);
@@ -125,34 +100,34 @@ public class InteractionConvertor {
 					// totally unsupported at this moment
 				} else if (lt.equals(ArrowHeadType.CATALYSIS)) {
 					if (datanodeCount > 0) {
-						intRes.addProperty(RDF.type, Wp.DirectedInteraction);
-						intRes.addProperty(RDF.type, Wp.Catalysis);
-						intRes.addProperty(RDF.type, Wp.Interaction);
-						intRes.addProperty(DCTerms.isPartOf, convertor.pwyRes);
-						intRes.addProperty(Wp.isAbout, gpmlRes);
+						Triples.add(graph, intRes.asNode(), RDF.type, Wp.DirectedInteraction);
+						Triples.add(graph, intRes.asNode(), RDF.type, Wp.Catalysis);
+						Triples.add(graph, intRes.asNode(), RDF.type, Wp.Interaction);
+						Triples.add(graph, intRes.asNode(), DCTerms.isPartOf, context.pwyRes);
+						Triples.add(graph, intRes.asNode(), Wp.isAbout, gpmlRes);
 						for (PathwayObject node : participants.get(types.SOURCE)) {
-							Resource nodeRes = getResourceForID(model, wpId, revision, node.getElementId());
+							Resource nodeRes = getResourceForID(context, node.getElementId());
 							if (nodeRes != null) {
-								intRes.addProperty(Wp.source, nodeRes);
-								intRes.addProperty(Wp.participants, nodeRes);
-								nodeRes.addProperty(DCTerms.isPartOf, intRes);
+								Triples.add(graph, intRes.asNode(), Wp.source, nodeRes);
+								Triples.add(graph, intRes.asNode(), Wp.participants, nodeRes);
+								Triples.add(graph, nodeRes.asNode(), DCTerms.isPartOf, intRes);
 								addReferences = true;
 							}
 						}
 						for (PathwayObject node : participants.get(types.TARGET)) {
-							Resource nodeRes = getResourceForID(model, wpId, revision, node.getElementId());
+							Resource nodeRes = getResourceForID(context, node.getElementId());
 							if (nodeRes != null) {
-								intRes.addProperty(Wp.target, nodeRes);
-								intRes.addProperty(Wp.participants, nodeRes);
-								nodeRes.addProperty(DCTerms.isPartOf, intRes);
+								Triples.add(graph, intRes.asNode(), Wp.target, nodeRes);
+								Triples.add(graph, intRes.asNode(), Wp.participants, nodeRes);
+								Triples.add(graph, nodeRes.asNode(), DCTerms.isPartOf, intRes);
 								addReferences = true;
 							}
 						}
 						for (PathwayObject node : participants.get(types.OTHER)) {
-							Resource nodeRes = getResourceForID(model, wpId, revision, node.getElementId());
+							Resource nodeRes = getResourceForID(context, node.getElementId());
 							if (nodeRes != null) {
-								intRes.addProperty(Wp.participants, nodeRes);
-								nodeRes.addProperty(DCTerms.isPartOf, intRes);
+								Triples.add(graph, intRes.asNode(), Wp.participants, nodeRes);
+								Triples.add(graph, nodeRes.asNode(), DCTerms.isPartOf, intRes);
 								addReferences = true;
 							}
 						}
@@ -165,65 +140,65 @@ public class InteractionConvertor {
 						   lt.equals(ArrowHeadType.TRANSLOCATION) ||
 						   lt.equals(ArrowHeadType.TRANSCRIPTION_TRANSLATION)) {
 					if (datanodeCount > 0) {
-						intRes.addProperty(RDF.type, Wp.Interaction);
-						intRes.addProperty(DCTerms.isPartOf, convertor.pwyRes);
-						intRes.addProperty(RDF.type, Wp.DirectedInteraction);
-						intRes.addProperty(Wp.isAbout, gpmlRes);
-						if (lt.equals(ArrowHeadType.BINDING)) intRes.addProperty(RDF.type, Wp.Binding);
-						if (lt.equals(ArrowHeadType.CONVERSION)) intRes.addProperty(RDF.type, Wp.Conversion);
-						if (lt.equals(ArrowHeadType.INHIBITION)) intRes.addProperty(RDF.type, Wp.Inhibition);
-						if (lt.equals(ArrowHeadType.STIMULATION)) intRes.addProperty(RDF.type, Wp.Stimulation);
-						if (lt.equals(ArrowHeadType.TRANSLOCATION)) intRes.addProperty(RDF.type, Wp.Translocation);
-						if (lt.equals(ArrowHeadType.TRANSCRIPTION_TRANSLATION)) intRes.addProperty(RDF.type, Wp.TranscriptionTranslation);
+						Triples.add(graph, intRes.asNode(), RDF.type, Wp.Interaction);
+						Triples.add(graph, intRes.asNode(), DCTerms.isPartOf, context.pwyRes);
+						Triples.add(graph, intRes.asNode(), RDF.type, Wp.DirectedInteraction);
+						Triples.add(graph, intRes.asNode(), Wp.isAbout, gpmlRes);
+						if (lt.equals(ArrowHeadType.BINDING)) Triples.add(graph, intRes.asNode(), RDF.type, Wp.Binding);
+						if (lt.equals(ArrowHeadType.CONVERSION)) Triples.add(graph, intRes.asNode(), RDF.type, Wp.Conversion);
+						if (lt.equals(ArrowHeadType.INHIBITION)) Triples.add(graph, intRes.asNode(), RDF.type, Wp.Inhibition);
+						if (lt.equals(ArrowHeadType.STIMULATION)) Triples.add(graph, intRes.asNode(), RDF.type, Wp.Stimulation);
+						if (lt.equals(ArrowHeadType.TRANSLOCATION)) Triples.add(graph, intRes.asNode(), RDF.type, Wp.Translocation);
+						if (lt.equals(ArrowHeadType.TRANSCRIPTION_TRANSLATION)) Triples.add(graph, intRes.asNode(), RDF.type, Wp.TranscriptionTranslation);
 						for (PathwayObject node : participants.get(types.SOURCE)) {
-							Resource nodeRes = getResourceForID(model, wpId, revision, node.getElementId());
+							Resource nodeRes = getResourceForID(context, node.getElementId());
 							if (nodeRes != null) {
-								intRes.addProperty(Wp.source, nodeRes);
-								intRes.addProperty(Wp.participants, nodeRes);
-								nodeRes.addProperty(DCTerms.isPartOf, intRes);
+								Triples.add(graph, intRes.asNode(), Wp.source, nodeRes);
+								Triples.add(graph, intRes.asNode(), Wp.participants, nodeRes);
+								Triples.add(graph, nodeRes.asNode(), DCTerms.isPartOf, intRes);
 								addReferences = true;
 							}
 						}
 						for (PathwayObject node : participants.get(types.TARGET)) {
-							Resource nodeRes = getResourceForID(model, wpId, revision, node.getElementId());
+							Resource nodeRes = getResourceForID(context, node.getElementId());
 							if (nodeRes != null) {
-								intRes.addProperty(Wp.target, nodeRes);
-								intRes.addProperty(Wp.participants, nodeRes);
-								nodeRes.addProperty(DCTerms.isPartOf, intRes);
+								Triples.add(graph, intRes.asNode(), Wp.target, nodeRes);
+								Triples.add(graph, intRes.asNode(), Wp.participants, nodeRes);
+								Triples.add(graph, nodeRes.asNode(), DCTerms.isPartOf, intRes);
 								addReferences = true;
 							}
 						}
 						for (PathwayObject node : participants.get(types.OTHER)) {
-							Resource nodeRes = getResourceForID(model, wpId, revision, node.getElementId());
+							Resource nodeRes = getResourceForID(context, node.getElementId());
 							if (nodeRes != null) {
-								intRes.addProperty(Wp.participants, nodeRes);
-								nodeRes.addProperty(DCTerms.isPartOf, intRes);
+								Triples.add(graph, intRes.asNode(), Wp.participants, nodeRes);
+								Triples.add(graph, nodeRes.asNode(), DCTerms.isPartOf, intRes);
 								addReferences = true;
 							}
 						}
 					}
 				} else if (lt.equals(ArrowHeadType.UNDIRECTED)) {
 					if (datanodeCount > 0) {
-						intRes.addProperty(RDF.type, Wp.Interaction);
-						intRes.addProperty(DCTerms.isPartOf, convertor.pwyRes);
-						intRes.addProperty(Wp.isAbout, gpmlRes);
+						Triples.add(graph, intRes.asNode(), RDF.type, Wp.Interaction);
+						Triples.add(graph, intRes.asNode(), DCTerms.isPartOf, context.pwyRes);
+						Triples.add(graph, intRes.asNode(), Wp.isAbout, gpmlRes);
 						for (PathwayObject node : participants.get(types.SOURCE)) {
-							Resource nodeRes = getResourceForID(model, wpId, revision, node.getElementId());
-							intRes.addProperty(Wp.participants, nodeRes);
-							nodeRes.addProperty(DCTerms.isPartOf, intRes);
+							Resource nodeRes = getResourceForID(context, node.getElementId());
+							Triples.add(graph, intRes.asNode(), Wp.participants, nodeRes);
+							Triples.add(graph, nodeRes.asNode(), DCTerms.isPartOf, intRes);
 							addReferences = true;
 						}
 						for (PathwayObject node : participants.get(types.TARGET)) {
-							Resource nodeRes = getResourceForID(model, wpId, revision, node.getElementId());
-							intRes.addProperty(Wp.participants, nodeRes);
-							nodeRes.addProperty(DCTerms.isPartOf, intRes);
+							Resource nodeRes = getResourceForID(context, node.getElementId());
+							Triples.add(graph, intRes.asNode(), Wp.participants, nodeRes);
+							Triples.add(graph, nodeRes.asNode(), DCTerms.isPartOf, intRes);
 							addReferences = true;
 						}
 						for (PathwayObject node : participants.get(types.OTHER)) {
-							Resource nodeRes = getResourceForID(model, wpId, revision, node.getElementId());
+							Resource nodeRes = getResourceForID(context, node.getElementId());
 							if (nodeRes != null) {
-								intRes.addProperty(Wp.participants, nodeRes);
-								nodeRes.addProperty(DCTerms.isPartOf, intRes);
+								Triples.add(graph, intRes.asNode(), Wp.participants, nodeRes);
+								Triples.add(graph, nodeRes.asNode(), DCTerms.isPartOf, intRes);
 								addReferences = true;
 							}
 						}
@@ -236,7 +211,7 @@ public class InteractionConvertor {
 						Xref citationXref = ref.getCitation().getXref();
 						String fullName = citationXref.getDataSource().getFullName();
 						if ("PubMed".equals(fullName) || "DOI".equals(fullName)) {
-							this.convertor.addCitation(model, intRes, citationXref);
+							this.convertor.addCitation(context, intRes, citationXref);
 						}
 					}
 				}
@@ -255,25 +230,21 @@ public class InteractionConvertor {
 		return count;
 	}
 
-	private Resource createResource(Model model, String wpId, String revision, Interaction interaction) {
-		String url = this.domainName + "/Pathway/" + wpId + "_r" + revision
+	private Resource createResource(ConversionContext context, Interaction interaction) {
+		String url = this.domainName + "/Pathway/" + context.wpId + "_r" + context.revision
 				+ "/WP/Interaction/" + interaction.getElementId();
-		return model.createResource(url);
+		return context.model.createResource(url);
 	}
 
-	private Resource getResourceForID(Model model, String wpId, String revision, String elementId) {
-		Resource res = this.convertor.datanodes.get(elementId);
+	private Resource getResourceForID(ConversionContext context, String elementId) {
+		Resource res = context.datanodes.get(elementId);
 		if (res != null) return res;
 		// maybe an interaction?
-		for (Interaction interaction : convertor.pathway.getInteractions()) {
-			if (interaction.getElementId().equals(elementId)) {
-				return createResource(model, wpId, revision, interaction);
-			}
-		}
-		return null;
+		Interaction interaction = context.connectivity.getInteraction(elementId);
+		return interaction != null ? createResource(context, interaction) : null;
 	}
 
-	private Map<types, List<PathwayObject>> getParticipants(Resource intRes, List<Interaction> participatingLines, ArrowHeadType overallType) {
+	private Map<types, List<PathwayObject>> getParticipants(ConversionContext context, Resource intRes, List<Interaction> participatingLines, ArrowHeadType overallType) {
 		List<PathwayObject> sources = new ArrayList<>();
 		List<PathwayObject> targets = new ArrayList<>();
 		List<PathwayObject> others = new ArrayList<>();
@@ -283,7 +254,7 @@ public class InteractionConvertor {
 			LinkableTo start = interaction.getStartElementRef();
 			if (start != null) {
 				// System.out.println("    start: " + start.getElementId());
-				PathwayObject pwObj = convertor.pathway.getPathwayObject(start.getElementId());
+				PathwayObject pwObj = context.pathway.getPathwayObject(start.getElementId());
 				// System.out.println("      type: " + pwObj.getObjectType());
 				if (pwObj instanceof Group || pwObj instanceof DataNode || pwObj instanceof Interaction) {
 					// System.out.println("      node: " + pwObj);
@@ -307,10 +278,10 @@ public class InteractionConvertor {
 			LinkableTo end = interaction.getEndElementRef();
 			if (end != null) {
 				// System.out.println("    end: " + end.getElementId());
-				PathwayObject pwObj = convertor.pathway.getPathwayObject(end.getElementId());
+				PathwayObject pwObj = context.pathway.getPathwayObject(end.getElementId());
 				// System.out.println("      type: " + pwObj.getObjectType());
 				if (pwObj instanceof Anchor) {
-					Interaction targetInternation = getInteractionWithAnchor((Anchor)pwObj);
+					Interaction targetInternation = getInteractionWithAnchor(context, (Anchor)pwObj);
 					if (targetInternation != null) {
 						// System.out.println("      node: " + targetInternation);
 						if (overallType == ArrowHeadType.UNDIRECTED) {
@@ -357,18 +328,15 @@ public class InteractionConvertor {
 	}
 
 	// Returns the Interaction of which the given anchor is part.
-	private Interaction getInteractionWithAnchor(Anchor anchor) {
-		for (Interaction interaction : convertor.pathway.getInteractions()) {
-			if (interaction.hasAnchor(anchor)) return interaction;
-		}
-		return null;
+	private Interaction getInteractionWithAnchor(ConversionContext context, Anchor anchor) {
+		return context.connectivity.getInteractionWithAnchor(anchor);
 	}
 	
 	// check if line is pointing towards another line - will be handled with baseline
-	private boolean pointingTowardsLine(Interaction interaction) {
+	private boolean pointingTowardsLine(ConversionContext context, Interaction interaction) {
 		boolean ignore = false;
 		if(interaction.getStartElementRef() != null) {
-			PathwayObject elem = this.convertor.pathway.getPathwayObject(interaction.getStartElementRef().getElementId());
+			PathwayObject elem = context.pathway.getPathwayObject(interaction.getStartElementRef().getElementId());
 			if(elem == null) {
 				// TODO: it is an anchor / hopefully? bug?
 				// ignore line
@@ -376,7 +344,7 @@ public class InteractionConvertor {
 			}
 		}	
 		if(interaction.getEndElementRef() != null) {
-			PathwayObject elem = this.convertor.pathway.getPathwayObject(interaction.getEndElementRef().getElementId());
+			PathwayObject elem = context.pathway.getPathwayObject(interaction.getEndElementRef().getElementId());
 			if(elem == null) {
 				// TODO: it is an anchor / hopefully? bug?
 				// ignore line
@@ -0,0 +1,239 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.wp;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the BridgeDb lookups per target system code and per mapper, for example per
+ * <code>.bridge</code> file, as recorded by {@link MeteredIDMapper}s: the number of
+ * queries, of identifiers looked up, of mapped identifiers, of identifiers that mapped to
+ * nothing, of failed queries, and a histogram of the query latencies. A query with several
+ * targets counts for each of them, but its latency is only recorded for the mapper, unless
+ * the {@link MeteredIDMapper} times each target separately.
+ *
+ * <p>Use {@link #getTargets()} and {@link #getMappers()} to decide which targets to cache,
+ * precompute or drop, or print {@link #getReport()}.
+ */
+public class MappingMetrics {
+
+	/**
+	 * The upper bounds of the latency histogram buckets, in microseconds. The last
+	 * bucket, for slower queries, has no upper bound.
+	 */
+	public static final long[] LATENCY_BUCKETS_MICROS = {
+		100, 500, 1_000, 5_000, 10_000, 50_000, 100_000, 500_000, 1_000_000
+	};
+
+	private static final MappingMetrics DEFAULT = new MappingMetrics();
+
+	/**
+	 * A snapshot of the metrics of one target system code or mapper.
+	 */
+	public static class Stats {
+
+		public final String name;
+		public final long queries;
+		public final long lookups;
+		public final long results;
+		public final long emptyResults;
+		public final long errors;
+		/** The number of queries of which the latency was recorded. */
+		public final long timedQueries;
+		public final long totalNanos;
+		/** The number of timed queries per bucket of {@link MappingMetrics#LATENCY_BUCKETS_MICROS}. */
+		public final long[] latencyHistogram;
+
+		Stats(String name, long queries, long lookups, long results, long emptyResults, long errors,
+				long timedQueries, long totalNanos, long[] latencyHistogram) {
+			this.name = name;
+			this.queries = queries;
+			this.lookups = lookups;
+			this.results = results;
+			this.emptyResults = emptyResults;
+			this.errors = errors;
+			this.timedQueries = timedQueries;
+			this.totalNanos = totalNanos;
+			this.latencyHistogram = latencyHistogram;
+		}
+
+		public double meanLatencyMillis() {
+			return timedQueries == 0 ? 0.0 : totalNanos / 1e6 / timedQueries;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder string = new StringBuilder(String.format(
+				"%s: %d queries, %d lookups, %d results, %d empty, %d errors",
+				name, queries, lookups, results, emptyResults, errors));
+			if (timedQueries == 0) return string.toString();
+			if (timedQueries < queries) string.append(String.format(", %d timed", timedQueries));
+			string.append(String.format(", %.1f ms (mean %.3f ms)", totalNanos / 1e6, meanLatencyMillis()));
+			String separator = ", latency ";
+			for (int i = 0; i < latencyHistogram.length; i++) {
+				if (latencyHistogram[i] == 0) continue;
+				string.append(separator);
+				separator = ", ";
+				string.append(i < LATENCY_BUCKETS_MICROS.length
+					? String.format("<=%sms: ", millis(LATENCY_BUCKETS_MICROS[i]))
+					: String.format(">%sms: ", millis(LATENCY_BUCKETS_MICROS[i - 1])));
+				string.append(latencyHistogram[i]);
+			}
+			return string.toString();
+		}
+
+		private static String millis(long micros) {
+			return micros % 1000 == 0 ? Long.toString(micros / 1000) : Double.toString(micros / 1000.0);
+		}
+
+	}
+
+	// the counters of one target system code or mapper
+	private static class Counters {
+
+		final LongAdder queries = new LongAdder();
+		final LongAdder lookups = new LongAdder();
+		final LongAdder results = new LongAdder();
+		final LongAdder emptyResults = new LongAdder();
+		final LongAdder errors = new LongAdder();
+		final LongAdder timedQueries = new LongAdder();
+		final LongAdder totalNanos = new LongAdder();
+		final LongAdder[] histogram = new LongAdder[LATENCY_BUCKETS_MICROS.length + 1];
+
+		Counters() {
+			for (int i = 0; i < histogram.length; i++) histogram[i] = new LongAdder();
+		}
+
+		void record(int lookups, int results, int emptyResults) {
+			this.queries.increment();
+			this.lookups.add(lookups);
+			this.results.add(results);
+			this.emptyResults.add(emptyResults);
+		}
+
+		void record(int lookups, int results, int emptyResults, long nanos) {
+			record(lookups, results, emptyResults);
+			this.timedQueries.increment();
+			this.totalNanos.add(nanos);
+			long micros = nanos / 1000;
+			int bucket = 0;
+			while (bucket < LATENCY_BUCKETS_MICROS.length && micros > LATENCY_BUCKETS_MICROS[bucket]) bucket++;
+			histogram[bucket].increment();
+		}
+
+		Stats snapshot(String name) {
+			long[] latencyHistogram = new long[histogram.length];
+			for (int i = 0; i < histogram.length; i++) latencyHistogram[i] = histogram[i].sum();
+			return new Stats(name, queries.sum(), lookups.sum(), results.sum(), emptyResults.sum(),
+				errors.sum(), timedQueries.sum(), totalNanos.sum(), latencyHistogram);
+		}
+
+	}
+
+	private final Map<String, Counters> targets = new ConcurrentHashMap<>();
+	private final Map<String, Counters> mappers = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the metrics the mappers of {@link BridgeDbIDMapper} record into when the
+	 * mappingmetrics property is true.
+	 */
+	public static MappingMetrics getDefault() {
+		return DEFAULT;
+	}
+
+	private static Counters counters(Map<String, Counters> map, String name) {
+		Counters counters = map.get(name);
+		return counters != null ? counters : map.computeIfAbsent(name, key -> new Counters());
+	}
+
+	void recordTarget(String systemCode, int lookups, int results, int emptyResults, long nanos) {
+		counters(targets, systemCode).record(lookups, results, emptyResults, nanos);
+	}
+
+	// a query of which the latency is recorded for the mapper only
+	void recordTarget(String systemCode, int lookups, int results, int emptyResults) {
+		counters(targets, systemCode).record(lookups, results, emptyResults);
+	}
+
+	void recordMapper(String mapper, int lookups, int results, int emptyResults, long nanos) {
+		counters(mappers, mapper).record(lookups, results, emptyResults, nanos);
+	}
+
+	void recordError(String mapper, String[] systemCodes) {
+		counters(mappers, mapper).errors.increment();
+		for (String systemCode : systemCodes) counters(targets, systemCode).errors.increment();
+	}
+
+	/**
+	 * Returns the metrics of the target system code, or null when nothing was mapped to it.
+	 */
+	public Stats getTarget(String systemCode) {
+		Counters counters = targets.get(systemCode);
+		return counters != null ? counters.snapshot(systemCode) : null;
+	}
+
+	/**
+	 * Returns the metrics of the named mapper, or null when it was not used.
+	 */
+	public Stats getMapper(String name) {
+		Counters counters = mappers.get(name);
+		return counters != null ? counters.snapshot(name) : null;
+	}
+
+	/**
+	 * Returns the metrics of all target system codes, sorted by system code.
+	 */
+	public Map<String, Stats> getTargets() {
+		return snapshot(targets);
+	}
+
+	/**
+	 * Returns the metrics of all mappers, sorted by name.
+	 */
+	public Map<String, Stats> getMappers() {
+		return snapshot(mappers);
+	}
+
+	private static Map<String, Stats> snapshot(Map<String, Counters> map) {
+		Map<String, Stats> stats = new TreeMap<>();
+		for (Map.Entry<String, Counters> counters : map.entrySet()) {
+			stats.put(counters.getKey(), counters.getValue().snapshot(counters.getKey()));
+		}
+		return stats;
+	}
+
+	/**
+	 * Returns the metrics of all target system codes and mappers, one per line.
+	 */
+	public String getReport() {
+		StringBuilder report = new StringBuilder("Mapping metrics per target:\n");
+		for (Stats stats : getTargets().values()) report.append("  ").append(stats).append('\n');
+		report.append("Mapping metrics per mapper:\n");
+		for (Stats stats : getMappers().values()) report.append("  ").append(stats).append('\n');
+		return report.toString();
+	}
+
+	/**
+	 * Sets all metrics back to zero.
+	 */
+	public void reset() {
+		targets.clear();
+		mappers.clear();
+	}
+
+}
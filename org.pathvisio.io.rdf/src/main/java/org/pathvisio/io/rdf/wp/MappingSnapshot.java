@@ -0,0 +1,396 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.wp;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.IDMapper;
+import org.bridgedb.IDMapperCapabilities;
+import org.bridgedb.IDMapperException;
+import org.bridgedb.IDMapperStack;
+import org.bridgedb.Xref;
+import org.bridgedb.XrefIterator;
+
+/**
+ * A read-only {@link IDMapper} backed by a snapshot of the BridgeDb mappings to the
+ * data sources that {@link BridgeDbIDMapper#getUnifiedIdentifiers} uses. The snapshot is
+ * compiled once from the <code>.bridge</code> files with {@link #compile}, and is then
+ * memory-mapped by {@link #open}, so that a conversion does not need to start Derby.
+ * Lookups are binary searches in the mapped file.
+ *
+ * <p>The file starts with a header and the system codes of the data sources, followed by
+ * three tables of big-endian integers: the source identifiers, sorted by data source and
+ * identifier, each with the range of its mappings; the mappings, sorted by data source
+ * and identifier; and the offsets of all identifiers in the identifier dictionary, which
+ * holds each distinct identifier once, in UTF-8, sorted. Identifiers in the tables are
+ * positions in the dictionary, and data sources are positions in the list of system
+ * codes. A snapshot must be smaller than 2 GB.
+ */
+public class MappingSnapshot implements IDMapper {
+
+	private static final byte[] MAGIC = "WPMAPSN1".getBytes(StandardCharsets.US_ASCII);
+	private static final int SOURCE_SIZE = 16; // data source, identifier, first mapping, mapping count
+	private static final int MAPPING_SIZE = 8; // data source, identifier
+	private static final int CHUNK_SIZE = 1000;
+
+	private final File file;
+	private final ByteBuffer buffer;
+	private final DataSource[] dataSources;
+	private final Map<DataSource, Integer> dataSourceIndex = new HashMap<>();
+	private final int sourceCount;
+	private final int identifierCount;
+	private final int sourceStart;
+	private final int mappingStart;
+	private final int offsetStart;
+	private final int dictionaryStart;
+	private boolean connected = true;
+
+	private MappingSnapshot(File file, ByteBuffer buffer) throws IOException {
+		this.file = file;
+		this.buffer = buffer;
+		byte[] magic = bytes(0, MAGIC.length);
+		if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not a mapping snapshot: " + file);
+		int position = MAGIC.length;
+		int dataSourceCount = buffer.getInt(position);
+		identifierCount = buffer.getInt(position + 4);
+		sourceCount = buffer.getInt(position + 8);
+		int mappingCount = buffer.getInt(position + 12);
+		position += 16;
+		dataSources = new DataSource[dataSourceCount];
+		for (int i = 0; i < dataSourceCount; i++) {
+			int length = buffer.getShort(position) & 0xFFFF;
+			byte[] code = bytes(position + 2, length);
+			position += 2 + length;
+			String systemCode = new String(code, StandardCharsets.UTF_8);
+			if (DataSource.systemCodeExists(systemCode)) {
+				dataSources[i] = DataSource.getExistingBySystemCode(systemCode);
+				dataSourceIndex.put(dataSources[i], i);
+			} else {
+				System.out.println("Unknown system code in mapping snapshot (data sources not loaded?): " + systemCode);
+			}
+		}
+		sourceStart = position;
+		mappingStart = sourceStart + sourceCount * SOURCE_SIZE;
+		offsetStart = mappingStart + mappingCount * MAPPING_SIZE;
+		dictionaryStart = offsetStart + (identifierCount + 1) * 4;
+	}
+
+	/**
+	 * Memory-maps a snapshot made with {@link #compile}. The data sources must have been
+	 * registered before, for example with <code>DataSourceTxt.init()</code>.
+	 */
+	public static MappingSnapshot open(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) throw new IOException("Mapping snapshot larger than 2 GB: " + file);
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new MappingSnapshot(file, buffer);
+		}
+	}
+
+	/**
+	 * Compiles a snapshot of the mappings of all identifiers in the databases of the stack
+	 * to the data sources in {@link BridgeDbIDMapper#TARGET_SYSTEM_CODES}. The identifiers
+	 * are looked up through the whole stack, as a conversion would, in bulk. Only mappers
+	 * that can list their identifiers can be compiled; for the <code>.bridge</code> files
+	 * this is the case. This reads all mappings into memory first, so give the JVM enough
+	 * heap for the databases in the stack.
+	 */
+	public static void compile(IDMapperStack stack, File output) throws IDMapperException, IOException {
+		List<DataSource> targets = new ArrayList<>();
+		for (String systemCode : BridgeDbIDMapper.TARGET_SYSTEM_CODES) {
+			if (DataSource.systemCodeExists(systemCode)) targets.add(DataSource.getExistingBySystemCode(systemCode));
+		}
+
+		// source system code -> source identifier -> mapped "code\tid"; sorted, which fixes the file order
+		TreeMap<String, TreeMap<String, TreeSet<String>>> mappings = new TreeMap<>();
+		Set<Xref> seen = new HashSet<>();
+		List<Xref> chunk = new ArrayList<>();
+		for (int i = 0; i < stack.getSize(); i++) {
+			IDMapper mapper = stack.getIDMapperAt(i);
+			if (!(mapper instanceof XrefIterator)) {
+				throw new IDMapperException("Cannot list the identifiers of mapper " + i + " to compile them: " + mapper);
+			}
+			for (Xref xref : ((XrefIterator)mapper).getIterator()) {
+				if (xref.getDataSource() == null || xref.getDataSource().getSystemCode() == null) continue;
+				if (!seen.add(xref)) continue;
+				chunk.add(xref);
+				if (chunk.size() == CHUNK_SIZE) {
+					collect(stack, chunk, targets, mappings);
+					chunk.clear();
+				}
+			}
+		}
+		collect(stack, chunk, targets, mappings);
+		write(mappings, output);
+	}
+
+	private static void collect(IDMapper stack, List<Xref> chunk, List<DataSource> targets,
+			TreeMap<String, TreeMap<String, TreeSet<String>>> mappings) throws IDMapperException {
+		if (chunk.isEmpty()) return;
+		for (DataSource target : targets) {
+			Map<Xref, Set<Xref>> results = stack.mapID(chunk, target);
+			if (results == null) continue;
+			for (Map.Entry<Xref, Set<Xref>> result : results.entrySet()) {
+				Xref source = result.getKey();
+				for (Xref mapped : result.getValue()) {
+					if (mapped.getDataSource() == null || mapped.getDataSource().getSystemCode() == null) continue;
+					mappings.computeIfAbsent(source.getDataSource().getSystemCode(), code -> new TreeMap<>())
+						.computeIfAbsent(source.getId(), id -> new TreeSet<>())
+						.add(mapped.getDataSource().getSystemCode() + "\t" + mapped.getId());
+				}
+			}
+		}
+	}
+
+	private static void write(TreeMap<String, TreeMap<String, TreeSet<String>>> mappings, File output) throws IOException {
+		TreeSet<String> codeSet = new TreeSet<>(mappings.keySet());
+		TreeSet<String> identifierSet = new TreeSet<>();
+		int sourceCount = 0;
+		int mappingCount = 0;
+		for (TreeMap<String, TreeSet<String>> sources : mappings.values()) {
+			identifierSet.addAll(sources.keySet());
+			sourceCount += sources.size();
+			for (TreeSet<String> targets : sources.values()) {
+				mappingCount += targets.size();
+				for (String target : targets) {
+					int tab = target.indexOf('\t');
+					codeSet.add(target.substring(0, tab));
+					identifierSet.add(target.substring(tab + 1));
+				}
+			}
+		}
+		List<String> codes = new ArrayList<>(codeSet);
+		Map<String, Integer> codeIndex = new HashMap<>();
+		for (String code : codes) codeIndex.put(code, codeIndex.size());
+		Map<String, Integer> identifierIndex = new HashMap<>();
+		for (String identifier : identifierSet) identifierIndex.put(identifier, identifierIndex.size());
+
+		try (DataOutputStream data = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output)))) {
+			data.write(MAGIC);
+			data.writeInt(codes.size());
+			data.writeInt(identifierSet.size());
+			data.writeInt(sourceCount);
+			data.writeInt(mappingCount);
+			for (String code : codes) {
+				byte[] bytes = code.getBytes(StandardCharsets.UTF_8);
+				data.writeShort(bytes.length);
+				data.write(bytes);
+			}
+			int first = 0;
+			for (Map.Entry<String, TreeMap<String, TreeSet<String>>> sources : mappings.entrySet()) {
+				for (Map.Entry<String, TreeSet<String>> source : sources.getValue().entrySet()) {
+					data.writeInt(codeIndex.get(sources.getKey()));
+					data.writeInt(identifierIndex.get(source.getKey()));
+					data.writeInt(first);
+					data.writeInt(source.getValue().size());
+					first += source.getValue().size();
+				}
+			}
+			for (TreeMap<String, TreeSet<String>> sources : mappings.values()) {
+				for (TreeSet<String> targets : sources.values()) {
+					for (String target : targets) {
+						int tab = target.indexOf('\t');
+						data.writeInt(codeIndex.get(target.substring(0, tab)));
+						data.writeInt(identifierIndex.get(target.substring(tab + 1)));
+					}
+				}
+			}
+			int offset = 0;
+			List<byte[]> encoded = new ArrayList<>(identifierSet.size());
+			for (String identifier : identifierSet) {
+				byte[] bytes = identifier.getBytes(StandardCharsets.UTF_8);
+				encoded.add(bytes);
+				data.writeInt(offset);
+				offset += bytes.length;
+			}
+			data.writeInt(offset);
+			for (byte[] bytes : encoded) data.write(bytes);
+		}
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	// returns the position of the identifier in the dictionary, or -1
+	private int identifier(String id) {
+		int low = 0;
+		int high = identifierCount - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int comparison = compareIdentifier(middle, id);
+			if (comparison < 0) {
+				low = middle + 1;
+			} else if (comparison > 0) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+
+	// compares the identifier at the position with the string, without decoding ASCII identifiers
+	private int compareIdentifier(int position, String id) {
+		int start = dictionaryStart + buffer.getInt(offsetStart + 4 * position);
+		int end = dictionaryStart + buffer.getInt(offsetStart + 4 * (position + 1));
+		int length = end - start;
+		for (int i = 0; i < length && i < id.length(); i++) {
+			byte b = buffer.get(start + i);
+			if (b < 0) return identifierAt(position).compareTo(id); // not ASCII
+			int comparison = (char)b - id.charAt(i);
+			if (comparison != 0) return comparison;
+		}
+		if (length > id.length()) {
+			for (int i = id.length(); i < length; i++) {
+				if (buffer.get(start + i) < 0) return identifierAt(position).compareTo(id);
+			}
+		}
+		return length - id.length();
+	}
+
+	private String identifierAt(int position) {
+		int start = dictionaryStart + buffer.getInt(offsetStart + 4 * position);
+		int end = dictionaryStart + buffer.getInt(offsetStart + 4 * (position + 1));
+		return new String(bytes(start, end - start), StandardCharsets.UTF_8);
+	}
+
+	private byte[] bytes(int position, int length) {
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) bytes[i] = buffer.get(position + i);
+		return bytes;
+	}
+
+	// returns the position of the source in the sources table, or -1
+	private int source(Xref xref) {
+		if (xref == null || xref.getId() == null || xref.getDataSource() == null) return -1;
+		Integer dataSource = dataSourceIndex.get(xref.getDataSource());
+		if (dataSource == null) return -1;
+		int identifier = identifier(xref.getId());
+		if (identifier < 0) return -1;
+		int low = 0;
+		int high = sourceCount - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int record = sourceStart + middle * SOURCE_SIZE;
+			int comparison = Integer.compare(buffer.getInt(record), dataSource);
+			if (comparison == 0) comparison = Integer.compare(buffer.getInt(record + 4), identifier);
+			if (comparison < 0) {
+				low = middle + 1;
+			} else if (comparison > 0) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public Set<Xref> mapID(Xref ref, DataSource... tgtDataSources) throws IDMapperException {
+		int source = source(ref);
+		if (source < 0) return new HashSet<>();
+		int record = sourceStart + source * SOURCE_SIZE;
+		int first = buffer.getInt(record + 8);
+		int count = buffer.getInt(record + 12);
+		Set<Xref> mapped = new HashSet<>();
+		for (int i = first; i < first + count; i++) {
+			int mapping = mappingStart + i * MAPPING_SIZE;
+			DataSource target = dataSources[buffer.getInt(mapping)];
+			if (target == null) continue;
+			if (tgtDataSources.length > 0 && !contains(tgtDataSources, target)) continue;
+			mapped.add(new Xref(identifierAt(buffer.getInt(mapping + 4)), target));
+		}
+		return mapped;
+	}
+
+	private static boolean contains(DataSource[] dataSources, DataSource dataSource) {
+		for (DataSource candidate : dataSources) {
+			if (dataSource.equals(candidate)) return true;
+		}
+		return false;
+	}
+
+	@Override
+	public Map<Xref, Set<Xref>> mapID(Collection<Xref> srcXrefs, DataSource... tgtDataSources) throws IDMapperException {
+		Map<Xref, Set<Xref>> results = new HashMap<>();
+		for (Xref xref : srcXrefs) {
+			Set<Xref> mapped = mapID(xref, tgtDataSources);
+			if (!mapped.isEmpty()) results.put(xref, mapped);
+		}
+		return results;
+	}
+
+	@Override
+	public boolean xrefExists(Xref xref) throws IDMapperException {
+		return source(xref) >= 0;
+	}
+
+	@Override
+	public Set<Xref> freeSearch(String text, int limit) throws IDMapperException {
+		throw new IDMapperException("Free search is not supported by a mapping snapshot");
+	}
+
+	@Override
+	public IDMapperCapabilities getCapabilities() {
+		Set<DataSource> supported = new HashSet<>();
+		for (DataSource dataSource : dataSources) {
+			if (dataSource != null) supported.add(dataSource);
+		}
+		Set<DataSource> dataSourceSet = Collections.unmodifiableSet(supported);
+		return new IDMapperCapabilities() {
+			@Override public boolean isFreeSearchSupported() { return false; }
+			@Override public Set<DataSource> getSupportedSrcDataSources() { return dataSourceSet; }
+			@Override public Set<DataSource> getSupportedTgtDataSources() { return dataSourceSet; }
+			@Override public boolean isMappingSupported(DataSource src, DataSource tgt) {
+				return dataSourceSet.contains(src) && dataSourceSet.contains(tgt);
+			}
+			@Override public String getProperty(String key) { return null; }
+			@Override public Set<String> getKeys() { return Collections.emptySet(); }
+		};
+	}
+
+	@Override
+	public void close() throws IDMapperException {
+		connected = false; // the mapping is released when the buffer is garbage collected
+	}
+
+	@Override
+	public boolean isConnected() {
+		return connected;
+	}
+
+}
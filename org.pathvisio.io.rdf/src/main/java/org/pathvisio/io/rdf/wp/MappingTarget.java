@@ -0,0 +1,80 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.wp;
+
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.vocabulary.OWL;
+import org.pathvisio.io.rdf.ontologies.Wp;
+
+/**
+ * The data sources {@link BridgeDbIDMapper#getUnifiedIdentifiers} maps DataNode
+ * identifiers to: the BridgeDb system code, the prefix of the IRIs of the identifiers,
+ * how {@link IRINormalizer} builds those IRIs, and the predicate that links the DataNode
+ * to them. {@link BridgeDbIDMapper#TARGET_SYSTEM_CODES} and the rules of
+ * {@link IRINormalizer} are derived from this table.
+ */
+enum MappingTarget {
+
+	// Genes and proteins
+	ENSEMBL("En", "https://identifiers.org/ensembl/", Kind.ENCODED, Wp.bdbEnsembl),
+	UNIPROT("S", "https://identifiers.org/uniprot/", Kind.ENCODED, Wp.bdbUniprot),
+	ENTREZ_GENE("L", "https://identifiers.org/ncbigene/", Kind.ENCODED, Wp.bdbEntrezGene),
+	HGNC_SYMBOL("H", "https://identifiers.org/hgnc.symbol/", Kind.ENCODED, Wp.bdbHgncSymbol),
+	// Metabolites
+	HMDB("Ch", "https://identifiers.org/hmdb/", Kind.HMDB, Wp.bdbHmdb),
+	CHEMSPIDER("Cs", "https://identifiers.org/chemspider/", Kind.ENCODED, Wp.bdbChemspider),
+	CHEBI("Ce", "https://identifiers.org/chebi/", Kind.CHEBI, Wp.bdbChEBI),
+	WIKIDATA("Wd", "http://www.wikidata.org/entity/", Kind.ENCODED, Wp.bdbWikidata),
+	PUBCHEM_COMPOUND("Cpc", "http://rdf.ncbi.nlm.nih.gov/pubchem/compound/CID", Kind.ENCODED, Wp.bdbPubChem),
+	KEGG_COMPOUND("Ck", "https://identifiers.org/kegg.compound/", Kind.ENCODED, Wp.bdbKeggCompound),
+	LIPID_MAPS("Lm", "https://identifiers.org/lipidmaps/", Kind.ENCODED, Wp.bdbLipidMaps),
+	INCHIKEY("Ik", "https://identifiers.org/inchikey/", Kind.INCHIKEY, Wp.bdbInChIKey),
+	// Interactions
+	REACTOME("Re", "https://identifiers.org/reactome/", Kind.ENCODED, Wp.bdbReactome),
+	RHEA("Rh", "https://identifiers.org/rhea/", Kind.ENCODED, Wp.bdbRhea),
+	// Complexes
+	COMPLEX_PORTAL("Cpx", "https://identifiers.org/complexportal/", Kind.ENCODED, Wp.bdbComplexPortal),
+	// Literature references
+	DOI("Pbd", "https://doi.org/", Kind.DOI, OWL.sameAs);
+
+	/**
+	 * How the IRI of an identifier is built from the prefix.
+	 */
+	enum Kind {
+		/** The identifier gets the CHEBI: prefix. */
+		CHEBI,
+		/** HMDBxxxxx identifiers are padded to HMDB00xxxxx. */
+		HMDB,
+		/** The identifier is upper-cased and URL-encoded. */
+		DOI,
+		/** The identifier is URL-encoded. */
+		ENCODED,
+		/** Written by {@link BridgeDbIDMapper#getUnifiedIdentifiers} itself, with the neutral InChIKey too. */
+		INCHIKEY
+	}
+
+	final String systemCode;
+	final String prefix;
+	final Kind kind;
+	final Property predicate;
+
+	MappingTarget(String systemCode, String prefix, Kind kind, Property predicate) {
+		this.systemCode = systemCode;
+		this.prefix = prefix;
+		this.kind = kind;
+		this.predicate = predicate;
+	}
+
+}
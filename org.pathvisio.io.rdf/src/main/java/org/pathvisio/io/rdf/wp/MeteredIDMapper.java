@@ -0,0 +1,225 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.wp;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.IDMapper;
+import org.bridgedb.IDMapperException;
+import org.bridgedb.Xref;
+import org.bridgedb.XrefIterator;
+
+/**
+ * An {@link IDMapper} that records the lookups of another mapper in {@link MappingMetrics},
+ * under the name of the mapper and the system codes of the target data sources.
+ * Lookups without target data sources are only recorded for the mapper. A lookup
+ * with several target data sources is forwarded as it is, and its latency recorded
+ * for the mapper only; each target gets the identifiers of its data source in the result.
+ */
+public class MeteredIDMapper extends ForwardingIDMapper implements XrefIterator {
+
+	private final String name;
+	private final MappingMetrics metrics;
+	private final boolean timeTargets;
+
+	/**
+	 * @param name  the name of the mapper in the metrics, for example the file name
+	 */
+	public MeteredIDMapper(String name, IDMapper mapper, MappingMetrics metrics) {
+		this(name, mapper, metrics, false);
+	}
+
+	/**
+	 * @param name        the name of the mapper in the metrics, for example the file name
+	 * @param timeTargets if true, a lookup with several target data sources is sent to the other
+	 *                    mapper as one lookup per target, so that each target is recorded with
+	 *                    its own latency. This costs one query per target instead of one per
+	 *                    lookup, about 16 times as many for the DataNode lookups of
+	 *                    {@link BridgeDbIDMapper}, so only use it to measure the targets.
+	 */
+	public MeteredIDMapper(String name, IDMapper mapper, MappingMetrics metrics, boolean timeTargets) {
+		super(mapper);
+		this.name = name;
+		this.metrics = metrics;
+		this.timeTargets = timeTargets;
+	}
+
+	public IDMapper getMapper() {
+		return mapper;
+	}
+
+	private static String[] systemCodes(DataSource[] tgtDataSources) {
+		String[] systemCodes = new String[tgtDataSources.length];
+		for (int i = 0; i < tgtDataSources.length; i++) systemCodes[i] = tgtDataSources[i].getSystemCode();
+		return systemCodes;
+	}
+
+	@Override
+	public Set<Xref> mapID(Xref ref, DataSource... tgtDataSources) throws IDMapperException {
+		if (timeTargets && tgtDataSources.length > 1) return mapIDPerTarget(ref, tgtDataSources);
+		long start = System.nanoTime();
+		Set<Xref> mapped;
+		try {
+			mapped = mapper.mapID(ref, tgtDataSources);
+		} catch (IDMapperException | RuntimeException exception) {
+			metrics.recordError(name, systemCodes(tgtDataSources));
+			throw exception;
+		}
+		long nanos = System.nanoTime() - start;
+		int results = mapped != null ? mapped.size() : 0;
+		metrics.recordMapper(name, 1, results, results == 0 ? 1 : 0, nanos);
+		if (tgtDataSources.length == 1) {
+			metrics.recordTarget(tgtDataSources[0].getSystemCode(), 1, results, results == 0 ? 1 : 0, nanos);
+		} else if (tgtDataSources.length > 1) {
+			recordTargets(Collections.singleton(ref), Collections.singletonMap(ref, mapped), tgtDataSources);
+		}
+		return mapped;
+	}
+
+	@Override
+	public Map<Xref, Set<Xref>> mapID(Collection<Xref> srcXrefs, DataSource... tgtDataSources) throws IDMapperException {
+		if (timeTargets && tgtDataSources.length > 1) return mapIDPerTarget(srcXrefs, tgtDataSources);
+		long start = System.nanoTime();
+		Map<Xref, Set<Xref>> mapped;
+		try {
+			mapped = mapper.mapID(srcXrefs, tgtDataSources);
+		} catch (IDMapperException | RuntimeException exception) {
+			metrics.recordError(name, systemCodes(tgtDataSources));
+			throw exception;
+		}
+		long nanos = System.nanoTime() - start;
+		int results = results(srcXrefs, mapped);
+		int emptyResults = emptyResults(srcXrefs, mapped);
+		metrics.recordMapper(name, srcXrefs.size(), results, emptyResults, nanos);
+		if (tgtDataSources.length == 1) {
+			metrics.recordTarget(tgtDataSources[0].getSystemCode(), srcXrefs.size(), results, emptyResults, nanos);
+		} else if (tgtDataSources.length > 1) {
+			recordTargets(srcXrefs, mapped, tgtDataSources);
+		}
+		return mapped;
+	}
+
+	// records the lookups, without latency, for each target, with the part of the result in its data source
+	private void recordTargets(Collection<Xref> srcXrefs, Map<Xref, Set<Xref>> mapped, DataSource[] tgtDataSources) {
+		List<DataSource> targets = Arrays.asList(tgtDataSources);
+		Map<DataSource, int[]> counts = new HashMap<>();
+		for (DataSource target : targets) counts.put(target, new int[2]);
+		for (Xref xref : srcXrefs) {
+			Map<DataSource, Set<Xref>> partitioned = BridgeDbIDMapper.partition(mapped != null ? mapped.get(xref) : null, targets);
+			for (Map.Entry<DataSource, Set<Xref>> entry : partitioned.entrySet()) {
+				int[] targetCounts = counts.get(entry.getKey());
+				targetCounts[0] += entry.getValue().size();
+				if (entry.getValue().isEmpty()) targetCounts[1]++;
+			}
+		}
+		for (Map.Entry<DataSource, int[]> entry : counts.entrySet()) {
+			metrics.recordTarget(entry.getKey().getSystemCode(), srcXrefs.size(), entry.getValue()[0], entry.getValue()[1]);
+		}
+	}
+
+	// one lookup per target, so that each target gets its own latency
+	private Set<Xref> mapIDPerTarget(Xref ref, DataSource[] tgtDataSources) throws IDMapperException {
+		Set<Xref> mapped = new HashSet<>();
+		long totalNanos = 0;
+		for (DataSource target : tgtDataSources) {
+			long start = System.nanoTime();
+			Set<Xref> targetMapped;
+			try {
+				targetMapped = mapper.mapID(ref, target);
+			} catch (IDMapperException | RuntimeException exception) {
+				metrics.recordError(name, new String[] { target.getSystemCode() });
+				throw exception;
+			}
+			long nanos = System.nanoTime() - start;
+			totalNanos += nanos;
+			int targetResults = targetMapped != null ? targetMapped.size() : 0;
+			metrics.recordTarget(target.getSystemCode(), 1, targetResults, targetResults == 0 ? 1 : 0, nanos);
+			if (targetMapped != null) mapped.addAll(targetMapped);
+		}
+		metrics.recordMapper(name, 1, mapped.size(), mapped.isEmpty() ? 1 : 0, totalNanos);
+		return mapped;
+	}
+
+	// one bulk lookup per target, so that each target gets its own latency
+	private Map<Xref, Set<Xref>> mapIDPerTarget(Collection<Xref> srcXrefs, DataSource[] tgtDataSources) throws IDMapperException {
+		Map<Xref, Set<Xref>> mapped = new HashMap<>();
+		long totalNanos = 0;
+		for (DataSource target : tgtDataSources) {
+			long start = System.nanoTime();
+			Map<Xref, Set<Xref>> targetMapped;
+			try {
+				targetMapped = mapper.mapID(srcXrefs, target);
+			} catch (IDMapperException | RuntimeException exception) {
+				metrics.recordError(name, new String[] { target.getSystemCode() });
+				throw exception;
+			}
+			long nanos = System.nanoTime() - start;
+			totalNanos += nanos;
+			metrics.recordTarget(target.getSystemCode(), srcXrefs.size(), results(srcXrefs, targetMapped),
+				emptyResults(srcXrefs, targetMapped), nanos);
+			if (targetMapped == null) continue;
+			for (Map.Entry<Xref, Set<Xref>> entry : targetMapped.entrySet()) {
+				Set<Xref> xrefMapped = mapped.computeIfAbsent(entry.getKey(), key -> new HashSet<>());
+				if (entry.getValue() != null) xrefMapped.addAll(entry.getValue());
+			}
+		}
+		metrics.recordMapper(name, srcXrefs.size(), results(srcXrefs, mapped), emptyResults(srcXrefs, mapped), totalNanos);
+		return mapped;
+	}
+
+	// the number of identifiers the source identifiers mapped to
+	private static int results(Collection<Xref> srcXrefs, Map<Xref, Set<Xref>> mapped) {
+		int results = 0;
+		for (Xref xref : srcXrefs) {
+			Set<Xref> xrefMapped = mapped != null ? mapped.get(xref) : null;
+			if (xrefMapped != null) results += xrefMapped.size();
+		}
+		return results;
+	}
+
+	// the number of source identifiers that mapped to nothing
+	private static int emptyResults(Collection<Xref> srcXrefs, Map<Xref, Set<Xref>> mapped) {
+		int emptyResults = 0;
+		for (Xref xref : srcXrefs) {
+			Set<Xref> xrefMapped = mapped != null ? mapped.get(xref) : null;
+			if (xrefMapped == null || xrefMapped.isEmpty()) emptyResults++;
+		}
+		return emptyResults;
+	}
+
+	/**
+	 * Lists the identifiers of the mapper, when it can list them.
+	 */
+	@Override
+	public Iterable<Xref> getIterator() throws IDMapperException {
+		if (!(mapper instanceof XrefIterator)) throw new IDMapperException("Cannot list the identifiers of " + name);
+		return ((XrefIterator)mapper).getIterator();
+	}
+
+	@Override
+	public Iterable<Xref> getIterator(DataSource ds) throws IDMapperException {
+		if (!(mapper instanceof XrefIterator)) throw new IDMapperException("Cannot list the identifiers of " + name);
+		return ((XrefIterator)mapper).getIterator(ds);
+	}
+
+}
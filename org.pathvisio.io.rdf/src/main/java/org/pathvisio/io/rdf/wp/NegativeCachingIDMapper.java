@@ -0,0 +1,212 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.wp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.IDMapper;
+import org.bridgedb.IDMapperException;
+import org.bridgedb.Xref;
+
+/**
+ * An {@link IDMapper} that remembers which identifiers did not map to a target data
+ * source, and answers later lookups of them without asking the mapper again. Typos,
+ * retired identifiers and local identifiers never map, but are looked up again for
+ * every DataNode that uses them, and retired HMDB identifiers even twice, see
+ * {@link BridgeDbIDMapper#getUnifiedIdentifiers}. Only empty results are kept, in a
+ * least-recently-used cache of (identifier, target) pairs with its own limit, so
+ * that it can be much larger than a cache of all results.
+ *
+ * <p>How often each identifier was looked up without result is counted, and
+ * {@link #getMissReport(int)} lists the identifiers missed most often, for curators
+ * to fix. Counts of pairs that are evicted are lost.
+ */
+public class NegativeCachingIDMapper extends ForwardingIDMapper {
+
+	private final int maximumSize;
+	// (identifier, target) -> number of lookups without result
+	private final Map<CachingIDMapper.Key, long[]> misses;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * @param mapper       the mapper to look up the identifiers that are not known to miss
+	 * @param maximumSize  the maximum number of (identifier, target) pairs to keep
+	 */
+	public NegativeCachingIDMapper(IDMapper mapper, int maximumSize) {
+		super(mapper);
+		if (maximumSize < 1) throw new IllegalArgumentException("The maximum size must be positive: " + maximumSize);
+		this.maximumSize = maximumSize;
+		this.misses = new LinkedHashMap<CachingIDMapper.Key, long[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<CachingIDMapper.Key, long[]> eldest) {
+				if (size() <= NegativeCachingIDMapper.this.maximumSize) return false;
+				evictions.increment();
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Returns the number of (identifier, target) lookups answered from the cache.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	public int size() {
+		synchronized (misses) {
+			return misses.size();
+		}
+	}
+
+	/**
+	 * Returns the identifiers looked up most often without result, with the number of
+	 * such lookups, summed over the target data sources, most often missed first.
+	 */
+	public List<Map.Entry<Xref, Long>> getMostMissed(int limit) {
+		Map<Xref, Long> counts = new HashMap<>();
+		synchronized (misses) {
+			for (Map.Entry<CachingIDMapper.Key, long[]> miss : misses.entrySet()) {
+				counts.merge(miss.getKey().xref, miss.getValue()[0], Long::sum);
+			}
+		}
+		List<Map.Entry<Xref, Long>> mostMissed = new ArrayList<>(counts.entrySet());
+		mostMissed.sort((first, second) -> {
+			int order = Long.compare(second.getValue(), first.getValue());
+			return order != 0 ? order : first.getKey().toString().compareTo(second.getKey().toString());
+		});
+		return mostMissed.size() > limit ? new ArrayList<>(mostMissed.subList(0, limit)) : mostMissed;
+	}
+
+	/**
+	 * Returns the identifiers looked up most often without result, one per line.
+	 */
+	public String getMissReport(int limit) {
+		StringBuilder report = new StringBuilder();
+		for (Map.Entry<Xref, Long> miss : getMostMissed(limit)) {
+			DataSource source = miss.getKey().getDataSource();
+			report.append(source != null ? source.getSystemCode() : "?").append(':').append(miss.getKey().getId())
+				.append(": ").append(miss.getValue()).append('\n');
+		}
+		return report.toString();
+	}
+
+	/**
+	 * Empties the cache, for example after the mapping databases changed.
+	 */
+	public void clear() {
+		synchronized (misses) {
+			misses.clear();
+		}
+	}
+
+	// counts a lookup of a pair that is known to miss, and returns whether it is
+	private boolean missed(CachingIDMapper.Key key) {
+		long[] count = misses.get(key);
+		if (count == null) return false;
+		count[0]++;
+		return true;
+	}
+
+	private final TargetStore store = new TargetStore() {
+		@Override
+		public Set<Xref> get(Xref xref, DataSource target) {
+			synchronized (misses) {
+				if (!missed(new CachingIDMapper.Key(xref, target))) return null;
+			}
+			hits.increment();
+			return new HashSet<>();
+		}
+
+		@Override
+		public void put(Xref xref, DataSource target, Set<Xref> mapped) {
+			if (!mapped.isEmpty()) return;
+			synchronized (misses) {
+				CachingIDMapper.Key key = new CachingIDMapper.Key(xref, target);
+				if (!missed(key)) misses.put(key, new long[] { 1 });
+			}
+		}
+	};
+
+	private void recordMisses(Xref ref, Set<Xref> mapped, DataSource[] tgtDataSources) {
+		Map<DataSource, Set<Xref>> partitioned = BridgeDbIDMapper.partition(mapped, Arrays.asList(tgtDataSources));
+		for (DataSource target : tgtDataSources) store.put(ref, target, partitioned.get(target));
+	}
+
+	/**
+	 * Only asks the mapper for the targets the identifier is not known to miss.
+	 */
+	@Override
+	public Set<Xref> mapID(Xref ref, DataSource... tgtDataSources) throws IDMapperException {
+		if (tgtDataSources.length == 0 || ref == null) return mapper.mapID(ref, tgtDataSources);
+		return mapPerTarget(ref, tgtDataSources, store);
+	}
+
+	/**
+	 * Leaves out the identifiers that are known to miss all targets, and looks up
+	 * the others with a single bulk lookup.
+	 */
+	@Override
+	public Map<Xref, Set<Xref>> mapID(Collection<Xref> srcXrefs, DataSource... tgtDataSources) throws IDMapperException {
+		if (tgtDataSources.length == 0) return mapper.mapID(srcXrefs, tgtDataSources);
+
+		Map<Xref, Set<Xref>> results = new HashMap<>();
+		List<Xref> remaining = new ArrayList<>();
+		synchronized (misses) {
+			for (Xref xref : srcXrefs) {
+				boolean allMissed = true;
+				for (DataSource target : tgtDataSources) {
+					if (!misses.containsKey(new CachingIDMapper.Key(xref, target))) allMissed = false;
+				}
+				if (!allMissed) {
+					remaining.add(xref);
+					continue;
+				}
+				for (DataSource target : tgtDataSources) missed(new CachingIDMapper.Key(xref, target));
+				results.put(xref, Collections.emptySet());
+			}
+		}
+		hits.add((long)results.size() * tgtDataSources.length);
+		if (remaining.isEmpty()) return results;
+
+		Map<Xref, Set<Xref>> loaded = mapper.mapID(remaining, tgtDataSources);
+		for (Xref xref : remaining) {
+			Set<Xref> mapped = loaded != null ? loaded.get(xref) : null;
+			recordMisses(xref, mapped, tgtDataSources);
+			results.put(xref, mapped != null ? mapped : Collections.emptySet());
+		}
+		return results;
+	}
+
+}
@@ -0,0 +1,460 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.wp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.IDMapper;
+import org.bridgedb.IDMapperException;
+import org.bridgedb.Xref;
+
+/**
+ * An {@link IDMapper} that keeps the results of lookups, per identifier and target
+ * data source, in a file, so that later runs against the same BridgeDb mapping files
+ * do not have to query the mapping databases again for identifiers they have already
+ * seen.
+ *
+ * <p>The file is named after a fingerprint of the <code>.bridge</code> files (their
+ * names, sizes and modification times), so a new mapping release gets a new, empty
+ * cache; files of earlier releases in the same folder are removed. When only some of
+ * the files are used, for example those for one organism, the name also has a
+ * fingerprint of the used files, so each selection gets a cache of its own.
+ *
+ * <p>The file is a header followed by records that are only ever appended. Each record
+ * holds one lookup and its mapped identifiers, and ends with a CRC32 checksum. The
+ * mapped identifiers are read from the file when they are needed, through an index
+ * from lookup to file offset. {@link #close()} writes that index, sorted by lookup,
+ * to a <code>.index</code> file next to the cache, with the number of lookups and the
+ * length of the cache file it covers. When the cache is opened again, the index is read
+ * from that file if both still match; otherwise, for example after a crashed run, the
+ * records are scanned once to build it, and a record that was only partly written is
+ * cut off. Appends take a file lock, so several processes can share the cache; within
+ * one JVM, open each cache folder only once.
+ */
+public class PersistentIDMapper extends ForwardingIDMapper {
+
+	private static final byte[] MAGIC = "WPRDF-BRIDGEDB-CACHE-1\n".getBytes(StandardCharsets.US_ASCII);
+	private static final String PREFIX = "bridgedb-";
+	private static final String SUFFIX = ".cache";
+	private static final String INDEX_MAGIC = "WPRDF-BRIDGEDB-CACHE-INDEX-1";
+	private static final String INDEX_SUFFIX = ".index";
+
+	private final File file;
+	private final FileChannel channel;
+	// lookup key, see key(), to the offset of its record
+	private final Map<String, Long> index = new ConcurrentHashMap<>();
+	// the length of the part of the file that is in the index
+	private long indexedLength;
+	private boolean indexFileUsed = false;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	private PersistentIDMapper(IDMapper mapper, File file) throws IOException {
+		super(mapper);
+		this.file = file;
+		this.channel = FileChannel.open(file.toPath(),
+			StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+	}
+
+	/**
+	 * Opens the cache for the given mapping files in the given folder, and loads its index.
+	 *
+	 * @param mapper       the mapper to look up identifiers that are not in the cache yet
+	 * @param cacheFolder  the folder with the cache files, created when missing
+	 * @param bridgeFiles  the BridgeDb mapping files the mapper uses
+	 */
+	public static PersistentIDMapper open(IDMapper mapper, File cacheFolder, File[] bridgeFiles) throws IOException {
+		return open(mapper, cacheFolder, bridgeFiles, bridgeFiles);
+	}
+
+	/**
+	 * Opens the cache for a mapper that uses only some of the mapping files of a release.
+	 *
+	 * @param releaseFiles  all BridgeDb mapping files of the release
+	 * @param usedFiles     the mapping files the mapper uses
+	 */
+	public static PersistentIDMapper open(IDMapper mapper, File cacheFolder, File[] releaseFiles, File[] usedFiles) throws IOException {
+		if (!cacheFolder.isDirectory() && !cacheFolder.mkdirs()) {
+			throw new IOException("Could not create the mapping cache folder: " + cacheFolder);
+		}
+		String release = PREFIX + fingerprint(releaseFiles).substring(0, 16) + "-";
+		String fingerprint = fingerprint(usedFiles);
+		File file = new File(cacheFolder, release + fingerprint.substring(0, 16) + SUFFIX);
+		File[] outdated = cacheFolder.listFiles((dir, name) ->
+			name.startsWith(PREFIX) && (name.endsWith(SUFFIX) || name.endsWith(SUFFIX + INDEX_SUFFIX))
+				&& !name.startsWith(release));
+		if (outdated != null) {
+			for (File old : outdated) {
+				if (!old.delete()) System.out.println("Could not remove outdated mapping cache: " + old);
+			}
+		}
+		PersistentIDMapper cache = new PersistentIDMapper(mapper, file);
+		try {
+			cache.load(fingerprint);
+		} catch (IOException exception) {
+			cache.channel.close();
+			throw exception;
+		}
+		return cache;
+	}
+
+	/**
+	 * Returns a SHA-256 fingerprint of the names, sizes and modification times of the
+	 * mapping files. The contents are not hashed, because the files are large.
+	 */
+	public static String fingerprint(File[] bridgeFiles) {
+		File[] sorted = bridgeFiles.clone();
+		Arrays.sort(sorted, Comparator.comparing(File::getName));
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (File bridgeFile : sorted) {
+				String entry = bridgeFile.getName() + "\t" + bridgeFile.length() + "\t" + bridgeFile.lastModified() + "\n";
+				digest.update(entry.getBytes(StandardCharsets.UTF_8));
+			}
+			StringBuilder hex = new StringBuilder();
+			for (byte b : digest.digest()) hex.append(String.format("%02x", b));
+			return hex.toString();
+		} catch (NoSuchAlgorithmException exception) {
+			throw new IllegalStateException("SHA-256 is not available", exception); // every JVM has it
+		}
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	public File getIndexFile() {
+		return new File(file.getParentFile(), file.getName() + INDEX_SUFFIX);
+	}
+
+	/**
+	 * Returns whether the index was read from the index file, instead of built by a scan.
+	 */
+	public boolean isIndexFileUsed() {
+		return indexFileUsed;
+	}
+
+	/**
+	 * Returns the number of lookups in the cache.
+	 */
+	public int size() {
+		return index.size();
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	private void load(String fingerprint) throws IOException {
+		byte[] header = header(fingerprint);
+		try (FileLock lock = channel.lock()) {
+			long size = channel.size();
+			if (size < header.length || !Arrays.equals(readFully(0, header.length), header)) {
+				// new, or written for other mapping files
+				channel.truncate(0);
+				writeFully(ByteBuffer.wrap(header), 0);
+				indexedLength = header.length;
+				return;
+			}
+			if (readIndex(size)) {
+				indexFileUsed = true;
+				indexedLength = size;
+				return;
+			}
+			indexedLength = header.length;
+			scan(size);
+		}
+	}
+
+	// adds the records after indexedLength to the index; an incomplete record is cut off
+	private void scan(long size) throws IOException {
+		long offset = indexedLength;
+		while (offset < size) {
+			Record record = readRecord(offset, size);
+			if (record == null) {
+				System.out.println("Truncating incomplete mapping cache record at " + offset + " in " + file);
+				channel.truncate(offset);
+				break;
+			}
+			index.putIfAbsent(record.key, offset);
+			offset += record.length;
+		}
+		indexedLength = offset;
+	}
+
+	// reads the index file, if it was written for the cache file as it is now
+	private boolean readIndex(long size) {
+		File indexFile = getIndexFile();
+		if (!indexFile.isFile()) return false;
+		Map<String, Long> offsets = new HashMap<>();
+		try (DataInputStream data = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+			boolean valid = INDEX_MAGIC.equals(data.readUTF()) && data.readLong() == size;
+			int count = valid ? data.readInt() : 0;
+			for (int i = 0; valid && i < count; i++) {
+				String key = data.readUTF();
+				long offset = data.readLong();
+				valid = offset >= 0 && offset < size && offsets.put(key, offset) == null;
+			}
+			if (valid && data.read() == -1) {
+				index.putAll(offsets);
+				return true;
+			}
+		} catch (IOException exception) {
+			// incomplete, so out of date too
+		}
+		System.out.println("Mapping cache index is out of date, scanning " + file);
+		return false;
+	}
+
+	// writes the index, including records other processes appended, to the index file
+	private synchronized void writeIndex() throws IOException {
+		try (FileLock lock = channel.lock()) {
+			scan(channel.size());
+			File temp = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+			try (DataOutputStream data = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+				Map<String, Long> sorted = new TreeMap<>(index);
+				data.writeUTF(INDEX_MAGIC);
+				data.writeLong(indexedLength);
+				data.writeInt(sorted.size());
+				for (Map.Entry<String, Long> entry : sorted.entrySet()) {
+					data.writeUTF(entry.getKey());
+					data.writeLong(entry.getValue());
+				}
+			} catch (IOException exception) {
+				temp.delete();
+				throw exception;
+			}
+			Files.move(temp.toPath(), getIndexFile().toPath(),
+				StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+	}
+
+	private static byte[] header(String fingerprint) {
+		byte[] print = (fingerprint + "\n").getBytes(StandardCharsets.US_ASCII);
+		byte[] header = Arrays.copyOf(MAGIC, MAGIC.length + print.length);
+		System.arraycopy(print, 0, header, MAGIC.length, print.length);
+		return header;
+	}
+
+	private static String key(String sourceCode, String id, String targetCode) {
+		return sourceCode + "\t" + id + "\t" + targetCode;
+	}
+
+	// the key of a lookup, or null if it cannot be stored
+	private static String key(Xref xref, DataSource target) {
+		if (xref.getId() == null || xref.getDataSource() == null || xref.getDataSource().getSystemCode() == null
+				|| target.getSystemCode() == null) return null;
+		return key(xref.getDataSource().getSystemCode(), xref.getId(), target.getSystemCode());
+	}
+
+	private final TargetStore store = new TargetStore() {
+		@Override
+		public Set<Xref> get(Xref xref, DataSource target) {
+			String key = key(xref, target);
+			Long offset = key != null ? index.get(key) : null;
+			Set<Xref> cached = offset != null ? read(offset) : null;
+			if (cached != null) hits.increment(); else misses.increment();
+			return cached;
+		}
+
+		@Override
+		public void put(Xref xref, DataSource target, Set<Xref> mapped) {
+			String key = key(xref, target);
+			if (key != null) append(key, mapped);
+		}
+	};
+
+	/**
+	 * Answers the targets that are in the cache from the file, and looks up the others
+	 * with a single lookup, whose results are then appended per target.
+	 */
+	@Override
+	public Set<Xref> mapID(Xref ref, DataSource... tgtDataSources) throws IDMapperException {
+		if (tgtDataSources.length == 0 || ref == null) return mapper.mapID(ref, tgtDataSources);
+		for (DataSource target : tgtDataSources) {
+			if (target == null || key(ref, target) == null) return mapper.mapID(ref, tgtDataSources);
+		}
+		return mapPerTarget(ref, tgtDataSources, store);
+	}
+
+	private Set<Xref> read(long offset) {
+		try {
+			Record record = readRecord(offset, channel.size());
+			if (record == null) return null;
+			Set<Xref> mapped = new HashSet<>();
+			for (int i = 0; i < record.codes.length; i++) {
+				if (!DataSource.systemCodeExists(record.codes[i])) return null; // mapping files not loaded?
+				mapped.add(new Xref(record.ids[i], DataSource.getExistingBySystemCode(record.codes[i])));
+			}
+			return mapped;
+		} catch (IOException exception) {
+			System.out.println("Could not read the mapping cache: " + exception.getMessage());
+			return null;
+		}
+	}
+
+	private void append(String key, Set<Xref> mapped) {
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		try (DataOutputStream data = new DataOutputStream(payload)) {
+			data.writeUTF(key);
+			data.writeInt(mapped.size());
+			for (Xref xref : mapped) {
+				if (xref.getDataSource() == null || xref.getDataSource().getSystemCode() == null) return; // cannot be stored
+				data.writeUTF(xref.getDataSource().getSystemCode());
+				data.writeUTF(xref.getId());
+			}
+		} catch (IOException exception) {
+			return; // not for a ByteArrayOutputStream
+		}
+		byte[] bytes = payload.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+		ByteBuffer record = ByteBuffer.allocate(4 + bytes.length + 8);
+		record.putInt(bytes.length).put(bytes).putLong(crc.getValue()).flip();
+
+		synchronized (this) {
+			try (FileLock lock = channel.lock()) {
+				long offset = channel.size();
+				writeFully(record, offset);
+				index.putIfAbsent(key, offset);
+				if (offset == indexedLength) indexedLength += record.limit();
+			} catch (IOException exception) {
+				System.out.println("Could not write to the mapping cache: " + exception.getMessage());
+			}
+		}
+	}
+
+	private static class Record {
+
+		final int length;
+		final String key;
+		final String[] codes;
+		final String[] ids;
+
+		Record(int length, String key, String[] codes, String[] ids) {
+			this.length = length;
+			this.key = key;
+			this.codes = codes;
+			this.ids = ids;
+		}
+
+	}
+
+	// returns null if the record is incomplete or damaged
+	private Record readRecord(long offset, long size) throws IOException {
+		if (offset + 4 > size) return null;
+		int length = ByteBuffer.wrap(readFully(offset, 4)).getInt();
+		if (length < 0 || offset + 4 + length + 8 > size) return null;
+		ByteBuffer rest = ByteBuffer.wrap(readFully(offset + 4, length + 8));
+		byte[] bytes = new byte[length];
+		rest.get(bytes);
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+		if (crc.getValue() != rest.getLong()) return null;
+
+		try (DataInputStream data = new DataInputStream(new ByteArrayInputStream(bytes))) {
+			String key = data.readUTF();
+			int count = data.readInt();
+			String[] codes = new String[count];
+			String[] ids = new String[count];
+			for (int i = 0; i < count; i++) {
+				codes[i] = data.readUTF();
+				ids[i] = data.readUTF();
+			}
+			return new Record(4 + length + 8, key, codes, ids);
+		}
+	}
+
+	private byte[] readFully(long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position + buffer.position());
+			if (read < 0) throw new IOException("Unexpected end of " + file);
+		}
+		return buffer.array();
+	}
+
+	private void writeFully(ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer, position + buffer.position());
+		}
+	}
+
+	/**
+	 * Answers the identifiers that are in the cache from the file, and looks up the
+	 * others with a single bulk lookup, whose results are then appended.
+	 */
+	@Override
+	public Map<Xref, Set<Xref>> mapID(Collection<Xref> srcXrefs, DataSource... tgtDataSources) throws IDMapperException {
+		if (tgtDataSources.length != 1 || tgtDataSources[0] == null || tgtDataSources[0].getSystemCode() == null) {
+			return mapper.mapID(srcXrefs, tgtDataSources);
+		}
+		return mapPerTarget(srcXrefs, tgtDataSources[0], store);
+	}
+
+	/**
+	 * Writes the index file, and closes the cache file and the wrapped mapper.
+	 */
+	@Override
+	public void close() throws IDMapperException {
+		try {
+			writeIndex();
+		} catch (IOException exception) {
+			System.out.println("Could not write the mapping cache index: " + exception.getMessage());
+		}
+		try {
+			channel.close();
+		} catch (IOException exception) {
+			System.out.println("Could not close the mapping cache: " + exception.getMessage());
+		}
+		mapper.close();
+	}
+
+}
@@ -0,0 +1,97 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.wp;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.IDMapper;
+import org.bridgedb.IDMapperException;
+import org.bridgedb.Xref;
+
+/**
+ * An {@link IDMapper} that answers lookups of single identifiers from mappings fetched
+ * in bulk beforehand, with one <code>mapID(Collection, DataSource)</code> call per target
+ * data source. Bulk lookups, and lookups of identifiers or targets that were not
+ * prefetched, go to the wrapped mapper. The prefetched mappings are not changed afterwards, so
+ * the mapper can be used by several threads.
+ */
+public class PrefetchedIDMapper extends ForwardingIDMapper {
+
+	private final Map<DataSource, Map<Xref, Set<Xref>>> mappings = new HashMap<>();
+	private int bulkCalls = 0;
+
+	private PrefetchedIDMapper(IDMapper mapper) {
+		super(mapper);
+	}
+
+	/**
+	 * Fetches the mappings of all identifiers to each of the target data sources. When the
+	 * bulk lookup for a target fails, lookups for that target go to the wrapped mapper.
+	 */
+	public static PrefetchedIDMapper prefetch(IDMapper mapper, Collection<Xref> xrefs, Collection<DataSource> targets) {
+		PrefetchedIDMapper prefetched = new PrefetchedIDMapper(mapper);
+		if (xrefs.isEmpty()) return prefetched;
+		for (DataSource target : targets) {
+			try {
+				Map<Xref, Set<Xref>> results = mapper.mapID(xrefs, target);
+				prefetched.bulkCalls++;
+				Map<Xref, Set<Xref>> targetMappings = new HashMap<>();
+				for (Xref xref : xrefs) {
+					Set<Xref> mapped = results != null ? results.get(xref) : null;
+					targetMappings.put(xref, mapped != null ? Collections.unmodifiableSet(mapped) : Collections.emptySet());
+				}
+				prefetched.mappings.put(target, targetMappings);
+			} catch (IDMapperException exception) {
+				System.out.println("Could not prefetch mappings to " + target.getFullName() + ": " + exception.getMessage());
+			}
+		}
+		return prefetched;
+	}
+
+	/**
+	 * Returns the number of bulk lookups done by {@link #prefetch}.
+	 */
+	public int getBulkCalls() {
+		return bulkCalls;
+	}
+
+	// the prefetched mappings are never changed, lookups that were not prefetched are not kept
+	private final TargetStore store = new TargetStore() {
+		@Override
+		public Set<Xref> get(Xref xref, DataSource target) {
+			Map<Xref, Set<Xref>> targetMappings = mappings.get(target);
+			return targetMappings != null ? targetMappings.get(xref) : null;
+		}
+
+		@Override
+		public void put(Xref xref, DataSource target, Set<Xref> mapped) {}
+	};
+
+	/**
+	 * Answers the prefetched targets from the prefetched mappings, and asks the
+	 * wrapped mapper for the other targets.
+	 */
+	@Override
+	public Set<Xref> mapID(Xref ref, DataSource... tgtDataSources) throws IDMapperException {
+		if (tgtDataSources.length == 0) return mapper.mapID(ref, tgtDataSources);
+		return mapPerTarget(ref, tgtDataSources, store);
+	}
+
+}
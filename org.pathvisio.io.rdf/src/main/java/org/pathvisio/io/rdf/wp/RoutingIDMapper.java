@@ -0,0 +1,285 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.wp;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.IDMapper;
+import org.bridgedb.IDMapperCapabilities;
+import org.bridgedb.IDMapperException;
+import org.bridgedb.Xref;
+
+/**
+ * An {@link IDMapper} that, like a non-transitive <code>IDMapperStack</code>, combines
+ * the results of several mappers, but only asks the mappers that support the data source
+ * of the identifier. With a mapping database per species next to the metabolite and
+ * interaction databases, most lookups then go to one or two databases instead of all.
+ * Which data sources a mapper supports is taken from its {@link IDMapperCapabilities},
+ * or can be given when the mapper is added. Mappers whose capabilities cannot be read, or
+ * list no data sources, are asked for every identifier.
+ *
+ * <p>The number of lookups sent along each route, that is, from a source data source to
+ * a mapper, is counted, and {@link #getRouteReport()} lists them.
+ * Add all mappers before the first lookup.
+ */
+public class RoutingIDMapper implements IDMapper {
+
+	private static class Route {
+
+		final String name;
+		final IDMapper mapper;
+		final Set<DataSource> targets; // null when not known
+
+		Route(String name, IDMapper mapper, Set<DataSource> targets) {
+			this.name = name;
+			this.mapper = mapper;
+			this.targets = targets;
+		}
+
+		// the targets this mapper can map to, or null if none
+		DataSource[] supported(DataSource[] tgtDataSources) {
+			if (targets == null || tgtDataSources.length == 0) return tgtDataSources;
+			List<DataSource> supported = new ArrayList<>();
+			for (DataSource target : tgtDataSources) {
+				if (targets.contains(target)) supported.add(target);
+			}
+			return supported.isEmpty() ? null : supported.toArray(new DataSource[0]);
+		}
+
+	}
+
+	private final List<Route> routes = new ArrayList<>();
+	private final Map<DataSource, List<Route>> bySource = new HashMap<>();
+	private final List<Route> everySource = new ArrayList<>();
+
+	// "source system code\tmapper name" -> number of lookups
+	private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+	private final LongAdder unrouted = new LongAdder();
+
+	/**
+	 * Adds a mapper, and learns the source and target data sources it supports from
+	 * its capabilities.
+	 *
+	 * @param name  the name of the mapper in the route report, for example the file name
+	 */
+	public RoutingIDMapper addIDMapper(String name, IDMapper mapper) {
+		Set<DataSource> sources = null;
+		Set<DataSource> targets = null;
+		try {
+			IDMapperCapabilities capabilities = mapper.getCapabilities();
+			if (capabilities != null) {
+				sources = capabilities.getSupportedSrcDataSources();
+				targets = capabilities.getSupportedTgtDataSources();
+			}
+		} catch (IDMapperException exception) {
+			System.out.println("Could not read the capabilities of " + name + ": " + exception.getMessage());
+		}
+		if (sources != null && sources.isEmpty()) sources = null;
+		if (targets != null && targets.isEmpty()) targets = null;
+		if (sources == null) System.out.println("Routing all lookups to " + name);
+		return add(name, mapper, sources, targets);
+	}
+
+	/**
+	 * Adds a mapper that is only asked for identifiers of the given data sources.
+	 */
+	public RoutingIDMapper addIDMapper(String name, IDMapper mapper, Collection<DataSource> sources) {
+		return add(name, mapper, new HashSet<>(sources), null);
+	}
+
+	private RoutingIDMapper add(String name, IDMapper mapper, Set<DataSource> sources, Set<DataSource> targets) {
+		Route route = new Route(name, mapper, targets != null ? new HashSet<>(targets) : null);
+		routes.add(route);
+		if (sources == null) {
+			everySource.add(route);
+		} else {
+			for (DataSource source : sources) {
+				bySource.computeIfAbsent(source, key -> new ArrayList<>()).add(route);
+			}
+		}
+		return this;
+	}
+
+	private List<Route> routes(DataSource source) {
+		List<Route> sourceRoutes = source != null ? bySource.get(source) : null;
+		if (everySource.isEmpty()) return sourceRoutes != null ? sourceRoutes : Collections.emptyList();
+		if (sourceRoutes == null) return everySource;
+		List<Route> combined = new ArrayList<>(sourceRoutes);
+		combined.addAll(everySource);
+		return combined;
+	}
+
+	private void count(DataSource source, Route route, int lookups) {
+		String code = source != null ? source.getSystemCode() : null;
+		counts.computeIfAbsent(code + "\t" + route.name, key -> new LongAdder()).add(lookups);
+	}
+
+	/**
+	 * Returns the number of lookups sent from the source data source to the named mapper.
+	 */
+	public long getQueryCount(DataSource source, String name) {
+		LongAdder count = counts.get(source.getSystemCode() + "\t" + name);
+		return count != null ? count.sum() : 0;
+	}
+
+	/**
+	 * Returns the number of lookups of identifiers no mapper supports.
+	 */
+	public long getUnroutedCount() {
+		return unrouted.sum();
+	}
+
+	/**
+	 * Returns the lookups per route, one route per line, sorted by source data source.
+	 */
+	public String getRouteReport() {
+		StringBuilder report = new StringBuilder();
+		for (Map.Entry<String, LongAdder> count : new TreeMap<>(counts).entrySet()) {
+			String[] route = count.getKey().split("\t", 2);
+			report.append(route[0]).append(" -> ").append(route[1]).append(": ")
+				.append(count.getValue().sum()).append('\n');
+		}
+		report.append("unrouted: ").append(unrouted.sum()).append('\n');
+		return report.toString();
+	}
+
+	@Override
+	public Set<Xref> mapID(Xref ref, DataSource... tgtDataSources) throws IDMapperException {
+		Set<Xref> mapped = new HashSet<>();
+		if (ref == null) return mapped;
+		List<Route> sourceRoutes = routes(ref.getDataSource());
+		if (sourceRoutes.isEmpty()) unrouted.increment();
+		for (Route route : sourceRoutes) {
+			DataSource[] targets = route.supported(tgtDataSources);
+			if (targets == null) continue;
+			count(ref.getDataSource(), route, 1);
+			Set<Xref> results = route.mapper.mapID(ref, targets);
+			if (results != null) mapped.addAll(results);
+		}
+		return mapped;
+	}
+
+	@Override
+	public Map<Xref, Set<Xref>> mapID(Collection<Xref> srcXrefs, DataSource... tgtDataSources) throws IDMapperException {
+		Map<DataSource, List<Xref>> bySourceDataSource = new LinkedHashMap<>();
+		for (Xref xref : srcXrefs) {
+			bySourceDataSource.computeIfAbsent(xref.getDataSource(), key -> new ArrayList<>()).add(xref);
+		}
+		Map<Xref, Set<Xref>> mapped = new HashMap<>();
+		for (Map.Entry<DataSource, List<Xref>> group : bySourceDataSource.entrySet()) {
+			List<Route> sourceRoutes = routes(group.getKey());
+			if (sourceRoutes.isEmpty()) unrouted.add(group.getValue().size());
+			for (Route route : sourceRoutes) {
+				DataSource[] targets = route.supported(tgtDataSources);
+				if (targets == null) continue;
+				count(group.getKey(), route, group.getValue().size());
+				Map<Xref, Set<Xref>> results = route.mapper.mapID(group.getValue(), targets);
+				if (results == null) continue;
+				for (Map.Entry<Xref, Set<Xref>> result : results.entrySet()) {
+					if (result.getValue() == null || result.getValue().isEmpty()) continue;
+					mapped.computeIfAbsent(result.getKey(), key -> new HashSet<>()).addAll(result.getValue());
+				}
+			}
+		}
+		return mapped;
+	}
+
+	@Override
+	public boolean xrefExists(Xref xref) throws IDMapperException {
+		for (Route route : routes(xref.getDataSource())) {
+			if (route.mapper.xrefExists(xref)) return true;
+		}
+		return false;
+	}
+
+	@Override
+	public Set<Xref> freeSearch(String text, int limit) throws IDMapperException {
+		Set<Xref> found = new HashSet<>();
+		for (Route route : routes) {
+			found.addAll(route.mapper.freeSearch(text, limit));
+		}
+		return found;
+	}
+
+	@Override
+	public IDMapperCapabilities getCapabilities() {
+		return new IDMapperCapabilities() {
+			@Override
+			public boolean isFreeSearchSupported() {
+				for (Route route : routes) {
+					IDMapperCapabilities capabilities = route.mapper.getCapabilities();
+					if (capabilities != null && capabilities.isFreeSearchSupported()) return true;
+				}
+				return false;
+			}
+			@Override
+			public Set<DataSource> getSupportedSrcDataSources() {
+				return Collections.unmodifiableSet(bySource.keySet());
+			}
+			@Override
+			public Set<DataSource> getSupportedTgtDataSources() {
+				Set<DataSource> targets = new HashSet<>();
+				for (Route route : routes) {
+					if (route.targets != null) targets.addAll(route.targets);
+				}
+				return targets;
+			}
+			@Override
+			public boolean isMappingSupported(DataSource src, DataSource tgt) throws IDMapperException {
+				for (Route route : routes(src)) {
+					IDMapperCapabilities capabilities = route.mapper.getCapabilities();
+					if (capabilities == null || capabilities.isMappingSupported(src, tgt)) return true;
+				}
+				return false;
+			}
+			@Override
+			public String getProperty(String key) {
+				return null;
+			}
+			@Override
+			public Set<String> getKeys() {
+				return Collections.emptySet();
+			}
+		};
+	}
+
+	@Override
+	public void close() throws IDMapperException {
+		for (Route route : routes) {
+			route.mapper.close();
+		}
+	}
+
+	@Override
+	public boolean isConnected() {
+		for (Route route : routes) {
+			if (!route.mapper.isConnected()) return false;
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,99 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.wp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bridgedb.IDMapper;
+import org.bridgedb.IDMapperException;
+import org.bridgedb.IDMapperStack;
+import org.bridgedb.bio.Organism;
+
+/**
+ * The BridgeDb mappers of a mapping release, each for one organism or species-independent,
+ * from which {@link #forOrganism(String)} picks the mappers for the organism of a pathway.
+ * Human pathways are then never looked up in the mouse or yeast databases, while the
+ * metabolite, interaction and complex databases are used for every pathway. Pathways of
+ * organisms BridgeDb does not know use all mappers.
+ *
+ * <p>Add all mappers before the first {@link #forOrganism(String)}.
+ */
+public class SpeciesIDMappers {
+
+	private static class Entry {
+
+		final Organism organism; // null for species-independent mappers
+		final IDMapper mapper;
+
+		Entry(Organism organism, IDMapper mapper) {
+			this.organism = organism;
+			this.mapper = mapper;
+		}
+
+	}
+
+	private final List<Entry> entries = new ArrayList<>();
+	// organism of a pathway -> the mappers for it
+	private final Map<String, IDMapperStack> stacks = new ConcurrentHashMap<>();
+	private IDMapperStack all;
+
+	/**
+	 * Adds a mapper for one organism, or a species-independent mapper when the
+	 * organism is null.
+	 */
+	public SpeciesIDMappers addIDMapper(Organism organism, IDMapper mapper) {
+		entries.add(new Entry(organism, mapper));
+		return this;
+	}
+
+	/**
+	 * Returns the mappers for the organism of a pathway, which can be a comma-separated
+	 * list of Latin names. The same organism always gets the same mapper.
+	 */
+	public IDMapper forOrganism(String organism) {
+		if (organism == null) return all();
+		return stacks.computeIfAbsent(organism, this::select);
+	}
+
+	private IDMapperStack select(String organism) {
+		Set<Organism> organisms = BridgeDbIDMapper.organisms(organism);
+		if (organisms.isEmpty()) return all();
+		IDMapperStack stack = new IDMapperStack();
+		for (Entry entry : entries) {
+			if (entry.organism == null || organisms.contains(entry.organism)) stack.addIDMapper(entry.mapper);
+		}
+		return stack;
+	}
+
+	private synchronized IDMapperStack all() {
+		if (all == null) {
+			all = new IDMapperStack();
+			for (Entry entry : entries) all.addIDMapper(entry.mapper);
+		}
+		return all;
+	}
+
+	/**
+	 * Closes all mappers.
+	 */
+	public void close() throws IDMapperException {
+		for (Entry entry : entries) entry.mapper.close();
+	}
+
+}
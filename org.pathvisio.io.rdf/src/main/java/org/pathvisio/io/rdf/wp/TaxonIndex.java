@@ -0,0 +1,128 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.wp;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bridgedb.bio.Organism;
+
+/**
+ * Maps the Latin names of organisms to NCBI Taxonomy identifiers. The index
+ * combines BridgeDb's {@link Organism} table with the organisms listed in the
+ * bundled <code>taxa.tsv</code>, and is built once. {@link Organism} wins when
+ * both know a name.
+ */
+public class TaxonIndex {
+
+	/** Taxon used for organisms that are not in the index: cellular organisms. */
+	public static final String CELLULAR_ORGANISMS = "131567";
+
+	static final String NCBI_TAXON_URL = "http://purl.obolibrary.org/obo/NCBITaxon_";
+
+	private static final Map<String,String> TAXA = load();
+	private static final Map<String,List<Taxon>> RESOLVED = new ConcurrentHashMap<>();
+
+	/**
+	 * An organism of a pathway with its taxon.
+	 */
+	public static class Taxon {
+
+		public final String name;
+		public final String taxonID;
+		public final String iri;
+
+		Taxon(String name, String taxonID) {
+			this.name = name;
+			this.taxonID = taxonID;
+			this.iri = NCBI_TAXON_URL + taxonID;
+		}
+
+	}
+
+	private TaxonIndex() {}
+
+	/**
+	 * Returns the NCBI Taxonomy identifier for the Latin name, or null when
+	 * the organism is not in the index.
+	 */
+	public static String taxonID(String latinName) {
+		return TAXA.get(latinName);
+	}
+
+	/**
+	 * Resolves the organism of a pathway, which can be a comma-separated list of
+	 * Latin names, to its taxa. Unknown organisms get {@link #CELLULAR_ORGANISMS}.
+	 * The result is cached, so each organism string is only resolved once.
+	 */
+	public static List<Taxon> resolve(String organism) {
+		if (organism == null) return Collections.emptyList();
+		List<Taxon> taxa = RESOLVED.get(organism);
+		if (taxa == null) {
+			taxa = RESOLVED.computeIfAbsent(organism, TaxonIndex::parse);
+		}
+		return taxa;
+	}
+
+	private static List<Taxon> parse(String organism) {
+		if (!organism.contains(",")) {
+			String taxonID = TAXA.get(organism);
+			return Collections.singletonList(new Taxon(organism, taxonID != null ? taxonID : CELLULAR_ORGANISMS));
+		}
+		List<Taxon> taxa = new ArrayList<>();
+		for (String singleOrganism : organism.split(",")) {
+			singleOrganism = singleOrganism.trim();
+			String taxonID = TAXA.get(singleOrganism);
+			if (taxonID == null) {
+				System.out.println("Unknown taxon: " + singleOrganism);
+				taxonID = CELLULAR_ORGANISMS;
+			}
+			taxa.add(new Taxon(singleOrganism, taxonID));
+		}
+		return Collections.unmodifiableList(taxa);
+	}
+
+	private static Map<String,String> load() {
+		Map<String,String> taxa = new HashMap<>();
+		try (InputStream input = TaxonIndex.class.getResourceAsStream("taxa.tsv")) {
+			if (input == null) throw new IllegalStateException("Missing resource: taxa.tsv");
+			BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty() || line.startsWith("#")) continue;
+				String[] fields = line.split("\t", -1);
+				taxa.put(fields[0], fields[1]);
+			}
+		} catch (IOException exception) {
+			throw new IllegalStateException("Could not read taxa.tsv", exception);
+		}
+		for (Organism organism : Organism.values()) {
+			if (organism.latinName() != null && organism.taxonomyID() != null) {
+				taxa.put(organism.latinName(), organism.taxonomyID().getId());
+			}
+		}
+		return Collections.unmodifiableMap(taxa);
+	}
+
+}
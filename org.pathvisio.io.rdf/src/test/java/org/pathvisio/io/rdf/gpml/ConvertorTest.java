@@ -1,12 +1,28 @@
 package org.pathvisio.io.rdf.gpml;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.DCTerms;
+import org.apache.jena.vocabulary.RDF;
 import org.bridgedb.DataSource;
 import org.bridgedb.Xref;
 import org.junit.jupiter.api.Test;
+import org.pathvisio.io.rdf.ontologies.Gpml;
+import org.pathvisio.io.rdf.utils.Utils;
 import org.pathvisio.libgpml.model.PathwayModel;
 
 public class ConvertorTest {
@@ -31,5 +47,204 @@ public class ConvertorTest {
 		model.write(output, "TURTLE");
 		// System.out.println(new String(output.toByteArray()));
 	}
-	
+
+	@Test
+	public void convertGpmlCompactGeometry() throws Exception {
+		PathwayModel pathway = new PathwayModel();
+		InputStream gpmlStream = getClass().getResourceAsStream("/WP4846.gpml"); 
+		pathway.readFromXml(gpmlStream, true);
+		DataSource wpSource = DataSource.register("Wp", "WikiPathways").asDataSource();
+		pathway.getPathway().setXref(new Xref("WP4846", wpSource));
+		Model model = new Convertor(pathway).setCompactGeometry(true).asRDF();
+
+		assertFalse(model.contains(null, RDF.type, Gpml.POINT));
+		assertFalse(model.contains(null, Gpml.HAS_POINT));
+		for (Resource intRes : model.listSubjectsWithProperty(RDF.type, Gpml.INTERACTION).toList()) {
+			assertEquals(1, intRes.listProperties(Gpml.LINE_GEOMETRY).toList().size());
+		}
+	}
+
+	@Test
+	public void convertGpmlDeterministic() throws Exception {
+		assertEquals(canonical(convert()), canonical(convert()));
+	}
+
+	@Test
+	public void convertGpmlInParallel() throws Exception {
+		PathwayModel pathway = new PathwayModel();
+		InputStream gpmlStream = getClass().getResourceAsStream("/WP4846.gpml"); 
+		pathway.readFromXml(gpmlStream, true);
+		DataSource wpSource = DataSource.register("Wp", "WikiPathways").asDataSource();
+		pathway.getPathway().setXref(new Xref("WP4846", wpSource));
+
+		Model sequential = new Convertor(pathway).asRDF();
+		Model parallel = new Convertor(pathway).setParallelism(4).asRDF();
+		assertTrue(sequential.isIsomorphicWith(parallel));
+		assertEquals(canonical(parallel), canonical(new Convertor(pathway).setParallelism(4).asRDF()));
+
+		// on an executor shared by two convertors
+		ExecutorService shared = Executors.newFixedThreadPool(2);
+		try {
+			assertEquals(canonical(parallel), canonical(new Convertor(pathway).setParallelism(4, shared).asRDF()));
+			assertEquals(canonical(parallel), canonical(new Convertor(pathway).setParallelism(4, shared).asRDF()));
+			assertFalse(shared.isShutdown());
+		} finally {
+			shared.shutdown();
+		}
+	}
+
+	@Test
+	public void parallelismBelowOneIsRejected() {
+		Convertor convertor = new Convertor(Utils.WP_RDF_URL);
+		assertThrows(IllegalArgumentException.class, () -> convertor.setParallelism(0));
+		assertThrows(IllegalArgumentException.class, () -> convertor.setParallelism(-1));
+	}
+
+	@Test
+	public void convertGpmlConcurrently() throws Exception {
+		PathwayModel pathway = new PathwayModel();
+		InputStream gpmlStream = getClass().getResourceAsStream("/WP4846.gpml"); 
+		pathway.readFromXml(gpmlStream, true);
+		DataSource wpSource = DataSource.register("Wp", "WikiPathways").asDataSource();
+		pathway.getPathway().setXref(new Xref("WP4846", wpSource));
+
+		// one convertor, shared by all threads
+		Convertor convertor = new Convertor(Utils.WP_RDF_URL);
+		String expected = canonical(convertor.asRDF(pathway));
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < 64; i++) {
+				results.add(executor.submit(() -> canonical(convertor.asRDF(pathway))));
+			}
+			for (Future<String> result : results) {
+				assertEquals(expected, result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void convertGpmlStreaming() throws Exception {
+		PathwayModel pathway = new PathwayModel();
+		InputStream gpmlStream = getClass().getResourceAsStream("/streaming.gpml"); 
+		pathway.readFromXml(gpmlStream, true);
+		DataSource wpSource = DataSource.register("Wp", "WikiPathways").asDataSource();
+		pathway.getPathway().setXref(new Xref("WP1", wpSource));
+		Model expected = new Convertor(pathway).asRDF();
+
+		Model streamed = new StreamingConvertor().asRDF(getClass().getResourceAsStream("/streaming.gpml"), "WP1");
+		assertTrue(expected.isIsomorphicWith(streamed));
+
+		// the nested group refers to its parent group, which comes later in the GPML
+		Resource groupRes = streamed.createResource(Utils.WP_RDF_URL + "/Pathway/WP1_r20250101/Group/gr2");
+		assertTrue(streamed.contains(groupRes, Gpml.GROUP_REF, "gr1"));
+	}
+
+	@Test
+	public void convertGpmlStreamingWP4846() throws Exception {
+		Model expected = new Convertor(readPathway("/WP4846.gpml", "WP4846")).asRDF();
+		Model streamed = new StreamingConvertor().asRDF(getClass().getResourceAsStream("/WP4846.gpml"), "WP4846");
+		assertTrue(expected.isIsomorphicWith(streamed));
+	}
+
+	@Test
+	public void convertShapes() throws Exception {
+		Model model = new Convertor(readPathway("/WP4846.gpml", "WP4846")).asRDF();
+		Resource pwyRes = model.createResource(Utils.WP_RDF_URL + "/Pathway/WP4846_r20200316");
+		assertEquals(10, model.listSubjectsWithProperty(RDF.type, Gpml.SHAPE_CLASS).toList().size());
+
+		Resource shapeRes = model.createResource(pwyRes.getURI() + "/Shape/a7548");
+		assertTrue(model.contains(pwyRes, Gpml.HAS_SHAPE, shapeRes));
+		assertTrue(model.contains(shapeRes, DCTerms.isPartOf, pwyRes));
+		assertTrue(model.contains(shapeRes, Gpml.GRAPH_ID, "a7548"));
+		assertTrue(model.contains(shapeRes, Gpml.CENTER_X, model.createTypedLiteral(640.2769355629047)));
+		assertTrue(model.contains(shapeRes, Gpml.LINE_THICKNESS, model.createTypedLiteral(3.0)));
+		assertTrue(model.contains(shapeRes, Gpml.ROTATION, model.createTypedLiteral(0.0)));
+		assertTrue(model.contains(shapeRes, Gpml.COLOR, "c0c0c0"));
+		assertTrue(model.contains(shapeRes, Gpml.HAS_PUBLICATION_XREF, model.createResource(pwyRes.getURI() + "/PublicationXref/d8f")));
+	}
+
+	@Test
+	public void convertCitations() throws Exception {
+		PathwayModel pathway = readPathway("/WP4846.gpml", "WP4846");
+		Model model = new Convertor(pathway).asRDF();
+		Resource pwyRes = model.createResource(Utils.WP_RDF_URL + "/Pathway/WP4846_r20200316");
+
+		// every citation is described once, after libGPML merged the duplicates
+		assertFalse(pathway.getCitations().isEmpty());
+		assertEquals(pathway.getCitations().size(),
+			model.listSubjectsWithProperty(RDF.type, Gpml.PUBLICATION_XREF).toList().size());
+		Resource citationRes = model.createResource(pwyRes.getURI() + "/PublicationXref/d8f");
+		assertTrue(model.contains(citationRes, DCTerms.isPartOf, pwyRes));
+		assertTrue(model.contains(citationRes, Gpml.ID, "32130973"));
+		assertTrue(model.contains(citationRes, Gpml.DATABASE, "PubMed"));
+	}
+
+	@Test
+	public void convertPathwayCitation() throws Exception {
+		PathwayModel pathway = readPathway("/streaming.gpml", "WP1");
+		Model model = new Convertor(pathway).asRDF();
+		Resource pwyRes = model.createResource(Utils.WP_RDF_URL + "/Pathway/WP1_r20250101");
+
+		assertEquals(2, pathway.getCitations().size());
+		assertEquals(2, model.listSubjectsWithProperty(RDF.type, Gpml.PUBLICATION_XREF).toList().size());
+		Resource citationRes = model.createResource(pwyRes.getURI() + "/PublicationXref/b1");
+		assertTrue(model.contains(pwyRes, Gpml.HAS_PUBLICATION_XREF, citationRes));
+		assertTrue(model.contains(citationRes, Gpml.GRAPH_ID, "b1"));
+		assertTrue(model.contains(citationRes, Gpml.ID, "10000001"));
+		assertFalse(model.contains(pwyRes, Gpml.HAS_PUBLICATION_XREF, model.createResource(pwyRes.getURI() + "/PublicationXref/b2")));
+	}
+
+	@Test
+	public void convertGraphicalLinesAndStates() throws Exception {
+		Model model = new Convertor(readPathway("/streaming.gpml", "WP1")).asRDF();
+		Resource pwyRes = model.createResource(Utils.WP_RDF_URL + "/Pathway/WP1_r20250101");
+
+		Resource lineRes = model.createResource(pwyRes.getURI() + "/GraphicalLine/gl1");
+		assertTrue(model.contains(lineRes, RDF.type, Gpml.GRAPHICAL_LINE));
+		assertTrue(model.contains(pwyRes, Gpml.HAS_GRAPHICAL_LINE, lineRes));
+		assertTrue(model.contains(lineRes, Gpml.LINE_STYLE, "Broken"));
+		assertTrue(model.contains(lineRes, Gpml.COLOR, "808080"));
+		assertEquals(2, lineRes.listProperties(Gpml.HAS_POINT).toList().size());
+		assertFalse(model.contains(lineRes, RDF.type, Gpml.INTERACTION));
+
+		Resource stateRes = model.createResource(pwyRes.getURI() + "/State/s1");
+		Resource dataNodeRes = model.createResource(pwyRes.getURI() + "/DataNode/d2");
+		assertTrue(model.contains(stateRes, RDF.type, Gpml.STATE));
+		assertTrue(model.contains(pwyRes, Gpml.HAS_STATE, stateRes));
+		assertTrue(model.contains(stateRes, DCTerms.isPartOf, dataNodeRes));
+		assertTrue(model.contains(stateRes, Gpml.GRAPH_REF, "d2"));
+		assertTrue(model.contains(stateRes, Gpml.TEXTLABEL, "P"));
+		assertTrue(model.contains(stateRes, Gpml.REL_X, model.createTypedLiteral(1.0)));
+		assertTrue(model.contains(stateRes, Gpml.REL_Y, model.createTypedLiteral(-1.0)));
+	}
+
+	private PathwayModel readPathway(String resource, String wpId) throws Exception {
+		PathwayModel pathway = new PathwayModel();
+		pathway.readFromXml(getClass().getResourceAsStream(resource), true);
+		DataSource wpSource = DataSource.register("Wp", "WikiPathways").asDataSource();
+		pathway.getPathway().setXref(new Xref(wpId, wpSource));
+		return pathway;
+	}
+
+	private Model convert() throws Exception {
+		PathwayModel pathway = new PathwayModel();
+		InputStream gpmlStream = getClass().getResourceAsStream("/WP4846.gpml"); 
+		pathway.readFromXml(gpmlStream, true);
+		DataSource wpSource = DataSource.register("Wp", "WikiPathways").asDataSource();
+		pathway.getPathway().setXref(new Xref("WP4846", wpSource));
+		return new Convertor(pathway).asRDF();
+	}
+
+	// sorted N-Triples, which is canonical for models without blank nodes
+	private String canonical(Model model) {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		model.write(output, "N-TRIPLE");
+		String[] lines = new String(output.toByteArray()).split("\n");
+		Arrays.sort(lines);
+		return String.join("\n", lines);
+	}
+
 }
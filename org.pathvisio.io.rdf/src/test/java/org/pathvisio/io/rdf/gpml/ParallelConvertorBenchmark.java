@@ -0,0 +1,66 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.gpml;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.jena.rdf.model.Model;
+import org.bridgedb.DataSource;
+import org.bridgedb.Xref;
+import org.pathvisio.io.rdf.wp.InteractionConvertorBenchmark;
+import org.pathvisio.libgpml.model.PathwayModel;
+
+/**
+ * Times the GPMLRDF conversion of one synthetic pathway with 1 up to N threads,
+ * see {@link Convertor#setParallelism(int)}. The pathway is the chain of DataNodes
+ * and conversions of {@link InteractionConvertorBenchmark}.
+ *
+ * Not a unit test; run it with, for example:
+ * <pre>
+ * java -cp target/classes:target/test-classes:... org.pathvisio.io.rdf.gpml.ParallelConvertorBenchmark 20000 8
+ * </pre>
+ */
+public class ParallelConvertorBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+		DataSource wpSource = DataSource.register("Wp", "WikiPathways").asDataSource();
+		PathwayModel pathway = new PathwayModel();
+		String gpml = InteractionConvertorBenchmark.syntheticGpml(size);
+		pathway.readFromXml(new ByteArrayInputStream(gpml.getBytes(StandardCharsets.UTF_8)), false);
+		pathway.getPathway().setXref(new Xref("WP" + size, wpSource));
+
+		long sequentialMillis = 0;
+		for (int threads = 1; threads <= maxThreads; threads++) {
+			Convertor convertor = new Convertor(pathway).setParallelism(threads);
+			convertor.asRDF(); // warm up
+			int runs = 5;
+			long start = System.nanoTime();
+			long triples = 0;
+			for (int run = 0; run < runs; run++) {
+				Model model = convertor.asRDF();
+				triples = model.size();
+			}
+			long millis = (System.nanoTime() - start) / runs / 1_000_000;
+			if (threads == 1) sequentialMillis = millis;
+			System.out.println(String.format("%2d threads: %d triples in %d ms (speed-up %.2f)",
+				threads, triples, millis, (double)sequentialMillis / Math.max(1, millis)));
+		}
+	}
+
+}
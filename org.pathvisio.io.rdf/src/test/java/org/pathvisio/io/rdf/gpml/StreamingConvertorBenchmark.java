@@ -0,0 +1,109 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.gpml;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWriter;
+import org.bridgedb.DataSource;
+import org.bridgedb.Xref;
+import org.pathvisio.io.rdf.wp.InteractionConvertorBenchmark;
+import org.pathvisio.libgpml.model.PathwayModel;
+
+/**
+ * Prints the peak heap use of writing the GPMLRDF of synthetic pathways of growing
+ * size as N-Triples, once by reading the GPML into a {@link PathwayModel} and
+ * converting it with {@link Convertor}, and once with the {@link StreamingConvertor}.
+ * The pathways are the chains of DataNodes and conversions of
+ * {@link InteractionConvertorBenchmark}, read from a temporary file. The output
+ * is discarded.
+ *
+ * Not a unit test; run it with, for example:
+ * <pre>
+ * java -cp target/classes:target/test-classes:... org.pathvisio.io.rdf.gpml.StreamingConvertorBenchmark 1000 10000 100000
+ * </pre>
+ */
+public class StreamingConvertorBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int[] sizes = args.length > 0
+			? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+			: new int[] { 1000, 10000, 100000 };
+		DataSource wpSource = DataSource.register("Wp", "WikiPathways").asDataSource();
+
+		for (int size : sizes) {
+			File file = File.createTempFile("pathway", ".gpml");
+			file.deleteOnExit();
+			Files.write(file.toPath(), InteractionConvertorBenchmark.syntheticGpml(size).getBytes(StandardCharsets.UTF_8));
+			String wpId = "WP" + size;
+
+			long modelPeak = peakHeap(() -> {
+				PathwayModel pathway = new PathwayModel();
+				try (InputStream gpml = new FileInputStream(file)) {
+					pathway.readFromXml(gpml, false);
+				}
+				pathway.getPathway().setXref(new Xref(wpId, wpSource));
+				Model model = new Convertor(pathway).asRDF();
+				RDFDataMgr.write(OutputStream.nullOutputStream(), model, Lang.NTRIPLES);
+			});
+			long streamingPeak = peakHeap(() -> {
+				StreamRDF output = StreamRDFWriter.getWriterStream(OutputStream.nullOutputStream(), Lang.NTRIPLES);
+				try (InputStream gpml = new FileInputStream(file)) {
+					new StreamingConvertor().convert(gpml, wpId, output);
+				}
+			});
+			System.out.println(String.format("%7d elements, %6d kB of GPML: Convertor %5d MB, StreamingConvertor %5d MB peak heap",
+				size, file.length() / 1024, modelPeak / (1024 * 1024), streamingPeak / (1024 * 1024)));
+			file.delete();
+		}
+	}
+
+	interface Conversion {
+		void run() throws Exception;
+	}
+
+	/**
+	 * Returns the peak heap use while running the conversion, above the heap in use before.
+	 */
+	private static long peakHeap(Conversion conversion) throws Exception {
+		System.gc();
+		long before = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() != MemoryType.HEAP) continue;
+			before += pool.getUsage().getUsed();
+			pool.resetPeakUsage();
+		}
+		conversion.run();
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+		}
+		return peak - before;
+	}
+
+}
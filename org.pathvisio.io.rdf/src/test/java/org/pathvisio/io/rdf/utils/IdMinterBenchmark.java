@@ -0,0 +1,60 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Times {@link IdMinter#MD5} against {@link IdMinter#FNV1A} on inputs shaped like the
+ * ones the GPMLRDF convertors hash: comment texts of a few hundred characters, and the
+ * short "index x y" strings of interaction points.
+ *
+ * Not a unit test; run it with, for example:
+ * <pre>
+ * java -cp target/classes:target/test-classes:... org.pathvisio.io.rdf.utils.IdMinterBenchmark 1000000
+ * </pre>
+ */
+public class IdMinterBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int inputs = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+		List<String> comments = new ArrayList<>();
+		List<String> points = new ArrayList<>();
+		StringBuilder text = new StringBuilder();
+		while (text.length() < 300) text.append("This pathway describes the conversion of metabolites by enzymes. ");
+		for (int i = 0; i < inputs; i++) {
+			comments.add(i + " " + text);
+			points.add((i % 4) + " " + (100.0 + i % 977) + " " + (250.5 + i % 613));
+		}
+
+		for (int round = 0; round < 3; round++) {
+			run("MD5, comments:", IdMinter.MD5, comments);
+			run("FNV-1a, comments:", IdMinter.FNV1A, comments);
+			run("MD5, points:", IdMinter.MD5, points);
+			run("FNV-1a, points:", IdMinter.FNV1A, points);
+		}
+	}
+
+	private static void run(String label, IdMinter minter, List<String> inputs) {
+		long start = System.nanoTime();
+		int length = 0;
+		for (String input : inputs) length += minter.mint(input).length();
+		System.out.println(String.format("%-20s %d IRIs in %d ms (%d characters)",
+			label, inputs.size(), (System.nanoTime() - start) / 1_000_000, length));
+	}
+
+}
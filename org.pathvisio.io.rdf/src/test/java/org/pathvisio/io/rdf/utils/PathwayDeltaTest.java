@@ -0,0 +1,189 @@
+package org.pathvisio.io.rdf.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.NodeFactory;
+import org.bridgedb.DataSource;
+import org.bridgedb.Xref;
+import org.junit.jupiter.api.Test;
+import org.pathvisio.io.rdf.gpml.Convertor;
+import org.pathvisio.io.rdf.ontologies.Gpml;
+import org.pathvisio.libgpml.model.DataNode;
+import org.pathvisio.libgpml.model.PathwayModel;
+
+public class PathwayDeltaTest {
+
+	@Test
+	public void unchanged() throws Exception {
+		PathwayDelta delta = new PathwayDelta(
+			new Convertor(read(gpml())).asElementGraphs(),
+			new Convertor(read(gpml())).asElementGraphs()
+		);
+		assertTrue(delta.isEmpty());
+	}
+
+	@Test
+	public void changedDataNode() throws Exception {
+		PathwayModel newPathway = read(gpml());
+		DataNode node = newPathway.getDataNodes().get(0);
+		node.setTextLabel("changed label");
+		PathwayDelta delta = new PathwayDelta(
+			new Convertor(read(gpml())).asElementGraphs(),
+			new Convertor(newPathway).asElementGraphs()
+		);
+		assertEquals(1, delta.getDeleted().size());
+		assertEquals(1, delta.getAdded().size());
+		assertTrue(delta.getAdded().contains(null, Gpml.TEXTLABEL.asNode(), NodeFactory.createLiteral("changed label")));
+		assertTrue(delta.toSparqlUpdate().startsWith("DELETE DATA {"));
+	}
+
+	@Test
+	public void convertsOnlyTheChangedDataNode() throws Exception {
+		String oldGpml = gpml();
+		String newGpml = oldGpml.replace("TextLabel=\"SCARB1\" GraphId=\"a59d5\"", "TextLabel=\"changed label\" GraphId=\"a59d5\"");
+		RecordingConvertor oldRevision = new RecordingConvertor(new Convertor(read(oldGpml)));
+		RecordingConvertor newRevision = new RecordingConvertor(new Convertor(read(newGpml)));
+
+		PathwayDelta delta = PathwayDelta.between(
+			GpmlFingerprints.read(stream(oldGpml)), oldRevision,
+			GpmlFingerprints.read(stream(newGpml)), newRevision
+		);
+		assertEquals(Collections.singleton("a59d5"), oldRevision.converted);
+		assertEquals(Collections.singleton("a59d5"), newRevision.converted);
+		assertEquals(1, delta.getDeleted().size());
+		assertEquals(1, delta.getAdded().size());
+		assertTrue(delta.getAdded().contains(null, Gpml.TEXTLABEL.asNode(), NodeFactory.createLiteral("changed label")));
+
+		// the same delta as when all elements are compared
+		PathwayDelta full = new PathwayDelta(
+			new Convertor(read(oldGpml)).asElementGraphs(),
+			new Convertor(read(newGpml)).asElementGraphs()
+		);
+		assertTrue(full.getDeleted().isIsomorphicWith(delta.getDeleted()));
+		assertTrue(full.getAdded().isIsomorphicWith(delta.getAdded()));
+	}
+
+	@Test
+	public void newVersionComparesAllElements() throws Exception {
+		String oldGpml = gpml();
+		String newGpml = oldGpml.replace("Version=\"20200316\"", "Version=\"20200401\"")
+			.replace("TextLabel=\"SCARB1\" GraphId=\"a59d5\"", "TextLabel=\"changed label\" GraphId=\"a59d5\"");
+		RecordingConvertor oldRevision = new RecordingConvertor(new Convertor(read(oldGpml)));
+		RecordingConvertor newRevision = new RecordingConvertor(new Convertor(read(newGpml)));
+
+		PathwayDelta delta = PathwayDelta.between(
+			GpmlFingerprints.read(stream(oldGpml)), oldRevision,
+			GpmlFingerprints.read(stream(newGpml)), newRevision
+		);
+		// the revision is part of every element IRI
+		assertTrue(newRevision.converted.contains("a9205"));
+		PathwayDelta full = new PathwayDelta(
+			new Convertor(read(oldGpml)).asElementGraphs(),
+			new Convertor(read(newGpml)).asElementGraphs()
+		);
+		assertTrue(full.getDeleted().isIsomorphicWith(delta.getDeleted()));
+		assertTrue(full.getAdded().isIsomorphicWith(delta.getAdded()));
+	}
+
+	@Test
+	public void convertsTheInteractionsOfAChangedDataNodeInWPRDF() throws Exception {
+		String oldGpml = gpml();
+		// nsp15 has an Xref in common with two other DataNodes, and an interaction points to it
+		String newGpml = oldGpml.replaceFirst("(?s)(GraphId=\"a9205\".*?)ID=\"Q87917579\"", "$1ID=\"Q87917580\"");
+		RecordingConvertor oldRevision = new RecordingConvertor(
+			new org.pathvisio.io.rdf.wp.Convertor(read(oldGpml), Utils.WP_RDF_URL, null));
+		RecordingConvertor newRevision = new RecordingConvertor(
+			new org.pathvisio.io.rdf.wp.Convertor(read(newGpml), Utils.WP_RDF_URL, null));
+
+		PathwayDelta delta = PathwayDelta.between(
+			GpmlFingerprints.read(stream(oldGpml)), oldRevision,
+			GpmlFingerprints.read(stream(newGpml)), newRevision
+		);
+		assertTrue(newRevision.converted.contains("a9205"));
+		assertTrue(newRevision.converted.contains("id126968be"));
+		assertFalse(newRevision.converted.contains("a59d5"));
+		assertFalse(delta.isEmpty());
+
+		PathwayDelta full = new PathwayDelta(
+			new org.pathvisio.io.rdf.wp.Convertor(read(oldGpml), Utils.WP_RDF_URL, null).asElementGraphs(),
+			new org.pathvisio.io.rdf.wp.Convertor(read(newGpml), Utils.WP_RDF_URL, null).asElementGraphs()
+		);
+		assertTrue(full.getDeleted().isIsomorphicWith(delta.getDeleted()));
+		assertTrue(full.getAdded().isIsomorphicWith(delta.getAdded()));
+	}
+
+	@Test
+	public void unchangedFingerprints() throws Exception {
+		String gpml = gpml();
+		RecordingConvertor oldRevision = new RecordingConvertor(new Convertor(read(gpml)));
+		RecordingConvertor newRevision = new RecordingConvertor(new Convertor(read(gpml)));
+		PathwayDelta delta = PathwayDelta.between(
+			GpmlFingerprints.read(stream(gpml)), oldRevision,
+			GpmlFingerprints.read(stream(gpml)), newRevision
+		);
+		assertTrue(delta.isEmpty());
+		assertTrue(oldRevision.converted.isEmpty());
+		assertTrue(newRevision.converted.isEmpty());
+	}
+
+	// records which element graphs the delta asks for
+	static class RecordingConvertor implements ElementConvertor {
+
+		final ElementConvertor convertor;
+		final Set<String> converted = new HashSet<>();
+
+		RecordingConvertor(ElementConvertor convertor) {
+			this.convertor = convertor;
+		}
+
+		@Override
+		public Map<String, Graph> asElementGraphs() {
+			Map<String, Graph> graphs = convertor.asElementGraphs();
+			converted.addAll(graphs.keySet());
+			return graphs;
+		}
+
+		@Override
+		public Map<String, Graph> asElementGraphs(Set<String> elementIds) {
+			Map<String, Graph> graphs = convertor.asElementGraphs(elementIds);
+			converted.addAll(graphs.keySet());
+			return graphs;
+		}
+
+		@Override
+		public boolean dependsOnLinkedElements() {
+			return convertor.dependsOnLinkedElements();
+		}
+
+	}
+
+	private String gpml() throws Exception {
+		try (InputStream gpmlStream = getClass().getResourceAsStream("/WP4846.gpml")) {
+			return new String(gpmlStream.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+	private static InputStream stream(String gpml) {
+		return new ByteArrayInputStream(gpml.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private PathwayModel read(String gpml) throws Exception {
+		PathwayModel pathway = new PathwayModel();
+		pathway.readFromXml(stream(gpml), true);
+		DataSource wpSource = DataSource.register("Wp", "WikiPathways").asDataSource();
+		pathway.getPathway().setXref(new Xref("WP4846", wpSource));
+		return pathway;
+	}
+
+}
@@ -0,0 +1,172 @@
+package org.pathvisio.io.rdf.wp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.bridgedb.DataSource;
+import org.bridgedb.IDMapper;
+import org.bridgedb.IDMapperCapabilities;
+import org.bridgedb.IDMapperException;
+import org.bridgedb.Xref;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pathvisio.io.rdf.ontologies.Wp;
+
+public class BridgeDbIDMapperTest {
+
+	@TempDir
+	Path folder;
+
+	/**
+	 * Maps identifiers within groups of equivalent identifiers, and counts the
+	 * lookups. Each lookup can take some time, like a query on a mapping database.
+	 */
+	static class CountingMapper implements IDMapper {
+
+		final Map<Xref, Set<Xref>> equivalents = new HashMap<>();
+		final AtomicInteger queries = new AtomicInteger();
+		final AtomicInteger bulkQueries = new AtomicInteger();
+		final long latencyNanos;
+
+		CountingMapper(long latencyNanos) {
+			this.latencyNanos = latencyNanos;
+		}
+
+		void addEquivalents(Xref... xrefs) {
+			Set<Xref> group = new HashSet<>(Arrays.asList(xrefs));
+			for (Xref xref : xrefs) equivalents.put(xref, group);
+		}
+
+		@Override
+		public Set<Xref> mapID(Xref ref, DataSource... tgtDataSources) {
+			queries.incrementAndGet();
+			long end = System.nanoTime() + latencyNanos;
+			while (System.nanoTime() < end) Thread.onSpinWait();
+			Set<Xref> mapped = new HashSet<>();
+			List<DataSource> targets = Arrays.asList(tgtDataSources);
+			for (Xref xref : equivalents.getOrDefault(ref, new HashSet<>())) {
+				if (targets.isEmpty() || targets.contains(xref.getDataSource())) mapped.add(xref);
+			}
+			return mapped;
+		}
+
+		@Override
+		public Map<Xref, Set<Xref>> mapID(Collection<Xref> srcXrefs, DataSource... tgtDataSources) {
+			bulkQueries.incrementAndGet();
+			Map<Xref, Set<Xref>> results = new HashMap<>();
+			for (Xref xref : srcXrefs) results.put(xref, mapID(xref, tgtDataSources));
+			return results;
+		}
+
+		@Override public boolean xrefExists(Xref xref) { return equivalents.containsKey(xref); }
+		@Override public Set<Xref> freeSearch(String text, int limit) { return new HashSet<>(); }
+		@Override public IDMapperCapabilities getCapabilities() { return null; }
+		@Override public void close() throws IDMapperException {}
+		@Override public boolean isConnected() { return true; }
+
+	}
+
+	static void registerDataSources() {
+		DataSource.register("En", "Ensembl");
+		DataSource.register("S", "Uniprot-TrEMBL");
+		DataSource.register("L", "Entrez Gene");
+		DataSource.register("H", "HGNC");
+		DataSource.register("Ch", "HMDB");
+		DataSource.register("Cs", "Chemspider");
+		DataSource.register("Ce", "ChEBI");
+		DataSource.register("Wd", "Wikidata");
+		DataSource.register("Cpc", "PubChem-compound");
+		DataSource.register("Ck", "KEGG Compound");
+		DataSource.register("Lm", "LIPID MAPS");
+		DataSource.register("Ik", "InChIKey");
+		DataSource.register("Re", "Reactome");
+		DataSource.register("Rh", "Rhea");
+		DataSource.register("Cpx", "Complex Portal");
+		DataSource.register("Pbd", "DOI");
+	}
+
+	@Test
+	public void mapsToAllTargetsInOneLookup() throws Exception {
+		registerDataSources();
+		DataSource chebi = DataSource.getExistingBySystemCode("Ce");
+		CountingMapper mapper = new CountingMapper(0);
+		mapper.addEquivalents(new Xref("15377", chebi), new Xref("Q283", DataSource.getExistingBySystemCode("Wd")),
+			new Xref("XLYOFNOQVPJJNP-UHFFFAOYSA-N", DataSource.getExistingBySystemCode("Ik")));
+
+		Model model = ModelFactory.createDefaultModel();
+		Resource node = model.createResource("https://example.org/node");
+		BridgeDbIDMapper.getUnifiedIdentifiers(model, mapper, new Xref("15377", chebi), node);
+
+		assertEquals(1, mapper.queries.get());
+		assertTrue(model.contains(node, Wp.bdbChEBI, model.createResource("https://identifiers.org/chebi/CHEBI:15377")));
+		assertTrue(model.contains(node, Wp.bdbWikidata, model.createResource("http://www.wikidata.org/entity/Q283")));
+		assertTrue(model.contains(node, Wp.bdbInChIKey,
+			model.createResource("https://identifiers.org/inchikey/XLYOFNOQVPJJNP-UHFFFAOYSA-N")));
+	}
+
+	@Test
+	public void retriesOldHmdbIdentifiersOnce() throws Exception {
+		registerDataSources();
+		DataSource hmdb = DataSource.getExistingBySystemCode("Ch");
+		CountingMapper mapper = new CountingMapper(0);
+		mapper.addEquivalents(new Xref("HMDB02111", hmdb), new Xref("Q283", DataSource.getExistingBySystemCode("Wd")));
+
+		Model model = ModelFactory.createDefaultModel();
+		Resource node = model.createResource("https://example.org/node");
+		BridgeDbIDMapper.getUnifiedIdentifiers(model, mapper, new Xref("HMDB0002111", hmdb), node);
+
+		assertEquals(2, mapper.queries.get());
+		assertTrue(model.contains(node, Wp.bdbHmdb, model.createResource("https://identifiers.org/hmdb/HMDB0002111")));
+		assertFalse(model.contains(node, Wp.bdbHmdb, model.createResource("https://identifiers.org/hmdb/HMDB02111")));
+		assertTrue(model.contains(node, Wp.bdbWikidata, model.createResource("http://www.wikidata.org/entity/Q283")));
+	}
+
+	@Test
+	public void selectsTheMappingFilesForTheOrganism() {
+		File human = new File("Hs_Derby_Ensembl_108.bridge");
+		File mouse = new File("Mm_Derby_Ensembl_108.bridge");
+		File yeast = new File("Sc_Derby_Ensembl_108.bridge");
+		File metabolites = new File("metabolites_20240101.bridge");
+		File interactions = new File("rhea-interactions.bridge");
+		File[] files = { human, mouse, yeast, metabolites, interactions };
+
+		assertEquals(Arrays.asList(human, metabolites, interactions),
+			Arrays.asList(BridgeDbIDMapper.selectForOrganism(files, "Homo sapiens")));
+		assertEquals(Arrays.asList(human, mouse, metabolites, interactions),
+			Arrays.asList(BridgeDbIDMapper.selectForOrganism(files, "Homo sapiens, Mus musculus")));
+		assertEquals(Arrays.asList(files), Arrays.asList(BridgeDbIDMapper.selectForOrganism(files, "Unknown species")));
+		assertEquals(Arrays.asList(files), Arrays.asList(BridgeDbIDMapper.selectForOrganism(files, null)));
+	}
+
+	@Test
+	public void listsTheMappingFilesInNameOrder() throws Exception {
+		for (String name : new String[] { "metabolites.bridge", "Mm_Derby.bridge", "README.txt", "Hs_Derby.bridge" }) {
+			Files.createFile(folder.resolve(name));
+		}
+		Properties prop = new Properties();
+		prop.setProperty("bridgefiles", folder.toString());
+
+		File[] files = BridgeDbIDMapper.bridgeFiles(prop);
+		assertEquals(Arrays.asList("Hs_Derby.bridge", "Mm_Derby.bridge", "metabolites.bridge"),
+			Arrays.asList(files[0].getName(), files[1].getName(), files[2].getName()));
+		assertEquals(3, files.length);
+	}
+
+}
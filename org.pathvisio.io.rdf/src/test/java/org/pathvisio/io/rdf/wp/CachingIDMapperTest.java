@@ -0,0 +1,93 @@
+package org.pathvisio.io.rdf.wp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.IDMapperStack;
+import org.bridgedb.Xref;
+import org.junit.jupiter.api.Test;
+
+public class CachingIDMapperTest {
+
+	@Test
+	public void cachesLookups() throws Exception {
+		DataSource chebi = DataSource.register("Ce", "ChEBI").asDataSource();
+		DataSource wikidata = DataSource.register("Wd", "Wikidata").asDataSource();
+		CachingIDMapper mapper = new CachingIDMapper(new IDMapperStack(), 10);
+
+		Xref xref = new Xref("CHEBI:15377", chebi);
+		Set<Xref> first = mapper.mapID(xref, wikidata);
+		Set<Xref> second = mapper.mapID(xref, wikidata);
+		assertTrue(first.isEmpty());
+		assertEquals(first, second);
+
+		CachingIDMapper.Stats stats = mapper.getStats();
+		assertEquals(1, stats.hits);
+		assertEquals(1, stats.misses);
+		assertEquals(1, stats.size);
+		assertEquals(0.5, stats.hitRate());
+	}
+
+	@Test
+	public void cachesEachTargetOfALookup() throws Exception {
+		DataSource chebi = DataSource.register("Ce", "ChEBI").asDataSource();
+		DataSource wikidata = DataSource.register("Wd", "Wikidata").asDataSource();
+		DataSource hmdb = DataSource.register("Ch", "HMDB").asDataSource();
+		CachingIDMapper mapper = new CachingIDMapper(new IDMapperStack(), 10);
+
+		Xref xref = new Xref("CHEBI:15377", chebi);
+		mapper.mapID(xref, wikidata, hmdb);
+		mapper.mapID(xref, wikidata);
+
+		CachingIDMapper.Stats stats = mapper.getStats();
+		assertEquals(1, stats.hits);
+		assertEquals(2, stats.misses);
+		assertEquals(2, stats.size);
+	}
+
+	@Test
+	public void bulkLookupsUseTheCache() throws Exception {
+		DataSource chebi = DataSource.register("Ce", "ChEBI").asDataSource();
+		DataSource wikidata = DataSource.register("Wd", "Wikidata").asDataSource();
+		CachingIDMapper mapper = new CachingIDMapper(new IDMapperStack(), 10);
+
+		Xref water = new Xref("CHEBI:15377", chebi);
+		Xref glucose = new Xref("CHEBI:17234", chebi);
+		mapper.mapID(water, wikidata);
+		Map<Xref, Set<Xref>> results = mapper.mapID(Arrays.asList(water, glucose), wikidata);
+		assertEquals(2, results.size());
+
+		CachingIDMapper.Stats stats = mapper.getStats();
+		assertEquals(1, stats.hits);
+		assertEquals(2, stats.misses);
+		assertEquals(2, stats.size);
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsed() throws Exception {
+		DataSource chebi = DataSource.register("Ce", "ChEBI").asDataSource();
+		DataSource wikidata = DataSource.register("Wd", "Wikidata").asDataSource();
+		CachingIDMapper mapper = new CachingIDMapper(new IDMapperStack(), 2);
+
+		Xref water = new Xref("CHEBI:15377", chebi);
+		Xref glucose = new Xref("CHEBI:17234", chebi);
+		Xref ethanol = new Xref("CHEBI:16236", chebi);
+		mapper.mapID(water, wikidata);
+		mapper.mapID(glucose, wikidata);
+		mapper.mapID(water, wikidata); // glucose is now the least recently used
+		mapper.mapID(ethanol, wikidata);
+		mapper.mapID(water, wikidata);
+
+		CachingIDMapper.Stats stats = mapper.getStats();
+		assertEquals(1, stats.evictions);
+		assertEquals(2, stats.size);
+		assertEquals(2, stats.hits);
+		assertEquals(3, stats.misses);
+	}
+
+}
@@ -1,12 +1,31 @@
 package org.pathvisio.io.rdf.wp;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.vocabulary.RDF;
 import org.bridgedb.DataSource;
 import org.bridgedb.Xref;
 import org.junit.jupiter.api.Test;
+import org.pathvisio.io.rdf.ontologies.Wp;
+import org.pathvisio.io.rdf.utils.Utils;
+import org.pathvisio.io.rdf.wp.BridgeDbIDMapperTest.CountingMapper;
+import org.pathvisio.libgpml.model.DataNode;
 import org.pathvisio.libgpml.model.PathwayModel;
 
 public class ConvertorTest {
@@ -36,5 +55,153 @@ public class ConvertorTest {
 		model.write(output, "TURTLE");
 		// System.out.println(new String(output.toByteArray()));
 	}
-	
+
+	@Test
+	public void convertGpmlInParallel() throws Exception {
+		PathwayModel pathway = new PathwayModel();
+		InputStream gpmlStream = getClass().getResourceAsStream("/WP4846.gpml"); 
+		pathway.readFromXml(gpmlStream, true);
+		DataSource wpSource = DataSource.register("Wp", "WikiPathways").asDataSource();
+		pathway.getPathway().setXref(new Xref("WP4846", wpSource));
+
+		Model sequential = new Convertor(Utils.WP_RDF_URL, null).asRDF(pathway);
+		Model parallel = new Convertor(Utils.WP_RDF_URL, null).setParallelism(4).asRDF(pathway);
+		assertTrue(sequential.isIsomorphicWith(parallel));
+
+		// on an executor shared by two convertors
+		ExecutorService shared = Executors.newFixedThreadPool(2);
+		try {
+			assertTrue(sequential.isIsomorphicWith(new Convertor(Utils.WP_RDF_URL, null).setParallelism(4, shared).asRDF(pathway)));
+			assertTrue(sequential.isIsomorphicWith(new Convertor(Utils.WP_RDF_URL, null).setParallelism(4, shared).asRDF(pathway)));
+			assertFalse(shared.isShutdown());
+		} finally {
+			shared.shutdown();
+		}
+	}
+
+	@Test
+	public void parallelismBelowOneIsRejected() throws Exception {
+		Convertor convertor = new Convertor(Utils.WP_RDF_URL, null);
+		assertThrows(IllegalArgumentException.class, () -> convertor.setParallelism(0));
+		assertThrows(IllegalArgumentException.class, () -> convertor.setParallelism(-1));
+	}
+
+	@Test
+	public void convertGpmlWithPrefetchedMappings() throws Exception {
+		BridgeDbIDMapperTest.registerDataSources();
+		IRINormalizerTest.registerIdentifiersOrgDataSources();
+		DataSource hmdb = DataSource.getExistingBySystemCode("Ch");
+		DataSource wikidata = DataSource.getExistingBySystemCode("Wd");
+		PathwayModel pathway = new PathwayModel();
+		InputStream gpmlStream = getClass().getResourceAsStream("/WP4846.gpml"); 
+		pathway.readFromXml(gpmlStream, true);
+		DataSource wpSource = DataSource.register("Wp", "WikiPathways").asDataSource();
+		pathway.getPathway().setXref(new Xref("WP4846", wpSource));
+
+		// the ChEBI metabolites map to Wikidata; one gets an HMDB00xxxxx identifier that
+		// the mapping file only knows in the HMDBxxxxx form
+		CountingMapper counting = new CountingMapper(0);
+		Set<Xref> metabolites = new LinkedHashSet<>();
+		for (DataNode node : pathway.getDataNodes()) {
+			if (!"Metabolite".equals(node.getType().getName())) continue;
+			if (metabolites.isEmpty()) node.setXref(new Xref("HMDB0002111", hmdb));
+			if (metabolites.add(node.getXref())) {
+				counting.addEquivalents(node.getXref(), new Xref("Q" + metabolites.size(), wikidata));
+			}
+		}
+		counting.addEquivalents(new Xref("HMDB02111", hmdb), new Xref("Q283", wikidata));
+		metabolites.add(new Xref("HMDB02111", hmdb));
+
+		Model expected = new Convertor(Utils.WP_RDF_URL, counting).asRDF(pathway);
+		assertTrue(expected.contains(null, Wp.bdbWikidata, expected.createResource("http://www.wikidata.org/entity/Q283")));
+		assertEquals(0, counting.bulkQueries.get());
+		counting.queries.set(0);
+
+		Model prefetched = new Convertor(Utils.WP_RDF_URL, counting).setPrefetchMappings(true).asRDF(pathway);
+		assertTrue(expected.isIsomorphicWith(prefetched));
+		// one bulk lookup per target, for all metabolites and the HMDBxxxxx fallback, and
+		// no lookups of single identifiers besides those of the bulk lookups
+		assertEquals(BridgeDbIDMapper.TARGET_SYSTEM_CODES.length, counting.bulkQueries.get());
+		assertEquals(BridgeDbIDMapper.TARGET_SYSTEM_CODES.length * metabolites.size(), counting.queries.get());
+	}
+
+	@Test
+	public void convertGpmlInParallelWithMappings() throws Exception {
+		BridgeDbIDMapperTest.registerDataSources();
+		IRINormalizerTest.registerIdentifiersOrgDataSources();
+		DataSource wikidata = DataSource.getExistingBySystemCode("Wd");
+		PathwayModel pathway = new PathwayModel();
+		InputStream gpmlStream = getClass().getResourceAsStream("/WP4846.gpml"); 
+		pathway.readFromXml(gpmlStream, true);
+		DataSource wpSource = DataSource.register("Wp", "WikiPathways").asDataSource();
+		pathway.getPathway().setXref(new Xref("WP4846", wpSource));
+
+		// the mapper is only read during the conversions, and counts its lookups atomically
+		CountingMapper counting = new CountingMapper(0);
+		Set<Xref> metabolites = new LinkedHashSet<>();
+		for (DataNode node : pathway.getDataNodes()) {
+			if ("Metabolite".equals(node.getType().getName()) && metabolites.add(node.getXref())) {
+				counting.addEquivalents(node.getXref(), new Xref("Q" + metabolites.size(), wikidata));
+			}
+		}
+
+		Model sequential = new Convertor(Utils.WP_RDF_URL, counting).asRDF(pathway);
+		int sequentialQueries = counting.queries.getAndSet(0);
+		Model parallel = new Convertor(Utils.WP_RDF_URL, counting).setParallelism(4).asRDF(pathway);
+		assertTrue(sequential.isIsomorphicWith(parallel));
+		assertEquals(sequentialQueries, counting.queries.get());
+		assertEquals(metabolites.size(), parallel.listObjectsOfProperty(Wp.bdbWikidata).toList().size());
+
+		// the interactions and complexes found the DataNodes of all chunks
+		List<Statement> participants = parallel.listStatements(null, Wp.participants, (RDFNode)null).toList();
+		assertFalse(participants.isEmpty());
+		assertEquals(sequential.listStatements(null, Wp.participants, (RDFNode)null).toList().size(), participants.size());
+		assertEquals(sequential.listSubjectsWithProperty(RDF.type, Wp.ComplexBinding).toList().size(),
+			parallel.listSubjectsWithProperty(RDF.type, Wp.ComplexBinding).toList().size());
+	}
+
+	@Test
+	public void convertGpmlConcurrently() throws Exception {
+		PathwayModel pathway = new PathwayModel();
+		InputStream gpmlStream = getClass().getResourceAsStream("/WP4846.gpml"); 
+		pathway.readFromXml(gpmlStream, true);
+		DataSource wpSource = DataSource.register("Wp", "WikiPathways").asDataSource();
+		pathway.getPathway().setXref(new Xref("WP4846", wpSource));
+
+		// one convertor, shared by all threads
+		Convertor convertor = new Convertor(Utils.WP_RDF_URL, null);
+		Model expected = convertor.asRDF(pathway);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Model>> results = new ArrayList<>();
+			for (int i = 0; i < 64; i++) {
+				results.add(executor.submit(() -> convertor.asRDF(pathway)));
+			}
+			for (Future<Model> result : results) {
+				assertTrue(expected.isIsomorphicWith(result.get()));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void convertGpmlWithSharedCitationEmitter() throws Exception {
+		PathwayModel pathway = new PathwayModel();
+		InputStream gpmlStream = getClass().getResourceAsStream("/WP4846.gpml"); 
+		pathway.readFromXml(gpmlStream, true);
+		DataSource wpSource = DataSource.register("Wp", "WikiPathways").asDataSource();
+		pathway.getPathway().setXref(new Xref("WP4846", wpSource));
+
+		Model expected = new Convertor(Utils.WP_RDF_URL, null).asRDF(pathway);
+
+		// as in a dump: the second conversion does not describe the publications again
+		Convertor convertor = new Convertor(Utils.WP_RDF_URL, null).setCitationEmitter(new CitationEmitter());
+		Model first = convertor.asRDF(pathway);
+		Model second = convertor.asRDF(pathway);
+		assertTrue(expected.isIsomorphicWith(first));
+		assertFalse(second.contains(null, RDF.type, Wp.PublicationReference));
+		assertTrue(expected.isIsomorphicWith(first.union(second)));
+	}
+
 }
@@ -0,0 +1,46 @@
+package org.pathvisio.io.rdf.wp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Properties;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.Xref;
+import org.junit.jupiter.api.Test;
+import org.pathvisio.io.rdf.wp.MappingSnapshotTest.Database;
+
+public class EmbeddedDerbyTest {
+
+	@Test
+	public void readsTheSettingsFromTheProperties() {
+		Properties prop = new Properties();
+		assertFalse(EmbeddedDerby.isEnabled(prop));
+		assertEquals(0, EmbeddedDerby.warmUpSize(prop));
+
+		prop.setProperty("derbyembedded", "true");
+		prop.setProperty("derbywarmup", " 5000 ");
+		assertTrue(EmbeddedDerby.isEnabled(prop));
+		assertEquals(5000, EmbeddedDerby.warmUpSize(prop));
+	}
+
+	@Test
+	public void warmsUpWithAtMostTheGivenNumberOfIdentifiers() {
+		BridgeDbIDMapperTest.registerDataSources();
+		DataSource chebi = DataSource.getExistingBySystemCode("Ce");
+		DataSource wikidata = DataSource.getExistingBySystemCode("Wd");
+		Database database = new Database(new Xref("CHEBI:15377", chebi), new Xref("Q283", wikidata),
+			new Xref("CHEBI:17234", chebi));
+
+		int targets = 0;
+		for (String systemCode : BridgeDbIDMapper.TARGET_SYSTEM_CODES) {
+			if (DataSource.systemCodeExists(systemCode)) targets++;
+		}
+		// the test database lists all its identifiers for every data source
+		assertEquals(2 * targets, EmbeddedDerby.warmUp(database, 2));
+		assertEquals(3 * targets, EmbeddedDerby.warmUp(database, 10));
+		assertEquals(0, EmbeddedDerby.warmUp(new BridgeDbIDMapperTest.CountingMapper(0), 10));
+	}
+
+}
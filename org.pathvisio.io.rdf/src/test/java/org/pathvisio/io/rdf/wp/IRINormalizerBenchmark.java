@@ -0,0 +1,70 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.wp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.Xref;
+
+/**
+ * Times building the DataNode IRIs of many DataNodes, among which each identifier occurs
+ * several times, as in a dump of all pathways: with the string and regular expression
+ * steps DataNodeConvertor used before, against {@link IRINormalizer}.
+ *
+ * Not a unit test; run it with, for example:
+ * <pre>
+ * java -cp target/classes:target/test-classes:... org.pathvisio.io.rdf.wp.IRINormalizerBenchmark 1000000 20000
+ * </pre>
+ */
+public class IRINormalizerBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int dataNodes = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		int identifiers = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+		IRINormalizerTest.registerIdentifiersOrgDataSources();
+		DataSource[] sources = {
+			DataSource.getExistingBySystemCode("Ce"), DataSource.getExistingBySystemCode("Ch"),
+			DataSource.getExistingBySystemCode("Lm")
+		};
+		List<Xref> xrefs = new ArrayList<>();
+		for (int i = 0; i < dataNodes; i++) {
+			int identifier = i % identifiers;
+			DataSource source = sources[identifier % sources.length];
+			String id = source == sources[1] ? String.format("HMDB%05d", identifier) : Integer.toString(10000 + identifier);
+			xrefs.add(new Xref(id, source));
+		}
+
+		for (int round = 0; round < 3; round++) {
+			long start = System.nanoTime();
+			int length = 0;
+			for (Xref xref : xrefs) length += IRINormalizerTest.legacyDataNodeIRI(xref).length();
+			report("string and regex steps:", dataNodes, System.nanoTime() - start, length);
+
+			start = System.nanoTime();
+			length = 0;
+			for (Xref xref : xrefs) length += IRINormalizer.dataNode(xref).iri.length();
+			report("IRINormalizer:", dataNodes, System.nanoTime() - start, length);
+		}
+	}
+
+	private static void report(String label, int dataNodes, long nanos, int length) {
+		System.out.println(String.format("%-24s %d DataNodes in %d ms (%d characters)",
+			label, dataNodes, nanos / 1_000_000, length));
+	}
+
+}
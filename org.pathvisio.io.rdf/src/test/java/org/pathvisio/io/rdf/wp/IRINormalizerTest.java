@@ -0,0 +1,93 @@
+package org.pathvisio.io.rdf.wp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.Xref;
+import org.junit.jupiter.api.Test;
+
+public class IRINormalizerTest {
+
+	// the DataNode IRI as DataNodeConvertor built it before IRINormalizer
+	static String legacyDataNodeIRI(Xref xref) {
+		String xrefid = xref.getId();
+		DataSource datasource = xref.getDataSource();
+		String url = datasource.getIdentifiersOrgUri(xrefid);
+		if (url != null) url = url.replace("http://identifiers", "https://identifiers");
+		if ("HMDB".equals(datasource.getFullName())) {
+			if (xrefid.length() != 11 && xrefid.length() > 4) xrefid = "HMDB00" + xrefid.substring(4);
+			url = datasource.getIdentifiersOrgUri(xrefid);
+			if (url != null) url = url.replace("http://identifiers", "https://identifiers");
+		}
+		if (url == null || url.equals("")) return null;
+		if (url.contains("chebi/CHEBI:")) return url.trim().replaceAll(" ", "_");
+		if (url.contains("chebi")) return url.trim().replaceAll(" ", "_").replace("chebi/","chebi/CHEBI:");
+		return url.trim().replaceAll(" ", "_");
+	}
+
+	static void registerIdentifiersOrgDataSources() {
+		DataSource.register("Ce", "ChEBI").identifiersOrgBase("http://identifiers.org/chebi");
+		DataSource.register("Ch", "HMDB").identifiersOrgBase("http://identifiers.org/hmdb");
+		DataSource.register("Lm", "LIPID MAPS").identifiersOrgBase("http://identifiers.org/lipidmaps")
+			.urlPattern("https://www.lipidmaps.org/databases/lmsd/$id");
+		IRINormalizer.clear();
+	}
+
+	@Test
+	public void buildsTheMappedIdentifierIRIs() {
+		assertEquals("https://identifiers.org/chebi/CHEBI:15377", IRINormalizer.mappedIRI("Ce", "15377"));
+		assertEquals("https://identifiers.org/chebi/CHEBI:15377", IRINormalizer.mappedIRI("Ce", "CHEBI:15377"));
+		assertEquals("https://identifiers.org/hmdb/HMDB0002111", IRINormalizer.mappedIRI("Ch", "HMDB02111"));
+		assertEquals("https://identifiers.org/hmdb/HMDB0002111", IRINormalizer.mappedIRI("Ch", "HMDB0002111"));
+		assertEquals("https://doi.org/10.1021%2FJA01577A030", IRINormalizer.mappedIRI("Pbd", "10.1021/ja01577a030"));
+		assertEquals("http://rdf.ncbi.nlm.nih.gov/pubchem/compound/CID962", IRINormalizer.mappedIRI("Cpc", "962"));
+		assertEquals("https://identifiers.org/lipidmaps/LMFA+0101", IRINormalizer.mappedIRI("Lm", "LMFA 0101"));
+		assertNull(IRINormalizer.mappedIRI("Xx", "1"));
+		assertNull(IRINormalizer.mappedIRI("Ik", "XLYOFNOQVPJJNP-UHFFFAOYSA-N"));
+	}
+
+	@Test
+	public void buildsTheIRIsOfIdentifiersTheDataNodeHas() {
+		assertEquals("https://identifiers.org/chebi/CHEBI:15377", IRINormalizer.sourceIRI("Ce", "15377"));
+		assertEquals("https://identifiers.org/lipidmaps/LMFA_0101", IRINormalizer.sourceIRI("Lm", "LMFA 0101"));
+		assertEquals("https://doi.org/10.1021/ja01577a030", IRINormalizer.sourceIRI("Pbd", "10.1021/ja01577a030"));
+	}
+
+	@Test
+	public void buildsTheDataNodeIRIsLikeBefore() {
+		registerIdentifiersOrgDataSources();
+		String[][] xrefs = {
+			{ "Ce", "15377" }, { "Ce", "CHEBI:15377" }, { "Ce", " 15377 " },
+			{ "Ch", "HMDB0002111" }, { "Ch", "HMDB02111" }, { "Ch", "HMDB" },
+			{ "Lm", "LMFA01010001" }, { "Lm", "LMFA 0101" }
+		};
+		for (String[] xref : xrefs) {
+			Xref dataNode = new Xref(xref[1], DataSource.getExistingBySystemCode(xref[0]));
+			assertEquals(legacyDataNodeIRI(dataNode), IRINormalizer.dataNode(dataNode).iri, xref[0] + ":" + xref[1]);
+		}
+
+		IRINormalizer.DataNodeIRI hmdb = IRINormalizer.dataNode(new Xref("HMDB02111", DataSource.getExistingBySystemCode("Ch")));
+		assertEquals("HMDB0002111", hmdb.identifier);
+		IRINormalizer.DataNodeIRI lipid = IRINormalizer.dataNode(new Xref("LMFA 0101", DataSource.getExistingBySystemCode("Lm")));
+		assertEquals("https://www.lipidmaps.org/databases/lmsd/LMFA_0101", lipid.page);
+	}
+
+	@Test
+	public void memoisesTheIRIs() {
+		registerIdentifiersOrgDataSources();
+		DataSource chebi = DataSource.getExistingBySystemCode("Ce");
+		assertSame(IRINormalizer.dataNode(new Xref("15377", chebi)), IRINormalizer.dataNode(new Xref("15377", chebi)));
+		assertSame(IRINormalizer.mappedIRI("Wd", "Q283"), IRINormalizer.mappedIRI("Wd", "Q283"));
+	}
+
+	@Test
+	public void replacesSpacesInOnePass() {
+		assertEquals("a_b\tc", IRINormalizer.underscores(" a b\tc \n", true, false));
+		assertEquals("a_bc_", IRINormalizer.underscores("a b\tc ", false, true));
+		String unchanged = "https://identifiers.org/chebi/CHEBI:15377";
+		assertSame(unchanged, IRINormalizer.underscores(unchanged, true, true));
+	}
+
+}
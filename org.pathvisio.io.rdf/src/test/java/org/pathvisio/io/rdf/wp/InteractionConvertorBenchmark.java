@@ -0,0 +1,96 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.wp;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.jena.rdf.model.Model;
+import org.bridgedb.DataSource;
+import org.bridgedb.Xref;
+import org.pathvisio.io.rdf.utils.Utils;
+import org.pathvisio.libgpml.model.PathwayModel;
+
+/**
+ * Times the WPRDF conversion of synthetic pathways of increasing size. Each pathway
+ * is a chain of DataNodes connected by conversions, and every conversion is
+ * catalysed by a line from the next DataNode to its anchor, so the number of
+ * anchor and interaction lookups grows with the size of the pathway.
+ *
+ * Not a unit test; run it with, for example:
+ * <pre>
+ * java -cp target/classes:target/test-classes:... org.pathvisio.io.rdf.wp.InteractionConvertorBenchmark 250 1000 4000
+ * </pre>
+ */
+public class InteractionConvertorBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int[] sizes = args.length > 0 ? new int[args.length] : new int[] { 250, 1000, 4000 };
+		for (int i = 0; i < args.length; i++) sizes[i] = Integer.parseInt(args[i]);
+
+		DataSource wpSource = DataSource.register("Wp", "WikiPathways").asDataSource();
+		Convertor convertor = new Convertor(Utils.WP_RDF_URL, null);
+		for (int size : sizes) {
+			PathwayModel pathway = new PathwayModel();
+			pathway.readFromXml(new ByteArrayInputStream(syntheticGpml(size).getBytes(StandardCharsets.UTF_8)), false);
+			pathway.getPathway().setXref(new Xref("WP" + size, wpSource));
+
+			convertor.asRDF(pathway); // warm up
+			int runs = 5;
+			long start = System.nanoTime();
+			long triples = 0;
+			for (int run = 0; run < runs; run++) {
+				Model model = convertor.asRDF(pathway);
+				triples = model.size();
+			}
+			long millis = (System.nanoTime() - start) / runs / 1_000_000;
+			System.out.println(size + " DataNodes, " + (2 * (size - 1)) + " Interactions: "
+				+ triples + " triples in " + millis + " ms");
+		}
+	}
+
+	public static String syntheticGpml(int size) {
+		StringBuilder gpml = new StringBuilder();
+		gpml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+			.append("<Pathway xmlns=\"http://pathvisio.org/GPML/2013a\" Name=\"Synthetic pathway\" Version=\"20250101\" Organism=\"Homo sapiens\">\n")
+			.append("  <Graphics BoardWidth=\"").append(100 * size).append(".0\" BoardHeight=\"200.0\" />\n");
+		for (int i = 0; i < size; i++) {
+			gpml.append("  <DataNode TextLabel=\"Gene ").append(i).append("\" GraphId=\"d").append(i).append("\" Type=\"GeneProduct\">\n")
+				.append("    <Graphics CenterX=\"").append(100 * i + 50).append(".0\" CenterY=\"50.0\" Width=\"80.0\" Height=\"20.0\" ZOrder=\"32768\" FontSize=\"12\" Valign=\"Middle\" />\n")
+				.append("    <Xref Database=\"Ensembl\" ID=\"ENSG").append(String.format("%011d", i)).append("\" />\n")
+				.append("  </DataNode>\n");
+		}
+		for (int i = 0; i < size - 1; i++) {
+			gpml.append("  <Interaction GraphId=\"i").append(i).append("\">\n")
+				.append("    <Graphics ZOrder=\"12288\" LineThickness=\"1.0\">\n")
+				.append("      <Point X=\"").append(100 * i + 90).append(".0\" Y=\"50.0\" GraphRef=\"d").append(i).append("\" RelX=\"1.0\" RelY=\"0.0\" />\n")
+				.append("      <Point X=\"").append(100 * i + 110).append(".0\" Y=\"50.0\" GraphRef=\"d").append(i + 1).append("\" RelX=\"-1.0\" RelY=\"0.0\" ArrowHead=\"mim-conversion\" />\n")
+				.append("      <Anchor Position=\"0.5\" Shape=\"None\" GraphId=\"a").append(i).append("\" />\n")
+				.append("    </Graphics>\n")
+				.append("    <Xref Database=\"\" ID=\"\" />\n")
+				.append("  </Interaction>\n");
+			gpml.append("  <Interaction GraphId=\"c").append(i).append("\">\n")
+				.append("    <Graphics ZOrder=\"12288\" LineThickness=\"1.0\">\n")
+				.append("      <Point X=\"").append(100 * i + 100).append(".0\" Y=\"150.0\" GraphRef=\"d").append(i + 1).append("\" RelX=\"0.0\" RelY=\"1.0\" />\n")
+				.append("      <Point X=\"").append(100 * i + 100).append(".0\" Y=\"50.0\" GraphRef=\"a").append(i).append("\" RelX=\"0.0\" RelY=\"0.0\" ArrowHead=\"mim-catalysis\" />\n")
+				.append("    </Graphics>\n")
+				.append("    <Xref Database=\"\" ID=\"\" />\n")
+				.append("  </Interaction>\n");
+		}
+		gpml.append("</Pathway>\n");
+		return gpml.toString();
+	}
+
+}
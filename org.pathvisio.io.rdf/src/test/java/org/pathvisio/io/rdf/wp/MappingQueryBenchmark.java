@@ -0,0 +1,76 @@
+// Copyright 2025 Egon Willighagen <egon.willighagen@gmail.com>
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.pathvisio.io.rdf.wp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.bridgedb.DataSource;
+import org.bridgedb.Xref;
+
+/**
+ * Counts and times the BridgeDb queries needed to map metabolites to the WPRDF target
+ * data sources: one query per target, as <code>getUnifiedIdentifiers</code> used to do,
+ * against the single multi-target query it does now. Each query on the simulated
+ * mapping database takes a fixed time, in microseconds.
+ *
+ * Not a unit test; run it with, for example:
+ * <pre>
+ * java -cp target/classes:target/test-classes:... org.pathvisio.io.rdf.wp.MappingQueryBenchmark 1000 200
+ * </pre>
+ */
+public class MappingQueryBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int metabolites = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		long latencyMicros = args.length > 1 ? Long.parseLong(args[1]) : 200;
+
+		BridgeDbIDMapperTest.registerDataSources();
+		DataSource chebi = DataSource.getExistingBySystemCode("Ce");
+		BridgeDbIDMapperTest.CountingMapper mapper = new BridgeDbIDMapperTest.CountingMapper(latencyMicros * 1000);
+		List<Xref> xrefs = new ArrayList<>();
+		for (int i = 0; i < metabolites; i++) {
+			Xref xref = new Xref(Integer.toString(10000 + i), chebi);
+			xrefs.add(xref);
+			mapper.addEquivalents(xref,
+				new Xref("Q" + (1000 + i), DataSource.getExistingBySystemCode("Wd")),
+				new Xref(String.format("HMDB%07d", i), DataSource.getExistingBySystemCode("Ch")),
+				new Xref(String.format("C%05d", i), DataSource.getExistingBySystemCode("Ck")));
+		}
+
+		long start = System.nanoTime();
+		for (Xref xref : xrefs) {
+			for (String systemCode : BridgeDbIDMapper.TARGET_SYSTEM_CODES) {
+				mapper.mapID(xref, DataSource.getExistingBySystemCode(systemCode));
+			}
+		}
+		report("one query per target:", metabolites, mapper.queries.getAndSet(0), System.nanoTime() - start);
+
+		Model model = ModelFactory.createDefaultModel();
+		start = System.nanoTime();
+		for (Xref xref : xrefs) {
+			BridgeDbIDMapper.getUnifiedIdentifiers(model, mapper, xref, model.createResource("https://example.org/" + xref.getId()));
+		}
+		report("getUnifiedIdentifiers:", metabolites, mapper.queries.getAndSet(0), System.nanoTime() - start);
+	}
+
+	private static void report(String label, int metabolites, int queries, long nanos) {
+		System.out.println(String.format("%-24s %d metabolites, %d queries (%.1f per metabolite) in %d ms",
+			label, metabolites, queries, (double)queries / metabolites, nanos / 1_000_000));
+	}
+
+}
@@ -0,0 +1,95 @@
+package org.pathvisio.io.rdf.wp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.IDMapper;
+import org.bridgedb.IDMapperCapabilities;
+import org.bridgedb.IDMapperException;
+import org.bridgedb.IDMapperStack;
+import org.bridgedb.Xref;
+import org.bridgedb.XrefIterator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MappingSnapshotTest {
+
+	@TempDir
+	Path folder;
+
+	// a small mapping database that knows all mappings between its identifiers
+	static class Database implements IDMapper, XrefIterator {
+
+		final Set<Xref> xrefs;
+
+		Database(Xref... xrefs) {
+			this.xrefs = new HashSet<>(Arrays.asList(xrefs));
+		}
+
+		@Override
+		public Set<Xref> mapID(Xref ref, DataSource... tgtDataSources) {
+			Set<Xref> mapped = new HashSet<>();
+			if (!xrefs.contains(ref)) return mapped;
+			for (Xref xref : xrefs) {
+				if (Arrays.asList(tgtDataSources).contains(xref.getDataSource())) mapped.add(xref);
+			}
+			return mapped;
+		}
+
+		@Override
+		public Map<Xref, Set<Xref>> mapID(Collection<Xref> srcXrefs, DataSource... tgtDataSources) {
+			Map<Xref, Set<Xref>> results = new HashMap<>();
+			for (Xref xref : srcXrefs) results.put(xref, mapID(xref, tgtDataSources));
+			return results;
+		}
+
+		@Override public Iterable<Xref> getIterator() { return xrefs; }
+		@Override public Iterable<Xref> getIterator(DataSource ds) { return xrefs; }
+		@Override public boolean xrefExists(Xref xref) { return xrefs.contains(xref); }
+		@Override public Set<Xref> freeSearch(String text, int limit) { return new HashSet<>(); }
+		@Override public IDMapperCapabilities getCapabilities() { return null; }
+		@Override public void close() throws IDMapperException {}
+		@Override public boolean isConnected() { return true; }
+
+	}
+
+	@Test
+	public void answersLikeTheMappingDatabases() throws Exception {
+		DataSource chebi = DataSource.register("Ce", "ChEBI").asDataSource();
+		DataSource hmdb = DataSource.register("Ch", "HMDB").asDataSource();
+		DataSource wikidata = DataSource.register("Wd", "Wikidata").asDataSource();
+		DataSource kegg = DataSource.register("Ck", "KEGG Compound").asDataSource();
+
+		IDMapperStack stack = new IDMapperStack();
+		stack.addIDMapper(new Database(new Xref("CHEBI:15377", chebi), new Xref("HMDB0002111", hmdb),
+			new Xref("Q283", wikidata), new Xref("C00001", kegg)));
+		stack.addIDMapper(new Database(new Xref("CHEBI:17234", chebi), new Xref("Q37525", wikidata),
+			new Xref("Q37525-é", wikidata)));
+
+		File snapshotFile = folder.resolve("mappings.snapshot").toFile();
+		MappingSnapshot.compile(stack, snapshotFile);
+		MappingSnapshot snapshot = MappingSnapshot.open(snapshotFile);
+
+		for (Xref source : Arrays.asList(new Xref("CHEBI:15377", chebi), new Xref("CHEBI:17234", chebi),
+				new Xref("HMDB0002111", hmdb), new Xref("Q37525-é", wikidata))) {
+			for (DataSource target : Arrays.asList(chebi, hmdb, wikidata, kegg)) {
+				assertEquals(stack.mapID(source, target), snapshot.mapID(source, target), source + " to " + target);
+			}
+		}
+		assertTrue(snapshot.mapID(new Xref("CHEBI:0", chebi), wikidata).isEmpty());
+		assertTrue(snapshot.xrefExists(new Xref("C00001", kegg)));
+		assertFalse(snapshot.xrefExists(new Xref("C00002", kegg)));
+	}
+
+}
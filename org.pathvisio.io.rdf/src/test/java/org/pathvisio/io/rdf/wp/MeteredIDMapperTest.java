@@ -0,0 +1,131 @@
+package org.pathvisio.io.rdf.wp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.IDMapperException;
+import org.bridgedb.Xref;
+import org.junit.jupiter.api.Test;
+import org.pathvisio.io.rdf.wp.BridgeDbIDMapperTest.CountingMapper;
+
+public class MeteredIDMapperTest {
+
+	@Test
+	public void countsTheLookupsPerTargetAndMapper() throws Exception {
+		BridgeDbIDMapperTest.registerDataSources();
+		DataSource chebi = DataSource.getExistingBySystemCode("Ce");
+		DataSource wikidata = DataSource.getExistingBySystemCode("Wd");
+		DataSource hmdb = DataSource.getExistingBySystemCode("Ch");
+
+		CountingMapper counting = new CountingMapper(0);
+		counting.addEquivalents(new Xref("CHEBI:15377", chebi), new Xref("Q283", wikidata));
+		MappingMetrics metrics = new MappingMetrics();
+		MeteredIDMapper mapper = new MeteredIDMapper("metabolites.bridge", counting, metrics);
+
+		Xref water = new Xref("CHEBI:15377", chebi);
+		Xref typo = new Xref("CHEBI:1537", chebi);
+		assertEquals(1, mapper.mapID(water, wikidata, hmdb).size());
+		assertEquals(1, counting.queries.get());
+		assertTrue(mapper.mapID(typo, wikidata).isEmpty());
+		mapper.mapID(Arrays.asList(water, typo), wikidata);
+
+		MappingMetrics.Stats wd = metrics.getTarget("Wd");
+		assertEquals(3, wd.queries);
+		assertEquals(4, wd.lookups);
+		assertEquals(2, wd.results);
+		assertEquals(2, wd.emptyResults);
+		assertEquals(2, wd.timedQueries);
+		assertEquals(2, Arrays.stream(wd.latencyHistogram).sum());
+		MappingMetrics.Stats ch = metrics.getTarget("Ch");
+		assertEquals(1, ch.lookups);
+		assertEquals(0, ch.results);
+		assertEquals(1, ch.emptyResults);
+		assertEquals(0, ch.timedQueries);
+		assertEquals(0, ch.totalNanos);
+		assertNull(metrics.getTarget("Ce"));
+
+		MappingMetrics.Stats file = metrics.getMapper("metabolites.bridge");
+		assertEquals(3, file.queries);
+		assertEquals(4, file.lookups);
+		assertEquals(2, file.results);
+		assertEquals(2, file.emptyResults);
+		assertEquals(0, file.errors);
+		assertEquals(3, file.timedQueries);
+		assertEquals(Arrays.asList("Ch", "Wd"), Arrays.asList(metrics.getTargets().keySet().toArray()));
+		assertTrue(metrics.getReport().contains("  Wd: 3 queries, 4 lookups, 2 results, 2 empty, 0 errors, 2 timed, "));
+		assertTrue(metrics.getReport().contains("  Ch: 1 queries, 1 lookups, 0 results, 1 empty, 0 errors\n"));
+
+		metrics.reset();
+		assertTrue(metrics.getMappers().isEmpty());
+	}
+
+	@Test
+	public void timesEachTargetOfALookupWhenAsked() throws Exception {
+		BridgeDbIDMapperTest.registerDataSources();
+		DataSource chebi = DataSource.getExistingBySystemCode("Ce");
+		DataSource wikidata = DataSource.getExistingBySystemCode("Wd");
+		DataSource hmdb = DataSource.getExistingBySystemCode("Ch");
+
+		long slowNanos = 20_000_000;
+		CountingMapper slowWikidata = new CountingMapper(0) {
+			@Override
+			public Set<Xref> mapID(Xref ref, DataSource... tgtDataSources) {
+				if (Arrays.asList(tgtDataSources).contains(wikidata)) {
+					long end = System.nanoTime() + slowNanos;
+					while (System.nanoTime() < end) Thread.onSpinWait();
+				}
+				return super.mapID(ref, tgtDataSources);
+			}
+		};
+		slowWikidata.addEquivalents(new Xref("CHEBI:15377", chebi), new Xref("Q283", wikidata), new Xref("HMDB0002111", hmdb));
+		MappingMetrics metrics = new MappingMetrics();
+		MeteredIDMapper mapper = new MeteredIDMapper("metabolites.bridge", slowWikidata, metrics, true);
+
+		Xref water = new Xref("CHEBI:15377", chebi);
+		assertEquals(2, mapper.mapID(water, wikidata, hmdb).size());
+		assertEquals(2, slowWikidata.queries.get());
+		assertEquals(2, mapper.mapID(Arrays.asList(water), wikidata, hmdb).get(water).size());
+		assertEquals(4, slowWikidata.queries.get());
+
+		MappingMetrics.Stats wd = metrics.getTarget("Wd");
+		MappingMetrics.Stats ch = metrics.getTarget("Ch");
+		assertEquals(2, wd.queries);
+		assertEquals(2, wd.results);
+		assertEquals(2, ch.queries);
+		assertEquals(2, ch.results);
+		assertTrue(wd.totalNanos >= 2 * slowNanos);
+		assertTrue(ch.totalNanos < slowNanos);
+		MappingMetrics.Stats file = metrics.getMapper("metabolites.bridge");
+		assertEquals(2, file.queries);
+		assertEquals(4, file.results);
+		assertEquals(wd.totalNanos + ch.totalNanos, file.totalNanos);
+	}
+
+	@Test
+	public void countsTheErrors() throws Exception {
+		BridgeDbIDMapperTest.registerDataSources();
+		DataSource chebi = DataSource.getExistingBySystemCode("Ce");
+		DataSource wikidata = DataSource.getExistingBySystemCode("Wd");
+
+		CountingMapper failing = new CountingMapper(0) {
+			@Override
+			public Set<Xref> mapID(Xref ref, DataSource... tgtDataSources) {
+				throw new IllegalStateException("connection lost");
+			}
+		};
+		MappingMetrics metrics = new MappingMetrics();
+		MeteredIDMapper mapper = new MeteredIDMapper("genes.bridge", failing, metrics);
+		assertThrows(IllegalStateException.class, () -> mapper.mapID(new Xref("15377", chebi), wikidata));
+		assertEquals(1, metrics.getMapper("genes.bridge").errors);
+		assertEquals(1, metrics.getTarget("Wd").errors);
+		assertEquals(0, metrics.getTarget("Wd").queries);
+		assertThrows(IDMapperException.class, () -> mapper.getIterator());
+	}
+
+}
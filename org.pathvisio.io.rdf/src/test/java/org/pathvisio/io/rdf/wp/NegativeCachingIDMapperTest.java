@@ -0,0 +1,82 @@
+package org.pathvisio.io.rdf.wp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.Xref;
+import org.junit.jupiter.api.Test;
+import org.pathvisio.io.rdf.wp.BridgeDbIDMapperTest.CountingMapper;
+
+public class NegativeCachingIDMapperTest {
+
+	@Test
+	public void looksUpUnmappableIdentifiersOnce() throws Exception {
+		BridgeDbIDMapperTest.registerDataSources();
+		DataSource chebi = DataSource.getExistingBySystemCode("Ce");
+		DataSource wikidata = DataSource.getExistingBySystemCode("Wd");
+		DataSource hmdb = DataSource.getExistingBySystemCode("Ch");
+
+		CountingMapper counting = new CountingMapper(0);
+		counting.addEquivalents(new Xref("CHEBI:15377", chebi), new Xref("Q283", wikidata));
+		NegativeCachingIDMapper mapper = new NegativeCachingIDMapper(counting, 10);
+
+		Xref water = new Xref("CHEBI:15377", chebi);
+		Xref typo = new Xref("CHEBI:1537", chebi);
+		for (int i = 0; i < 3; i++) {
+			assertEquals(1, mapper.mapID(water, wikidata).size());
+			assertTrue(mapper.mapID(typo, wikidata, hmdb).isEmpty());
+		}
+		// water maps to Wikidata, but not to HMDB
+		mapper.mapID(water, wikidata, hmdb);
+		mapper.mapID(water, wikidata, hmdb);
+
+		assertEquals(3 + 1 + 1 + 1, counting.queries.get());
+		assertEquals(2 * 2 + 1, mapper.getHits());
+		assertEquals(3, mapper.size());
+		List<Map.Entry<Xref, Long>> mostMissed = mapper.getMostMissed(1);
+		assertEquals(1, mostMissed.size());
+		assertEquals(typo, mostMissed.get(0).getKey());
+		assertEquals(6, mostMissed.get(0).getValue().longValue());
+		assertEquals("Ce:CHEBI:1537: 6\nCe:CHEBI:15377: 2\n", mapper.getMissReport(10));
+	}
+
+	@Test
+	public void bulkLookupsLeaveOutKnownMisses() throws Exception {
+		BridgeDbIDMapperTest.registerDataSources();
+		DataSource chebi = DataSource.getExistingBySystemCode("Ce");
+		DataSource wikidata = DataSource.getExistingBySystemCode("Wd");
+
+		CountingMapper counting = new CountingMapper(0);
+		counting.addEquivalents(new Xref("CHEBI:15377", chebi), new Xref("Q283", wikidata));
+		NegativeCachingIDMapper mapper = new NegativeCachingIDMapper(counting, 10);
+
+		Xref water = new Xref("CHEBI:15377", chebi);
+		Xref typo = new Xref("CHEBI:1537", chebi);
+		mapper.mapID(typo, wikidata);
+		Map<Xref, Set<Xref>> results = mapper.mapID(Arrays.asList(water, typo), wikidata);
+		assertEquals(1, results.get(water).size());
+		assertTrue(results.get(typo).isEmpty());
+		assertEquals(1, mapper.getHits());
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedMisses() throws Exception {
+		BridgeDbIDMapperTest.registerDataSources();
+		DataSource chebi = DataSource.getExistingBySystemCode("Ce");
+		DataSource wikidata = DataSource.getExistingBySystemCode("Wd");
+		NegativeCachingIDMapper mapper = new NegativeCachingIDMapper(new CountingMapper(0), 2);
+
+		mapper.mapID(new Xref("CHEBI:1", chebi), wikidata);
+		mapper.mapID(new Xref("CHEBI:2", chebi), wikidata);
+		mapper.mapID(new Xref("CHEBI:3", chebi), wikidata);
+		assertEquals(2, mapper.size());
+		assertEquals(1, mapper.getEvictions());
+	}
+
+}
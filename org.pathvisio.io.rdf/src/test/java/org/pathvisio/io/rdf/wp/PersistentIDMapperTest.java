@@ -0,0 +1,194 @@
+package org.pathvisio.io.rdf.wp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.IDMapperException;
+import org.bridgedb.IDMapperStack;
+import org.bridgedb.Xref;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PersistentIDMapperTest {
+
+	@TempDir
+	Path folder;
+
+	// maps everything to the Wikidata item for water, and counts the lookups
+	static class WaterMapper extends IDMapperStack {
+
+		int lookups = 0;
+
+		@Override
+		public Set<Xref> mapID(Xref ref, DataSource... tgtDataSources) throws IDMapperException {
+			lookups++;
+			return Collections.singleton(new Xref("Q283", DataSource.getExistingBySystemCode("Wd")));
+		}
+
+	}
+
+	@Test
+	public void keepsMappingsAcrossRuns() throws Exception {
+		DataSource chebi = DataSource.register("Ce", "ChEBI").asDataSource();
+		DataSource wikidata = DataSource.register("Wd", "Wikidata").asDataSource();
+		File[] bridgeFiles = { bridgeFile("metabolites.bridge", "v1") };
+		File cacheFolder = folder.resolve("cache").toFile();
+		Xref water = new Xref("CHEBI:15377", chebi);
+
+		WaterMapper first = new WaterMapper();
+		PersistentIDMapper cache = PersistentIDMapper.open(first, cacheFolder, bridgeFiles);
+		assertEquals(1, cache.mapID(water, wikidata).size());
+		assertEquals(1, cache.mapID(water, wikidata).size());
+		assertEquals(1, first.lookups);
+		cache.close();
+		assertTrue(cache.getIndexFile().exists());
+
+		// a crashed run leaves half a record behind
+		try (FileOutputStream output = new FileOutputStream(cache.getFile(), true)) {
+			output.write(new byte[] { 0, 0, 1, 0, 42 });
+		}
+
+		WaterMapper second = new WaterMapper();
+		cache = PersistentIDMapper.open(second, cacheFolder, bridgeFiles);
+		assertFalse(cache.isIndexFileUsed());
+		assertEquals(1, cache.size());
+		Set<Xref> mapped = cache.mapID(water, wikidata);
+		assertEquals(Collections.singleton(new Xref("Q283", wikidata)), mapped);
+		assertEquals(0, second.lookups);
+		assertEquals(1, cache.getHits());
+		cache.close();
+	}
+
+	@Test
+	public void readsTheIndexOfTheLastRun() throws Exception {
+		DataSource chebi = DataSource.register("Ce", "ChEBI").asDataSource();
+		DataSource wikidata = DataSource.register("Wd", "Wikidata").asDataSource();
+		File[] bridgeFiles = { bridgeFile("metabolites.bridge", "v1") };
+		File cacheFolder = folder.resolve("cache").toFile();
+		Xref water = new Xref("CHEBI:15377", chebi);
+		Xref ethanol = new Xref("CHEBI:16236", chebi);
+
+		PersistentIDMapper cache = PersistentIDMapper.open(new WaterMapper(), cacheFolder, bridgeFiles);
+		assertFalse(cache.isIndexFileUsed());
+		cache.mapID(water, wikidata);
+		cache.mapID(ethanol, wikidata);
+		cache.close();
+
+		WaterMapper mapper = new WaterMapper();
+		cache = PersistentIDMapper.open(mapper, cacheFolder, bridgeFiles);
+		assertTrue(cache.isIndexFileUsed());
+		assertEquals(2, cache.size());
+		assertEquals(Collections.singleton(new Xref("Q283", wikidata)), cache.mapID(ethanol, wikidata));
+		assertEquals(Collections.singleton(new Xref("Q283", wikidata)), cache.mapID(water, wikidata));
+		assertEquals(0, mapper.lookups);
+		cache.close();
+	}
+
+	@Test
+	public void scansWhenTheIndexIsOutOfDate() throws Exception {
+		DataSource chebi = DataSource.register("Ce", "ChEBI").asDataSource();
+		DataSource wikidata = DataSource.register("Wd", "Wikidata").asDataSource();
+		File[] bridgeFiles = { bridgeFile("metabolites.bridge", "v1") };
+		File cacheFolder = folder.resolve("cache").toFile();
+		Xref water = new Xref("CHEBI:15377", chebi);
+		Xref ethanol = new Xref("CHEBI:16236", chebi);
+
+		PersistentIDMapper cache = PersistentIDMapper.open(new WaterMapper(), cacheFolder, bridgeFiles);
+		cache.mapID(water, wikidata);
+		cache.close();
+		byte[] oldIndex = Files.readAllBytes(cache.getIndexFile().toPath());
+
+		cache = PersistentIDMapper.open(new WaterMapper(), cacheFolder, bridgeFiles);
+		cache.mapID(ethanol, wikidata);
+		cache.close();
+
+		// the index of the first run does not cover the lookup of the second
+		Files.write(cache.getIndexFile().toPath(), oldIndex);
+		WaterMapper mapper = new WaterMapper();
+		cache = PersistentIDMapper.open(mapper, cacheFolder, bridgeFiles);
+		assertFalse(cache.isIndexFileUsed());
+		assertEquals(2, cache.size());
+		cache.mapID(ethanol, wikidata);
+		assertEquals(0, mapper.lookups);
+		cache.close();
+
+		// an index file that was cut off
+		byte[] index = Files.readAllBytes(cache.getIndexFile().toPath());
+		Files.write(cache.getIndexFile().toPath(), Arrays.copyOf(index, index.length - 4));
+		cache = PersistentIDMapper.open(mapper, cacheFolder, bridgeFiles);
+		assertFalse(cache.isIndexFileUsed());
+		assertEquals(2, cache.size());
+		cache.close();
+	}
+
+	@Test
+	public void scansAfterACrashedRun() throws Exception {
+		DataSource chebi = DataSource.register("Ce", "ChEBI").asDataSource();
+		DataSource wikidata = DataSource.register("Wd", "Wikidata").asDataSource();
+		File[] bridgeFiles = { bridgeFile("metabolites.bridge", "v1") };
+		File cacheFolder = folder.resolve("cache").toFile();
+		Xref water = new Xref("CHEBI:15377", chebi);
+		Xref ethanol = new Xref("CHEBI:16236", chebi);
+
+		PersistentIDMapper cache = PersistentIDMapper.open(new WaterMapper(), cacheFolder, bridgeFiles);
+		cache.mapID(water, wikidata);
+		cache.close();
+
+		// a run that appends a lookup, but never gets to close() and write the index
+		PersistentIDMapper crashed = PersistentIDMapper.open(new WaterMapper(), cacheFolder, bridgeFiles);
+		assertTrue(crashed.isIndexFileUsed());
+		crashed.mapID(ethanol, wikidata);
+
+		WaterMapper mapper = new WaterMapper();
+		cache = PersistentIDMapper.open(mapper, cacheFolder, bridgeFiles);
+		assertFalse(cache.isIndexFileUsed());
+		assertEquals(2, cache.size());
+		cache.mapID(water, wikidata);
+		cache.mapID(ethanol, wikidata);
+		assertEquals(0, mapper.lookups);
+		cache.close();
+		crashed.close();
+	}
+
+	@Test
+	public void newMappingFilesStartANewCache() throws Exception {
+		DataSource chebi = DataSource.register("Ce", "ChEBI").asDataSource();
+		DataSource wikidata = DataSource.register("Wd", "Wikidata").asDataSource();
+		File cacheFolder = folder.resolve("cache").toFile();
+		Xref water = new Xref("CHEBI:15377", chebi);
+
+		PersistentIDMapper cache = PersistentIDMapper.open(new WaterMapper(), cacheFolder,
+			new File[] { bridgeFile("metabolites.bridge", "v1") });
+		cache.mapID(water, wikidata);
+		File oldFile = cache.getFile();
+		cache.close();
+
+		WaterMapper mapper = new WaterMapper();
+		cache = PersistentIDMapper.open(mapper, cacheFolder,
+			new File[] { bridgeFile("metabolites.bridge", "version 2") });
+		assertEquals(0, cache.size());
+		cache.mapID(water, wikidata);
+		assertEquals(1, mapper.lookups);
+		assertFalse(oldFile.exists());
+		assertFalse(new File(oldFile.getPath() + ".index").exists());
+		assertTrue(cache.getFile().exists());
+		cache.close();
+	}
+
+	private File bridgeFile(String name, String content) throws Exception {
+		Path file = folder.resolve(name);
+		Files.write(file, content.getBytes("UTF-8"));
+		return file.toFile();
+	}
+
+}
@@ -0,0 +1,58 @@
+package org.pathvisio.io.rdf.wp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.Xref;
+import org.junit.jupiter.api.Test;
+import org.pathvisio.io.rdf.wp.BridgeDbIDMapperTest.CountingMapper;
+
+public class RoutingIDMapperTest {
+
+	@Test
+	public void asksOnlyTheMappersForTheSource() throws Exception {
+		BridgeDbIDMapperTest.registerDataSources();
+		DataSource chebi = DataSource.getExistingBySystemCode("Ce");
+		DataSource wikidata = DataSource.getExistingBySystemCode("Wd");
+		DataSource ensembl = DataSource.getExistingBySystemCode("En");
+		DataSource entrez = DataSource.getExistingBySystemCode("L");
+		DataSource kegg = DataSource.getExistingBySystemCode("Ck");
+
+		CountingMapper metabolites = new CountingMapper(0);
+		metabolites.addEquivalents(new Xref("CHEBI:15377", chebi), new Xref("Q283", wikidata));
+		CountingMapper human = new CountingMapper(0);
+		human.addEquivalents(new Xref("ENSG00000139618", ensembl), new Xref("675", entrez));
+		RoutingIDMapper mapper = new RoutingIDMapper()
+			.addIDMapper("metabolites.bridge", metabolites, Arrays.asList(chebi, wikidata))
+			.addIDMapper("Hs_Derby.bridge", human, Arrays.asList(ensembl, entrez));
+
+		assertEquals(Collections.singleton(new Xref("Q283", wikidata)), mapper.mapID(new Xref("CHEBI:15377", chebi), wikidata));
+		assertEquals(Collections.singleton(new Xref("675", entrez)), mapper.mapID(new Xref("ENSG00000139618", ensembl), entrez));
+		assertEquals(0, mapper.mapID(new Xref("C00001", kegg), wikidata).size());
+
+		assertEquals(1, metabolites.queries.get());
+		assertEquals(1, human.queries.get());
+		assertEquals(1, mapper.getQueryCount(chebi, "metabolites.bridge"));
+		assertEquals(0, mapper.getQueryCount(chebi, "Hs_Derby.bridge"));
+		assertEquals(1, mapper.getUnroutedCount());
+	}
+
+	@Test
+	public void asksMappersWithoutCapabilitiesForEverySource() throws Exception {
+		BridgeDbIDMapperTest.registerDataSources();
+		DataSource chebi = DataSource.getExistingBySystemCode("Ce");
+		DataSource wikidata = DataSource.getExistingBySystemCode("Wd");
+
+		CountingMapper unknown = new CountingMapper(0); // has no capabilities
+		unknown.addEquivalents(new Xref("CHEBI:15377", chebi), new Xref("Q283", wikidata));
+		RoutingIDMapper mapper = new RoutingIDMapper().addIDMapper("unknown.bridge", unknown);
+
+		Xref water = new Xref("CHEBI:15377", chebi);
+		assertEquals(1, mapper.mapID(Arrays.asList(water), wikidata).get(water).size());
+		assertEquals(1, mapper.getQueryCount(chebi, "unknown.bridge"));
+	}
+
+}
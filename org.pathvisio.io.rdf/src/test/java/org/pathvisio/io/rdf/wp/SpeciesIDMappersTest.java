@@ -0,0 +1,41 @@
+package org.pathvisio.io.rdf.wp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.IDMapper;
+import org.bridgedb.Xref;
+import org.bridgedb.bio.Organism;
+import org.junit.jupiter.api.Test;
+import org.pathvisio.io.rdf.wp.BridgeDbIDMapperTest.CountingMapper;
+
+public class SpeciesIDMappersTest {
+
+	@Test
+	public void humanPathwaysDoNotUseTheMouseMappings() throws Exception {
+		BridgeDbIDMapperTest.registerDataSources();
+		DataSource chebi = DataSource.getExistingBySystemCode("Ce");
+		DataSource wikidata = DataSource.getExistingBySystemCode("Wd");
+
+		CountingMapper human = new CountingMapper(0);
+		CountingMapper mouse = new CountingMapper(0);
+		CountingMapper metabolites = new CountingMapper(0);
+		metabolites.addEquivalents(new Xref("CHEBI:15377", chebi), new Xref("Q283", wikidata));
+		SpeciesIDMappers mappers = new SpeciesIDMappers()
+			.addIDMapper(Organism.HomoSapiens, human)
+			.addIDMapper(Organism.MusMusculus, mouse)
+			.addIDMapper(null, metabolites);
+
+		IDMapper mapper = mappers.forOrganism("Homo sapiens");
+		assertEquals(1, mapper.mapID(new Xref("CHEBI:15377", chebi), wikidata).size());
+		assertEquals(1, human.queries.get());
+		assertEquals(0, mouse.queries.get());
+		assertEquals(1, metabolites.queries.get());
+		assertSame(mapper, mappers.forOrganism("Homo sapiens"));
+
+		mappers.forOrganism("Unknown species").mapID(new Xref("CHEBI:15377", chebi), wikidata);
+		assertEquals(1, mouse.queries.get());
+	}
+
+}
@@ -0,0 +1,58 @@
+// Copyright 2025 Egon Willighagen
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package org.wikipathways.wp2rdf;
+
+import java.io.File;
+import java.util.Properties;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.bridgedb.IDMapperStack;
+import org.pathvisio.io.rdf.wp.BridgeDbIDMapper;
+import org.pathvisio.io.rdf.wp.MappingSnapshot;
+
+public class CompileMappingSnapshot {
+
+	public static void main(String[] args) throws Exception {
+		final Options options = new Options();
+		options.addOption(new Option("h", "help", false, "Display the help information."));
+
+		CommandLineParser parser = new DefaultParser();
+		CommandLine cmd = parser.parse(options, args);
+
+		if (cmd.hasOption("h") || args.length < 2) {
+			HelpFormatter formatter = new HelpFormatter();
+			formatter.printHelp("CompileMappingSnapshot [BRIDGEFILES_FOLDER] [SNAPSHOT]", options);
+			System.exit(0);
+		}
+
+		args = cmd.getArgs();
+		String bridgeFolder = args[0];
+		String snapshotFile = args[1];
+
+		final Properties prop = new Properties();
+		prop.setProperty("bridgefiles", bridgeFolder);
+		IDMapperStack mapper = BridgeDbIDMapper.createBridgeDbMapper(prop);
+
+		long start = System.currentTimeMillis();
+		MappingSnapshot.compile(mapper, new File(snapshotFile));
+		System.out.println("Compiled " + snapshotFile + " in " + (System.currentTimeMillis() - start) + " ms");
+	}
+
+}
@@ -19,6 +19,8 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -28,11 +30,14 @@ import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.jena.rdf.model.Model;
 import org.bridgedb.DataSource;
-import org.bridgedb.IDMapperStack;
+import org.bridgedb.IDMapper;
+import org.bridgedb.IDMapperException;
 import org.bridgedb.Xref;
 import org.bridgedb.bio.DataSourceTxt;
 import org.pathvisio.io.rdf.utils.Utils;
 import org.pathvisio.io.rdf.wp.BridgeDbIDMapper;
+import org.pathvisio.io.rdf.wp.MappingMetrics;
+import org.pathvisio.io.rdf.wp.NegativeCachingIDMapper;
 import org.pathvisio.libgpml.model.PathwayModel;
 
 public class CreateRDF {
@@ -42,6 +47,7 @@ public class CreateRDF {
 		options.addOption(new Option("h", "help", false, "Display the help information."));
 		options.addOption(new Option("r", "revision", true, "Revision of the pathway."));
 		options.addOption(new Option("d", "domain", true, "Domain name to use for the Resource IRIs."));
+		options.addOption(new Option("g", "compact-geometry", false, "Write the points of each interaction as one GPMLRDF geometry literal."));
 
 		CommandLineParser parser = new DefaultParser();
 		CommandLine cmd = parser.parse(options, args);
@@ -90,9 +96,24 @@ public class CreateRDF {
 			baseIRI = Utils.WP_RDF_URL;
 		}
 
+		// create a BridgeDb mapper stack for the organism of the pathway, in the background,
+		// because the GPMLRDF content does not need it
+		final Properties prop = new Properties();
+		FutureTask<IDMapper> mapperTask = null;
+		String derbyFolder = "/tmp/" + System.getProperty("OPSBRIDGEDB", "OPSBRIDGEDB");
+		if (new File(derbyFolder).exists()) {
+  	        prop.load(new FileInputStream(derbyFolder + "/config.properties"));
+			String organism = pathway.getPathway().getOrganism();
+			mapperTask = new FutureTask<>(() -> BridgeDbIDMapper.createCachedBridgeDbMapper(prop, organism));
+			new Thread(mapperTask, "bridgedb-startup").start();
+		} else {
+			System.out.println("WARN: BridgeDb config file folder does not exist: " + derbyFolder);
+		}
+
 		// generate the GPMLRDF content
 		try {
-			Model model = new org.pathvisio.io.rdf.gpml.Convertor(pathway, baseIRI).asRDF();
+			Model model = new org.pathvisio.io.rdf.gpml.Convertor(pathway, baseIRI)
+				.setCompactGeometry(cmd.hasOption('g')).asRDF();
 
 			// serialize RDF
 			model.setNsPrefix("gpml", "http://vocabularies.wikipathways.org/gpml#");
@@ -107,20 +128,33 @@ public class CreateRDF {
 			System.out.println("Error while creating GPMLRDF for " + wpid + ": " + exception.getMessage());
 		}
 
-		// create a BridgeDb mapper stack
-		final Properties prop = new Properties();
-		IDMapperStack mapper = null;
-		String derbyFolder = "/tmp/" + System.getProperty("OPSBRIDGEDB", "OPSBRIDGEDB");
-		if (new File(derbyFolder).exists()) {
-  	        prop.load(new FileInputStream(derbyFolder + "/config.properties"));
-		    mapper = BridgeDbIDMapper.createBridgeDbMapper(prop);
-		} else {
-			System.out.println("WARN: BridgeDb config file folder does not exist: " + derbyFolder);
+		IDMapper mapper = null;
+		if (mapperTask != null) {
+			try {
+				mapper = mapperTask.get();
+			} catch (ExecutionException exception) {
+				throw exception.getCause() instanceof Exception ? (Exception)exception.getCause() : exception;
+			}
 		}
 
 		// generate the WPRDF content
+		createWPRDF(pathway, baseIRI, mapper, wprdfFile);
+	}
+
+	/**
+	 * Writes the WPRDF of the pathway, and closes the mapper, so that a mapping cache
+	 * writes its index for the next run.
+	 */
+	static void createWPRDF(PathwayModel pathway, String baseIRI, IDMapper mapper, String wprdfFile) {
+		String wpid = pathway.getPathway().getXref().getId();
 		try {
 			Model model = new org.pathvisio.io.rdf.wp.Convertor(pathway, baseIRI, mapper).asRDF();
+			if (mapper instanceof NegativeCachingIDMapper) {
+				String missReport = ((NegativeCachingIDMapper)mapper).getMissReport(20);
+				if (!missReport.isEmpty()) System.out.print("Identifiers without mappings in " + wpid + ":\n" + missReport);
+			}
+			MappingMetrics metrics = MappingMetrics.getDefault();
+			if (!metrics.getMappers().isEmpty()) System.out.print(metrics.getReport());
 
 			// serialize RDF
 			model.setNsPrefix("biopax", "http://www.biopax.org/release/biopax-level3.owl#");
@@ -147,7 +181,15 @@ public class CreateRDF {
 		} catch (Exception exception) {
 			// skip
 			System.out.println("Error while creating WPRDF for " + wpid + ": " + exception.getMessage());
+		} finally {
+			if (mapper != null) {
+				try {
+					mapper.close();
+				} catch (IDMapperException exception) {
+					System.out.println("Error while closing the BridgeDb mapper: " + exception.getMessage());
+				}
+			}
 		}
 	}
-	
+
 }
@@ -0,0 +1,78 @@
+package org.wikipathways.wp2rdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.IDMapperException;
+import org.bridgedb.IDMapperStack;
+import org.bridgedb.Xref;
+import org.bridgedb.bio.DataSourceTxt;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pathvisio.io.rdf.utils.Utils;
+import org.pathvisio.io.rdf.wp.PersistentIDMapper;
+import org.pathvisio.libgpml.model.PathwayModel;
+
+public class CreateRDFTest {
+
+	@TempDir
+	Path folder;
+
+	private static final String GPML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+		+ "<Pathway xmlns=\"http://pathvisio.org/GPML/2013a\" Name=\"Water\" Version=\"20250101\" Organism=\"Homo sapiens\">\n"
+		+ "  <Graphics BoardWidth=\"200.0\" BoardHeight=\"100.0\" />\n"
+		+ "  <DataNode TextLabel=\"water\" GraphId=\"a1\" Type=\"Metabolite\">\n"
+		+ "    <Graphics CenterX=\"50.0\" CenterY=\"50.0\" Width=\"90.0\" Height=\"25.0\" ZOrder=\"32768\" FontSize=\"12\" Valign=\"Middle\" />\n"
+		+ "    <Xref Database=\"ChEBI\" ID=\"CHEBI:15377\" />\n"
+		+ "  </DataNode>\n"
+		+ "  <InfoBox CenterX=\"0.0\" CenterY=\"0.0\" />\n"
+		+ "</Pathway>\n";
+
+	// maps everything to the Wikidata item for water, and counts the lookups
+	static class WaterMapper extends IDMapperStack {
+
+		int lookups = 0;
+
+		@Override
+		public Set<Xref> mapID(Xref ref, DataSource... tgtDataSources) throws IDMapperException {
+			lookups++;
+			return Collections.singleton(new Xref("Q283", DataSource.getExistingBySystemCode("Wd")));
+		}
+
+	}
+
+	@Test
+	public void theNextRunUsesTheMappingCacheIndex() throws Exception {
+		DataSourceTxt.init();
+		DataSource wpSource = DataSource.register("Wp", "WikiPathways").asDataSource();
+		Path bridgeFile = folder.resolve("metabolites.bridge");
+		Files.write(bridgeFile, "v1".getBytes(StandardCharsets.UTF_8));
+		File cacheFolder = folder.resolve("cache").toFile();
+		String wprdfFile = folder.resolve("WP1.ttl").toString();
+
+		for (int run = 0; run < 2; run++) {
+			PathwayModel pathway = new PathwayModel();
+			pathway.readFromXml(new ByteArrayInputStream(GPML.getBytes(StandardCharsets.UTF_8)), false);
+			pathway.getPathway().setXref(new Xref("WP1", wpSource));
+
+			WaterMapper water = new WaterMapper();
+			PersistentIDMapper cache = PersistentIDMapper.open(water, cacheFolder, new File[] { bridgeFile.toFile() });
+			assertEquals(run > 0, cache.isIndexFileUsed());
+			CreateRDF.createWPRDF(pathway, Utils.WP_RDF_URL, cache, wprdfFile);
+			assertTrue(cache.getIndexFile().exists());
+			assertEquals(run == 0 ? 1 : 0, water.lookups);
+			assertTrue(new String(Files.readAllBytes(folder.resolve("WP1.ttl")), StandardCharsets.UTF_8)
+				.contains("http://www.wikidata.org/entity/Q283"));
+		}
+	}
+
+}